@@ -0,0 +1,403 @@
+package com;
+
+import com.analyzer.CompilationCache;
+import com.analyzer.CompilationContext;
+import com.analyzer.CompileMode;
+import com.analyzer.CompilerMetrics;
+import com.analyzer.CompilerPipeline;
+import com.analyzer.MappedCompiler;
+import com.analyzer.RecoveringAnalyzer;
+import com.model.CompilationResult;
+import com.model.Diagnostic;
+import com.model.DiagnosticReport;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Timer;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+// Non-interactive driver for CI: compiles many declaration files on a
+// bounded thread pool and writes one JSON object per file (JSON lines).
+//
+//   BatchCompiler [--threads=N] [--max-buffers=N] [--staged|--fused|--parallel|--mapped]
+//                 [--cache[=DIR]] [--cache-size=BYTES] [--diagnostics[=MAX]]
+//                 [--metrics[=text|json]] [--metrics-interval=SECONDS] [--out=results.jsonl]
+//                 <dir | glob | @file-list | file>...
+//
+// Directories are searched recursively for *.txt files. At most
+// --max-buffers files are in flight at once; submission blocks until one
+// finishes, which caps the number of file buffers held in memory. With
+// --cache, files whose content was compiled before are skipped and the
+// cache statistics are printed to stderr at the end. With --diagnostics,
+// each file gets one error-recovering pass and its JSON line lists up to
+// MAX errors with positions; the cache is bypassed. With --metrics, phase
+// timings, allocation, token kinds and failure reasons are totalled and
+// printed to stderr at the end, and every --metrics-interval seconds.
+public class BatchCompiler {
+    private final CompileMode mode;
+    private final boolean mapped;
+    private final ExecutorService executor;
+    private final Semaphore buffers;
+    private CompilationCache cache;
+    private int maxErrors;
+
+    public BatchCompiler(CompileMode mode, int threads, int maxBuffers) {
+        this(mode, false, threads, maxBuffers);
+    }
+
+    // mapped: memory-map each file and lex its bytes in place (mode is then ignored)
+    public BatchCompiler(CompileMode mode, boolean mapped, int threads, int maxBuffers) {
+        this.mode = mode;
+        this.mapped = mapped;
+        this.executor = Executors.newFixedThreadPool(threads);
+        this.buffers = new Semaphore(maxBuffers);
+    }
+
+    public void setCache(CompilationCache cache) {
+        this.cache = cache;
+    }
+
+    // 0 turns diagnostics off
+    public void setMaxErrors(int maxErrors) {
+        this.maxErrors = maxErrors;
+    }
+
+    static final String USAGE = "Usage: BatchCompiler [--threads=N] [--max-buffers=N] [--staged|--fused|--parallel|--mapped]"
+            + " [--cache[=DIR]] [--cache-size=BYTES] [--diagnostics[=MAX]]"
+            + " [--metrics[=text|json]] [--metrics-interval=SECONDS] [--out=file]"
+            + " <dir | glob | @file-list | file>...";
+
+    // The command line of main; parse throws IllegalArgumentException for an
+    // unknown flag, a malformed number or no inputs
+    static final class Options {
+        CompileMode mode = CompileMode.STAGED;
+        int threads = Runtime.getRuntime().availableProcessors();
+        int maxBuffers = -1;
+        boolean mapped;
+        Path cacheDir;
+        long cacheSize = CompilationCache.DEFAULT_MAX_BYTES;
+        int maxErrors;
+        String metricsFormat;
+        long metricsInterval;
+        Path out;
+        final List<String> inputs = new ArrayList<>();
+
+        static Options parse(String[] args) {
+            Options o = new Options();
+            for (String arg : args) {
+                try {
+                    o.add(arg);
+                } catch (NumberFormatException e) {
+                    throw new IllegalArgumentException("Not a number in " + arg);
+                }
+            }
+            if (o.inputs.isEmpty()) throw new IllegalArgumentException("No input files");
+            if (o.metricsFormat != null && !o.metricsFormat.equals("text") && !o.metricsFormat.equals("json")) {
+                throw new IllegalArgumentException("Unknown --metrics format '" + o.metricsFormat + "'; use text or json.");
+            }
+            if (o.maxBuffers < 1) o.maxBuffers = o.threads * 2;
+            return o;
+        }
+
+        private void add(String arg) {
+            if (arg.equals("--staged")) mode = CompileMode.STAGED;
+            else if (arg.equals("--fused")) mode = CompileMode.FUSED;
+            else if (arg.equals("--parallel")) mode = CompileMode.PARALLEL;
+            else if (arg.equals("--mapped")) mapped = true;
+            else if (arg.startsWith("--threads=")) threads = Integer.parseInt(arg.substring("--threads=".length()));
+            else if (arg.startsWith("--max-buffers=")) maxBuffers = Integer.parseInt(arg.substring("--max-buffers=".length()));
+            else if (arg.equals("--cache")) cacheDir = Paths.get(MiniCompiler.DEFAULT_CACHE_DIR);
+            else if (arg.startsWith("--cache=")) cacheDir = Paths.get(arg.substring("--cache=".length()));
+            else if (arg.startsWith("--cache-size=")) cacheSize = Long.parseLong(arg.substring("--cache-size=".length()));
+            else if (arg.equals("--diagnostics")) maxErrors = RecoveringAnalyzer.DEFAULT_MAX_ERRORS;
+            else if (arg.startsWith("--diagnostics=")) maxErrors = Integer.parseInt(arg.substring("--diagnostics=".length()));
+            else if (arg.equals("--metrics")) metricsFormat = "text";
+            else if (arg.startsWith("--metrics=")) metricsFormat = arg.substring("--metrics=".length());
+            else if (arg.startsWith("--metrics-interval=")) metricsInterval = Long.parseLong(arg.substring("--metrics-interval=".length()));
+            else if (arg.startsWith("--out=")) out = Paths.get(arg.substring("--out=".length()));
+            // A mistyped flag would otherwise be compiled as a file name
+            else if (arg.startsWith("--")) throw new IllegalArgumentException("Unknown option " + arg);
+            else inputs.add(arg);
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        Options options;
+        try {
+            options = Options.parse(args);
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.println(USAGE);
+            System.exit(2);
+            return;
+        }
+        boolean metricsJson = "json".equals(options.metricsFormat);
+        List<Path> files = collectFiles(options.inputs);
+        PrintWriter writer = options.out == null
+                ? new PrintWriter(System.out)
+                : new PrintWriter(Files.newBufferedWriter(options.out, StandardCharsets.UTF_8));
+        CompilerMetrics metrics = null;
+        Timer metricsDump = null;
+        if (options.metricsFormat != null) {
+            metrics = new CompilerMetrics();
+            CompilerPipeline.setListener(metrics);
+            if (options.metricsInterval > 0) metricsDump = metrics.dumpEvery(options.metricsInterval * 1000, metricsJson, System.err);
+        }
+        BatchCompiler batch = new BatchCompiler(options.mode, options.mapped, options.threads, options.maxBuffers);
+        CompilationCache cache = options.cacheDir == null ? null : CompilationCache.open(options.cacheDir, options.cacheSize);
+        batch.setCache(cache);
+        batch.setMaxErrors(options.maxErrors);
+        int failures;
+        try {
+            failures = batch.compileAll(files, line -> {
+                synchronized (writer) {
+                    writer.println(line);
+                }
+            });
+        } finally {
+            batch.shutdown();
+            writer.flush();
+            if (options.out != null) writer.close();
+            if (cache != null) {
+                System.err.println(cache.statistics());
+                cache.close();
+            }
+            if (metrics != null) {
+                if (metricsDump != null) metricsDump.cancel();
+                metrics.print(System.err, metricsJson);
+            }
+        }
+        System.exit(failures == 0 ? 0 : 1);
+    }
+
+    // Returns the number of files that failed to compile or could not be read
+    public int compileAll(List<Path> files, Consumer<String> results) throws InterruptedException {
+        AtomicInteger failures = new AtomicInteger();
+        CountDownLatch done = new CountDownLatch(files.size());
+        for (Path file : files) {
+            buffers.acquire();
+            executor.execute(() -> {
+                try {
+                    FileResult result = compileFile(file);
+                    if (!result.passed()) failures.incrementAndGet();
+                    results.accept(result.toJson());
+                } finally {
+                    buffers.release();
+                    done.countDown();
+                }
+            });
+        }
+        done.await();
+        return failures.get();
+    }
+
+    public FileResult compileFile(Path file) {
+        return compileFile(file, maxErrors);
+    }
+
+    // maxErrors overrides the batch setting for this file (0 turns diagnostics off)
+    public FileResult compileFile(Path file, int maxErrors) {
+        long start = System.nanoTime();
+        try {
+            long bytes = Files.size(file);
+            if (maxErrors > 0) {
+                DiagnosticReport report;
+                try (FileChannel channel = FileChannel.open(file)) {
+                    report = CompilerPipeline.diagnose(read(channel, bytes), maxErrors);
+                }
+                return new FileResult(file, report, bytes, System.nanoTime() - start);
+            }
+            CompilationResult result = cache == null ? compileUncached(file) : cache.compile(file, CompilationCache.pathOf(mode, mapped, false), this::compileUncached);
+            return new FileResult(file, result, bytes, System.nanoTime() - start, null);
+        } catch (IOException | UncheckedIOException e) {
+            return new FileResult(file, null, 0, System.nanoTime() - start, e.getClass().getSimpleName() + ": " + e.getMessage());
+        } catch (RuntimeException e) {
+            // A compiler bug on one file still gets that file its line, and the batch goes on
+            return new FileResult(file, null, 0, System.nanoTime() - start, e.getClass().getSimpleName() + ": " + e.getMessage());
+        }
+    }
+
+    private CompilationResult compileUncached(Path file) throws IOException {
+        if (mapped) return MappedCompiler.compile(file);
+        try (FileChannel channel = FileChannel.open(file)) {
+            if (mode == CompileMode.FUSED) {
+                // Malformed bytes are replaced, as in the other modes
+                CharsetDecoder decoder = StandardCharsets.UTF_8.newDecoder()
+                        .onMalformedInput(CodingErrorAction.REPLACE)
+                        .onUnmappableCharacter(CodingErrorAction.REPLACE);
+                return CompilerPipeline.compileFused(Channels.newReader(channel, decoder, -1));
+            }
+            // Staged compiles reuse this worker's buffers and tables
+            if (mode == CompileMode.STAGED) {
+                return CompilationContext.forThread().compile(channel, channel.size());
+            }
+            return CompilerPipeline.compile(read(channel, channel.size()), mode);
+        }
+    }
+
+    private static CharBuffer read(FileChannel channel, long size) throws IOException {
+        if (size > Integer.MAX_VALUE) throw new IOException("File too large to buffer: " + size + " bytes");
+        ByteBuffer bytes = ByteBuffer.allocate((int) size);
+        while (bytes.hasRemaining() && channel.read(bytes) >= 0) {}
+        bytes.flip();
+        return StandardCharsets.UTF_8.decode(bytes);
+    }
+
+    public void shutdown() throws InterruptedException {
+        executor.shutdown();
+        executor.awaitTermination(1, TimeUnit.MINUTES);
+    }
+
+    public static class FileResult {
+        private final Path file;
+        private final CompilationResult result;
+        private final long bytes;
+        private final long nanos;
+        private final String error;
+        private final DiagnosticReport report;
+
+        public FileResult(Path file, CompilationResult result, long bytes, long nanos, String error) {
+            this.file = file;
+            this.result = result;
+            this.bytes = bytes;
+            this.nanos = nanos;
+            this.error = error;
+            this.report = null;
+        }
+
+        public FileResult(Path file, DiagnosticReport report, long bytes, long nanos) {
+            this.file = file;
+            this.result = report.getResult();
+            this.bytes = bytes;
+            this.nanos = nanos;
+            this.error = null;
+            this.report = report;
+        }
+
+        public Path getFile() { return file; }
+        // null when the file could not be read
+        public CompilationResult getResult() { return result; }
+        public long getBytes() { return bytes; }
+        public long getNanos() { return nanos; }
+        public String getError() { return error; }
+        // null unless the file was compiled with diagnostics
+        public DiagnosticReport getReport() { return report; }
+
+        public boolean passed() { return result != null && result.isSuccessful(); }
+
+        public String toJson() {
+            if (result == null) {
+                return "{\"file\":" + jsonString(file.toString()) + ",\"status\":\"error\",\"error\":"
+                        + jsonString(error) + "}";
+            }
+            return "{\"file\":" + jsonString(file.toString())
+                    + ",\"status\":\"" + (result.isSuccessful() ? "passed" : "failed") + "\""
+                    + ",\"failedPhase\":" + (result.isSuccessful() ? "null" : "\"" + result.getFailedPhase() + "\"")
+                    + ",\"tokens\":" + result.getTokenCount()
+                    + ",\"bytes\":" + bytes
+                    + ",\"micros\":" + nanos / 1000
+                    + (report == null ? "" : diagnosticsJson())
+                    + "}";
+        }
+
+        private String diagnosticsJson() {
+            StringBuilder sb = new StringBuilder(",\"errors\":").append(report.getErrorCount()).append(",\"diagnostics\":[");
+            List<Diagnostic> diagnostics = report.getDiagnostics();
+            for (int i = 0; i < diagnostics.size(); i++) {
+                Diagnostic d = diagnostics.get(i);
+                if (i > 0) sb.append(',');
+                sb.append("{\"code\":\"").append(d.getCode().id())
+                        .append("\",\"phase\":\"").append(d.getPhase())
+                        .append("\",\"line\":").append(d.getLine())
+                        .append(",\"column\":").append(d.getColumn())
+                        .append(",\"offset\":").append(d.getOffset())
+                        .append(",\"message\":").append(jsonString(d.getCode().message()))
+                        .append(",\"lexeme\":").append(jsonString(d.getLexeme()))
+                        .append('}');
+            }
+            return sb.append(']').toString();
+        }
+    }
+
+    static String jsonString(String s) {
+        StringBuilder sb = new StringBuilder(s.length() + 2).append('"');
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c == '"' || c == '\\') sb.append('\\').append(c);
+            else if (c < ' ') sb.append(String.format("\\u%04x", (int) c));
+            else sb.append(c);
+        }
+        return sb.append('"').toString();
+    }
+
+    static List<Path> collectFiles(List<String> inputs) throws IOException {
+        List<Path> files = new ArrayList<>();
+        for (String input : inputs) {
+            if (input.startsWith("@")) {
+                try (Stream<String> lines = Files.lines(Paths.get(input.substring(1)))) {
+                    lines.map(String::trim).filter(l -> !l.isEmpty()).map(Paths::get).forEach(files::add);
+                }
+            } else if (isGlob(input)) {
+                files.addAll(expandGlob(input));
+            } else {
+                Path path = Paths.get(input);
+                if (Files.isDirectory(path)) {
+                    try (Stream<Path> walk = Files.walk(path)) {
+                        files.addAll(walk.filter(Files::isRegularFile)
+                                .filter(p -> p.getFileName().toString().endsWith(".txt"))
+                                .sorted()
+                                .collect(Collectors.toList()));
+                    }
+                } else {
+                    files.add(path);
+                }
+            }
+        }
+        return files;
+    }
+
+    private static boolean isGlob(String input) {
+        return input.indexOf('*') >= 0 || input.indexOf('?') >= 0 || input.indexOf('[') >= 0 || input.indexOf('{') >= 0;
+    }
+
+    // Walks from the longest directory prefix without glob characters
+    private static List<Path> expandGlob(String glob) throws IOException {
+        int firstWildcard = glob.length();
+        for (char c : new char[] {'*', '?', '[', '{'}) {
+            int i = glob.indexOf(c);
+            if (i >= 0) firstWildcard = Math.min(firstWildcard, i);
+        }
+        int slash = glob.lastIndexOf('/', firstWildcard);
+        Path root = slash < 0 ? Paths.get(".") : Paths.get(glob.substring(0, slash + 1));
+        String pattern = slash < 0 ? glob : glob.substring(slash + 1);
+        PathMatcher matcher = FileSystems.getDefault().getPathMatcher("glob:" + pattern);
+        try (Stream<Path> walk = Files.walk(root)) {
+            return walk.filter(Files::isRegularFile)
+                    .filter(p -> matcher.matches(root.relativize(p)))
+                    .sorted()
+                    .collect(Collectors.toList());
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package com;
+
+import com.analyzer.RecoveringAnalyzer;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.SocketAddress;
+import java.nio.channels.Channels;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+// Thin client for CompileServer: sends the files to the daemon on one
+// connection and prints the JSON line it returns for each, like BatchCompiler.
+//
+//   CompileClient [--socket=PATH | --port=N] [--diagnostics[=MAX]]
+//                 [--stats[=json]] [--shutdown] <dir | glob | @file-list | file>...
+//
+// Exits with 0 if every file passed, 1 if any failed, 2 if one could not be
+// read, and 3 if the server is unreachable.
+public class CompileClient {
+    public static void main(String[] args) {
+        String socket = null;
+        int port = 0;
+        int maxErrors = 0;
+        int stats = -1;
+        boolean shutdown = false;
+        List<String> inputs = new ArrayList<>();
+        for (String arg : args) {
+            if (arg.startsWith("--socket=")) socket = arg.substring("--socket=".length());
+            else if (arg.startsWith("--port=")) port = Integer.parseInt(arg.substring("--port=".length()));
+            else if (arg.equals("--diagnostics")) maxErrors = RecoveringAnalyzer.DEFAULT_MAX_ERRORS;
+            else if (arg.startsWith("--diagnostics=")) maxErrors = Integer.parseInt(arg.substring("--diagnostics=".length()));
+            else if (arg.equals("--stats")) stats = 0;
+            else if (arg.equals("--stats=json")) stats = 1;
+            else if (arg.equals("--shutdown")) shutdown = true;
+            else inputs.add(arg);
+        }
+        if (inputs.isEmpty() && stats < 0 && !shutdown) {
+            System.err.println("Usage: CompileClient [--socket=PATH | --port=N] [--diagnostics[=MAX]]"
+                    + " [--stats[=json]] [--shutdown] <dir | glob | @file-list | file>...");
+            System.exit(2);
+        }
+
+        SocketAddress address = CompileProtocol.address(socket, port);
+        int exitCode;
+        try (SocketChannel channel = CompileProtocol.connect(address);
+             DataInputStream in = new DataInputStream(new BufferedInputStream(Channels.newInputStream(channel)));
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel)))) {
+            CompileProtocol.write(out, CompileProtocol.HELLO, 0,
+                    CompileProtocol.readToken(CompileProtocol.tokenFile(address)));
+            reply(in);
+            exitCode = CompileProtocol.STATUS_PASSED;
+            for (Path file : BatchCompiler.collectFiles(inputs)) {
+                // The server resolves paths against its own working directory
+                CompileProtocol.write(out, CompileProtocol.COMPILE, maxErrors, file.toAbsolutePath().toString());
+                CompileProtocol.Frame reply = reply(in);
+                System.out.println(reply.text());
+                exitCode = Math.max(exitCode, reply.argument);
+            }
+            if (stats >= 0) {
+                CompileProtocol.write(out, CompileProtocol.STATS, stats, "");
+                String totals = reply(in).text();
+                if (stats == 1) System.err.println(totals);
+                else System.err.print(totals);
+            }
+            if (shutdown) {
+                CompileProtocol.write(out, CompileProtocol.SHUTDOWN, 0, "");
+                reply(in);
+            }
+        } catch (IOException e) {
+            System.err.println("Compile server at " + address + " unavailable: " + e.getMessage());
+            exitCode = 3;
+        }
+        System.exit(exitCode);
+    }
+
+    private static CompileProtocol.Frame reply(DataInputStream in) throws IOException {
+        CompileProtocol.Frame frame = CompileProtocol.read(in);
+        if (frame == null) throw new IOException("Server closed the connection");
+        if (frame.type != CompileProtocol.OK) throw new IOException(frame.text());
+        return frame;
+    }
+}
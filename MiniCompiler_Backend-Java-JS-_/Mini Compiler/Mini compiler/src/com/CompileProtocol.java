@@ -0,0 +1,177 @@
+package com;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileAttribute;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.EnumSet;
+import java.util.HexFormat;
+
+// Wire format shared by CompileServer and CompileClient. Every message, in
+// both directions, is one frame:
+//
+//   int length | byte type | int argument | length bytes of UTF-8 payload
+//
+// with big-endian ints. A client sends requests on one connection and reads
+// exactly one response per request, in order. The first request must be
+//
+//   HELLO     payload = the server's token -> empty reply, or ERROR and the
+//             connection is closed
+//
+// since the server compiles any path its owner can read. The token is
+// random per server run and written to a file only the owner can read
+// (tokenFile), so other local users cannot drive the server. Then:
+//
+//   COMPILE   argument = max diagnostics (0 = off), payload = absolute path
+//             -> argument = STATUS_*, payload = the BatchCompiler JSON line
+//   STATS     argument = 1 for JSON, 0 for text -> payload = CompilerMetrics totals
+//   SHUTDOWN  -> empty reply, then the server stops accepting and exits
+//
+// Replies have type OK, or ERROR with a message as payload for a request
+// the server could not understand.
+final class CompileProtocol {
+    static final int COMPILE = 1;
+    static final int STATS = 2;
+    static final int SHUTDOWN = 3;
+    static final int HELLO = 4;
+
+    static final int OK = 0;
+    static final int ERROR = 1;
+
+    // COMPILE reply arguments, which are also the client's exit codes
+    static final int STATUS_PASSED = 0;
+    static final int STATUS_FAILED = 1;
+    static final int STATUS_UNREADABLE = 2;
+
+    // Paths and metrics are small; diagnostics are capped by the request
+    static final int MAX_FRAME = 64 << 20;
+
+    private static final int TOKEN_BYTES = 32;
+    // The HELLO payload is the token in hex; a connection that has not
+    // authenticated cannot make the server allocate more than that
+    static final int MAX_HELLO = 2 * TOKEN_BYTES;
+
+    static final class Frame {
+        final int type;
+        final int argument;
+        final byte[] payload;
+
+        Frame(int type, int argument, byte[] payload) {
+            this.type = type;
+            this.argument = argument;
+            this.payload = payload;
+        }
+
+        String text() {
+            return new String(payload, StandardCharsets.UTF_8);
+        }
+    }
+
+    private CompileProtocol() {}
+
+    // null when the peer closed the connection between frames
+    static Frame read(DataInputStream in) throws IOException {
+        return read(in, MAX_FRAME);
+    }
+
+    // Rejects a frame whose payload is over maxLength before allocating it
+    static Frame read(DataInputStream in, int maxLength) throws IOException {
+        int length;
+        try {
+            length = in.readInt();
+        } catch (EOFException e) {
+            return null;
+        }
+        if (length < 0 || length > maxLength) throw new IOException("Bad frame length: " + length);
+        int type = in.readUnsignedByte();
+        int argument = in.readInt();
+        byte[] payload = new byte[length];
+        in.readFully(payload);
+        return new Frame(type, argument, payload);
+    }
+
+    static void write(DataOutputStream out, int type, int argument, String payload) throws IOException {
+        byte[] bytes = payload.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.writeByte(type);
+        out.writeInt(argument);
+        out.write(bytes);
+        out.flush();
+    }
+
+    // The endpoint named by --socket=PATH or --port=N; with neither, the per-user default socket
+    static SocketAddress address(String socket, int port) {
+        if (port > 0) return new InetSocketAddress(InetAddress.getLoopbackAddress(), port);
+        return UnixDomainSocketAddress.of(socket != null ? Paths.get(socket) : defaultSocket());
+    }
+
+    static Path defaultSocket() {
+        return Paths.get(System.getProperty("java.io.tmpdir"), "minicompiler-" + System.getProperty("user.name") + ".sock");
+    }
+
+    // Beside the socket, or in the temp directory for a port
+    static Path tokenFile(SocketAddress address) {
+        if (address instanceof UnixDomainSocketAddress) {
+            Path socket = ((UnixDomainSocketAddress) address).getPath();
+            return socket.resolveSibling(socket.getFileName() + ".token");
+        }
+        int port = ((InetSocketAddress) address).getPort();
+        return Paths.get(System.getProperty("java.io.tmpdir"),
+                "minicompiler-" + System.getProperty("user.name") + "-" + port + ".token");
+    }
+
+    // Writes a new random token to a file created readable by the owner only
+    static String writeToken(Path file) throws IOException {
+        byte[] random = new byte[TOKEN_BYTES];
+        new SecureRandom().nextBytes(random);
+        String token = HexFormat.of().formatHex(random);
+        Files.deleteIfExists(file);
+        FileAttribute<?>[] attributes = file.getFileSystem().supportedFileAttributeViews().contains("posix")
+                ? new FileAttribute<?>[] {PosixFilePermissions.asFileAttribute(PosixFilePermissions.fromString("rw-------"))}
+                : new FileAttribute<?>[0];
+        try (SeekableByteChannel out = Files.newByteChannel(file,
+                EnumSet.of(StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE), attributes)) {
+            out.write(ByteBuffer.wrap(token.getBytes(StandardCharsets.US_ASCII)));
+        }
+        return token;
+    }
+
+    static String readToken(Path file) throws IOException {
+        return new String(Files.readAllBytes(file), StandardCharsets.US_ASCII).trim();
+    }
+
+    // Compares in time independent of where the tokens differ
+    static boolean tokenMatches(String expected, Frame hello) {
+        return hello.type == HELLO
+                && MessageDigest.isEqual(expected.getBytes(StandardCharsets.US_ASCII), hello.payload);
+    }
+
+    static ServerSocketChannel listen(SocketAddress address) throws IOException {
+        ServerSocketChannel server = address instanceof UnixDomainSocketAddress
+                ? ServerSocketChannel.open(StandardProtocolFamily.UNIX)
+                : ServerSocketChannel.open();
+        return server.bind(address);
+    }
+
+    static SocketChannel connect(SocketAddress address) throws IOException {
+        return SocketChannel.open(address);
+    }
+}
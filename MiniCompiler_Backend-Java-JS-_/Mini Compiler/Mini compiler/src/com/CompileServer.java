@@ -0,0 +1,255 @@
+package com;
+
+import com.analyzer.CompilationCache;
+import com.analyzer.CompilationContext;
+import com.analyzer.CompileMode;
+import com.analyzer.CompilerMetrics;
+import com.analyzer.CompilerPipeline;
+import com.model.CompilationResult;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.SocketAddress;
+import java.net.UnixDomainSocketAddress;
+import java.nio.channels.AsynchronousCloseException;
+import java.nio.channels.Channels;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Timer;
+import java.util.TimerTask;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+
+// Long-lived compile daemon: one warm JVM serves every compile, so small
+// files no longer pay for JVM startup and JIT warm-up. Listens on a Unix
+// domain socket (default) or a loopback TCP port and speaks CompileProtocol.
+//
+//   CompileServer [--socket=PATH | --port=N] [--threads=N] [--staged|--fused|--parallel|--mapped]
+//                 [--cache[=DIR]] [--cache-size=BYTES]
+//
+// Every connection gets its own thread and may send any number of
+// requests once it has sent the token the server wrote next to its socket
+// (or in the temp directory for a port); at most --threads compiles run at
+// once across all clients. Until it has sent the token a connection is
+// closed after HELLO_TIMEOUT_MILLIS, and past MAX_HANDSHAKES such
+// connections new ones are closed on accept.
+// Stop it with CompileClient --shutdown (or a signal).
+public class CompileServer {
+    private static final int MAX_HANDSHAKES = 64;
+    private static final long HELLO_TIMEOUT_MILLIS = 10_000;
+
+    private final ServerSocketChannel server;
+    private final BatchCompiler compiler;
+    private final CompilerMetrics metrics = new CompilerMetrics();
+    private final Semaphore compiles;
+    private final String token;
+    private final ExecutorService connections = Executors.newCachedThreadPool(r -> {
+        Thread t = new Thread(r, "compile-connection");
+        t.setDaemon(true);
+        return t;
+    });
+    // Connections that have not sent their token yet, each holding a thread
+    private final Semaphore handshakes = new Semaphore(MAX_HANDSHAKES);
+    private final Timer helloDeadlines = new Timer("hello-deadline", true);
+    private volatile boolean stopping;
+
+    // Connections must open with a HELLO carrying token (see CompileProtocol)
+    public CompileServer(ServerSocketChannel server, BatchCompiler compiler, int threads, String token) {
+        this.server = server;
+        this.compiler = compiler;
+        this.compiles = new Semaphore(threads);
+        this.token = token;
+    }
+
+    public static void main(String[] args) throws Exception {
+        CompileMode mode = CompileMode.STAGED;
+        boolean mapped = false;
+        int threads = Runtime.getRuntime().availableProcessors();
+        String socket = null;
+        int port = 0;
+        Path cacheDir = null;
+        long cacheSize = CompilationCache.DEFAULT_MAX_BYTES;
+        for (String arg : args) {
+            if (arg.equals("--staged")) mode = CompileMode.STAGED;
+            else if (arg.equals("--fused")) mode = CompileMode.FUSED;
+            else if (arg.equals("--parallel")) mode = CompileMode.PARALLEL;
+            else if (arg.equals("--mapped")) mapped = true;
+            else if (arg.startsWith("--threads=")) threads = Integer.parseInt(arg.substring("--threads=".length()));
+            else if (arg.startsWith("--socket=")) socket = arg.substring("--socket=".length());
+            else if (arg.startsWith("--port=")) port = Integer.parseInt(arg.substring("--port=".length()));
+            else if (arg.equals("--cache")) cacheDir = Paths.get(MiniCompiler.DEFAULT_CACHE_DIR);
+            else if (arg.startsWith("--cache=")) cacheDir = Paths.get(arg.substring("--cache=".length()));
+            else if (arg.startsWith("--cache-size=")) cacheSize = Long.parseLong(arg.substring("--cache-size=".length()));
+            else {
+                System.err.println("Usage: CompileServer [--socket=PATH | --port=N] [--threads=N]"
+                        + " [--staged|--fused|--parallel|--mapped] [--cache[=DIR]] [--cache-size=BYTES]");
+                System.exit(2);
+            }
+        }
+
+        SocketAddress address = CompileProtocol.address(socket, port);
+        if (address instanceof UnixDomainSocketAddress) {
+            try {
+                removeStaleSocket(((UnixDomainSocketAddress) address).getPath());
+            } catch (IOException e) {
+                System.err.println(e.getMessage());
+                System.exit(1);
+            }
+        }
+        warmUp(mode);
+
+        BatchCompiler batch = new BatchCompiler(mode, mapped, 1, 1);
+        CompilationCache cache = cacheDir == null ? null : CompilationCache.open(cacheDir, cacheSize);
+        batch.setCache(cache);
+        try (ServerSocketChannel channel = CompileProtocol.listen(address)) {
+            if (address instanceof UnixDomainSocketAddress) {
+                Path path = ((UnixDomainSocketAddress) address).getPath();
+                Runtime.getRuntime().addShutdownHook(new Thread(() -> path.toFile().delete()));
+            }
+            // Written once bound, so a server already on the port keeps its token
+            Path tokenFile = CompileProtocol.tokenFile(address);
+            String token = CompileProtocol.writeToken(tokenFile);
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> tokenFile.toFile().delete()));
+            System.err.println("Listening on " + address + " (token in " + tokenFile + ")");
+            new CompileServer(channel, batch, threads, token).serve();
+        } finally {
+            batch.shutdown();
+            if (cache != null) {
+                System.err.println(cache.statistics());
+                cache.close();
+            }
+        }
+    }
+
+    // A socket file left by a server that died is in the way of bind; a live server's is not touched
+    private static void removeStaleSocket(Path path) throws IOException {
+        if (!Files.exists(path)) return;
+        boolean live;
+        try {
+            CompileProtocol.connect(UnixDomainSocketAddress.of(path)).close();
+            live = true;
+        } catch (IOException e) {
+            live = false;
+        }
+        if (live) throw new IOException("A server is already listening on " + path);
+        Files.delete(path);
+    }
+
+    // Compiles a generated file until the analyzers are JIT-compiled, before the first client waits on them
+    private static void warmUp(CompileMode mode) {
+        StringBuilder source = new StringBuilder();
+        for (int i = 0; i < 200; i++) {
+            source.append("int v").append(i).append(" = ").append(i).append(";\n")
+                    .append("String s").append(i).append(" = \"s").append(i).append("\";\n");
+        }
+        for (int i = 0; i < 2000; i++) {
+            if (mode == CompileMode.STAGED) CompilationContext.forThread().compile(source);
+            else CompilerPipeline.compile(source, mode);
+        }
+    }
+
+    // Accepts until a SHUTDOWN request closes the server channel
+    public void serve() throws IOException {
+        CompilerPipeline.setListener(metrics);
+        try {
+            while (true) {
+                SocketChannel client;
+                try {
+                    client = server.accept();
+                } catch (ClosedChannelException e) {
+                    if (stopping) return;
+                    throw e;
+                }
+                if (!handshakes.tryAcquire()) {
+                    client.close();
+                    continue;
+                }
+                connections.execute(() -> handle(client));
+            }
+        } finally {
+            CompilerPipeline.setListener(null);
+            helloDeadlines.cancel();
+            connections.shutdownNow();
+        }
+    }
+
+    // Holds a handshakes permit until the HELLO is in
+    private void handle(SocketChannel client) {
+        // Channel streams ignore socket timeouts, so a silent client is cut off by closing its channel
+        TimerTask deadline = new TimerTask() {
+            @Override
+            public void run() {
+                try {
+                    client.close();
+                } catch (IOException ignored) {}
+            }
+        };
+        try (SocketChannel channel = client;
+             DataInputStream in = new DataInputStream(new BufferedInputStream(Channels.newInputStream(channel)));
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel)))) {
+            CompileProtocol.Frame request;
+            try {
+                helloDeadlines.schedule(deadline, HELLO_TIMEOUT_MILLIS);
+                request = CompileProtocol.read(in, CompileProtocol.MAX_HELLO);
+            } finally {
+                deadline.cancel();
+                handshakes.release();
+            }
+            if (request == null) return;
+            if (!CompileProtocol.tokenMatches(token, request)) {
+                CompileProtocol.write(out, CompileProtocol.ERROR, 0, "Not authorized: send the server's token first");
+                return;
+            }
+            CompileProtocol.write(out, CompileProtocol.OK, 0, "");
+            while ((request = CompileProtocol.read(in)) != null) {
+                switch (request.type) {
+                    case CompileProtocol.COMPILE:
+                        BatchCompiler.FileResult result = compile(Paths.get(request.text()), Math.max(0, request.argument));
+                        CompileProtocol.write(out, CompileProtocol.OK, status(result), result.toJson());
+                        break;
+                    case CompileProtocol.STATS:
+                        CompileProtocol.write(out, CompileProtocol.OK, 0,
+                                request.argument == 1 ? metrics.json() : metrics.text());
+                        break;
+                    case CompileProtocol.SHUTDOWN:
+                        CompileProtocol.write(out, CompileProtocol.OK, 0, "");
+                        stopping = true;
+                        server.close();
+                        return;
+                    default:
+                        CompileProtocol.write(out, CompileProtocol.ERROR, 0, "Unknown request type " + request.type);
+                }
+            }
+        } catch (AsynchronousCloseException e) {
+            // Closed by its HELLO deadline, or by the server stopping
+            if (!stopping) System.err.println("Connection dropped: no token within " + HELLO_TIMEOUT_MILLIS + " ms");
+        } catch (IOException e) {
+            // The client went away or sent garbage; only this connection is affected
+            if (!stopping) System.err.println("Connection dropped: " + e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private BatchCompiler.FileResult compile(Path file, int maxErrors) throws InterruptedException {
+        compiles.acquire();
+        try {
+            return compiler.compileFile(file, maxErrors);
+        } finally {
+            compiles.release();
+        }
+    }
+
+    private static int status(BatchCompiler.FileResult result) {
+        CompilationResult compiled = result.getResult();
+        if (compiled == null) return CompileProtocol.STATUS_UNREADABLE;
+        return compiled.isSuccessful() ? CompileProtocol.STATUS_PASSED : CompileProtocol.STATUS_FAILED;
+    }
+}
@@ -0,0 +1,60 @@
+package com;
+
+import java.util.Objects;
+import javax.swing.text.BadLocationException;
+import javax.swing.text.Document;
+import javax.swing.text.Segment;
+
+// Read-only view of a Swing document that does not copy its content out.
+// Characters are read through the largest contiguous pieces the document
+// hands back (the two sides of its gap buffer), so callers must hold the
+// document's read lock, e.g. run inside Document.render, or be the thread
+// that edits it.
+final class DocumentText implements CharSequence {
+    private final Document document;
+    private final int length;
+    private final Segment segment = new Segment();
+    private int segmentStart;
+    private int segmentEnd;
+
+    DocumentText(Document document) {
+        this.document = document;
+        this.length = document.getLength();
+        segment.setPartialReturn(true);
+    }
+
+    @Override
+    public int length() {
+        return length;
+    }
+
+    @Override
+    public char charAt(int index) {
+        if (index < segmentStart || index >= segmentEnd) load(index);
+        return segment.array[segment.offset + index - segmentStart];
+    }
+
+    private void load(int index) {
+        Objects.checkIndex(index, length);
+        try {
+            document.getText(index, length - index, segment);
+        } catch (BadLocationException e) {
+            throw new IndexOutOfBoundsException(e.getMessage());
+        }
+        segmentStart = index;
+        segmentEnd = index + segment.count;
+    }
+
+    @Override
+    public CharSequence subSequence(int start, int end) {
+        Objects.checkFromToIndex(start, end, length);
+        StringBuilder sb = new StringBuilder(end - start);
+        for (int i = start; i < end; i++) sb.append(charAt(i));
+        return sb;
+    }
+
+    @Override
+    public String toString() {
+        return subSequence(0, length).toString();
+    }
+}
@@ -0,0 +1,86 @@
+package com;
+
+import java.awt.Color;
+import java.awt.Component;
+import java.awt.Dimension;
+import java.awt.FontMetrics;
+import java.awt.Graphics;
+import java.awt.Rectangle;
+import javax.swing.JComponent;
+import javax.swing.JTextArea;
+import javax.swing.SwingUtilities;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
+
+// Line numbers for a JTextArea without line wrap, used as the row header of
+// the scroll pane whose view contains the text area. Nothing is stored per
+// line: the numbers in the clip are worked out from the row height and
+// drawn, so painting costs the same for ten lines or a million.
+// Never serialized, like the rest of the editor's components.
+@SuppressWarnings("serial")
+class LineNumberGutter extends JComponent implements DocumentListener {
+    private static final int PADDING = 6;
+
+    private final JTextArea textArea;
+    // The scroll pane's view; the gutter is as tall and scrolls with it
+    private final Component view;
+    private int lines;
+
+    LineNumberGutter(JTextArea textArea, Component view) {
+        this.textArea = textArea;
+        this.view = view;
+        this.lines = textArea.getLineCount();
+        setFont(textArea.getFont());
+        setOpaque(true);
+        setBackground(new Color(40, 40, 40));
+        setForeground(new Color(150, 150, 150));
+        textArea.getDocument().addDocumentListener(this);
+    }
+
+    @Override
+    public Dimension getPreferredSize() {
+        FontMetrics metrics = getFontMetrics(getFont());
+        int digits = Math.max(2, Integer.toString(lines).length());
+        return new Dimension(2 * PADDING + digits * metrics.charWidth('0'), view.getPreferredSize().height);
+    }
+
+    @Override
+    protected void paintComponent(Graphics g) {
+        Rectangle clip = g.getClipBounds();
+        g.setColor(getBackground());
+        g.fillRect(clip.x, clip.y, clip.width, clip.height);
+
+        FontMetrics metrics = textArea.getFontMetrics(textArea.getFont());
+        int rowHeight = metrics.getHeight();
+        // Top of the first line, in the view's coordinates, which are ours too
+        int top = SwingUtilities.convertPoint(textArea, 0, textArea.getInsets().top, view).y;
+        int first = Math.max(0, (clip.y - top) / rowHeight);
+        int last = Math.min(lines - 1, (clip.y + clip.height - top) / rowHeight);
+
+        g.setFont(getFont());
+        g.setColor(getForeground());
+        int right = getWidth() - PADDING;
+        for (int line = first; line <= last; line++) {
+            String number = Integer.toString(line + 1);
+            g.drawString(number, right - metrics.stringWidth(number), top + line * rowHeight + metrics.getAscent());
+        }
+    }
+
+    @Override
+    public void insertUpdate(DocumentEvent e) { linesChanged(); }
+
+    @Override
+    public void removeUpdate(DocumentEvent e) { linesChanged(); }
+
+    @Override
+    public void changedUpdate(DocumentEvent e) {}
+
+    private void linesChanged() {
+        int count = textArea.getLineCount();
+        if (count == lines) return;
+        lines = count;
+        // Width and height may both change; the numbers below the edit move
+        revalidate();
+        repaint();
+    }
+}
@@ -0,0 +1,101 @@
+package com;
+
+import com.analyzer.IncrementalAnalyzer;
+import com.model.CompilationResult;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+import javax.swing.SwingUtilities;
+import javax.swing.Timer;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
+import javax.swing.text.Document;
+
+// Re-checks the editor contents while the user types. Document events only
+// record which range changed; once typing pauses, a background thread
+// re-analyzes the affected statements under the document's read lock and
+// posts a one-line status back to the event dispatch thread.
+class LiveAnalysis implements DocumentListener {
+    private static final int DEBOUNCE_MILLIS = 40;
+
+    private final Document document;
+    private final Consumer<String> status;
+    private final IncrementalAnalyzer analyzer = new IncrementalAnalyzer();
+    private final ExecutorService worker = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "live-analysis");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final Timer debounce;
+
+    // Edits since the last analysis, folded into one replaced range; -1 when none
+    private int editStart = -1;
+    private int editRemoved;
+    private int editInserted;
+
+    LiveAnalysis(Document document, Consumer<String> status) {
+        this.document = document;
+        this.status = status;
+        this.debounce = new Timer(DEBOUNCE_MILLIS, e -> worker.execute(this::analyze));
+        debounce.setRepeats(false);
+        document.addDocumentListener(this);
+    }
+
+    @Override
+    public void insertUpdate(DocumentEvent e) { record(e.getOffset(), 0, e.getLength()); }
+
+    @Override
+    public void removeUpdate(DocumentEvent e) { record(e.getOffset(), e.getLength(), 0); }
+
+    @Override
+    public void changedUpdate(DocumentEvent e) {}
+
+    private synchronized void record(int offset, int removed, int inserted) {
+        if (editStart < 0) {
+            editStart = offset;
+            editRemoved = removed;
+            editInserted = inserted;
+        } else {
+            // Widen the pending range to cover both; outside it nothing changed
+            int start = Math.min(editStart, offset);
+            int end = Math.max(editStart + editInserted, offset + removed);
+            editRemoved = end - start - (editInserted - editRemoved);
+            editInserted = end - start - removed + inserted;
+            editStart = start;
+        }
+        debounce.restart();
+    }
+
+    private void analyze() {
+        String[] message = new String[1];
+        // No edit can land while the read lock is held, so the pending range
+        // taken here matches the text exactly
+        document.render(() -> {
+            int start;
+            int removed;
+            int inserted;
+            synchronized (this) {
+                if (editStart < 0) return;
+                start = editStart;
+                removed = editRemoved;
+                inserted = editInserted;
+                editStart = -1;
+            }
+            long begin = System.nanoTime();
+            analyzer.edit(new DocumentText(document), start, removed, inserted);
+            CompilationResult result = analyzer.result();
+            double millis = (System.nanoTime() - begin) / 1e6;
+
+            String summary = analyzer.statementCount() + " statements, " + result.getTokenCount() + " tokens";
+            if (result.isSuccessful()) {
+                message[0] = String.format("Live check: OK - %s (%.1f ms)", summary, millis);
+            } else {
+                String phase = result.getFailedPhase().name();
+                int line = document.getDefaultRootElement().getElementIndex(analyzer.firstErrorOffset()) + 1;
+                message[0] = String.format("Live check: %s error near line %d - %s (%.1f ms)",
+                        phase.charAt(0) + phase.substring(1).toLowerCase(), line, summary, millis);
+            }
+        });
+        if (message[0] != null) SwingUtilities.invokeLater(() -> status.accept(message[0]));
+    }
+}
@@ -1,54 +1,193 @@
 package com;
-import com.analyzer.LexicalAnalyzer;
-import com.analyzer.SemanticAnalyzer;
-import com.analyzer.SyntaxAnalyzer;
-import com.model.Token;
+import com.analyzer.CompilationCache;
+import com.analyzer.CompileMode;
+import com.analyzer.CompilerMetrics;
+import com.analyzer.CompilerPipeline;
+import com.analyzer.MappedCompiler;
+import com.analyzer.RecoveringAnalyzer;
+import com.model.CompilationResult;
+import com.model.CompilationResult.Phase;
+import com.model.Diagnostic;
+import com.model.DiagnosticReport;
+import java.io.BufferedReader;
 import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.util.ArrayList;
-import java.util.Scanner;
+import java.util.Timer;
 
 public class MiniCompiler {
+    static final String DEFAULT_CACHE_DIR = ".minicompiler-cache";
+
     public static void main(String[] args) {
-        Scanner scanner = new Scanner(System.in);
+        CompileMode mode = CompileMode.STAGED;
+        int parallelism = Runtime.getRuntime().availableProcessors();
+        boolean mapped = false;
+        Path cacheDir = null;
+        long cacheSize = CompilationCache.DEFAULT_MAX_BYTES;
+        int maxErrors = 0;
+        String file = null;
+        String metricsFormat = null;
+        long metricsInterval = 0;
+        for (String arg : args) {
+            if (arg.equals("--mapped")) mapped = true;
+            else if (arg.startsWith("--file=")) file = arg.substring("--file=".length());
+            else if (arg.equals("--cache")) cacheDir = Paths.get(DEFAULT_CACHE_DIR);
+            else if (arg.startsWith("--cache=")) cacheDir = Paths.get(arg.substring("--cache=".length()));
+            else if (arg.startsWith("--cache-size=")) cacheSize = Long.parseLong(arg.substring("--cache-size=".length()));
+            else if (arg.equals("--diagnostics")) maxErrors = RecoveringAnalyzer.DEFAULT_MAX_ERRORS;
+            else if (arg.startsWith("--diagnostics=")) maxErrors = Integer.parseInt(arg.substring("--diagnostics=".length()));
+            else if (arg.equals("--metrics")) metricsFormat = "text";
+            else if (arg.startsWith("--metrics=")) metricsFormat = arg.substring("--metrics=".length());
+            else if (arg.startsWith("--metrics-interval=")) metricsInterval = Long.parseLong(arg.substring("--metrics-interval=".length()));
+            else if (arg.equals("--fused")) mode = CompileMode.FUSED;
+            else if (arg.equals("--staged")) mode = CompileMode.STAGED;
+            else if (arg.equals("--parallel")) mode = CompileMode.PARALLEL;
+            else if (arg.startsWith("--parallel=")) {
+                mode = CompileMode.PARALLEL;
+                parallelism = Integer.parseInt(arg.substring("--parallel=".length()));
+            }
+        }
+
+        if (maxErrors > 0 && cacheDir != null) {
+            // The cache keeps outcomes only, not the diagnostics
+            System.out.println("--diagnostics lists every error, so --cache is ignored.");
+            cacheDir = null;
+        }
+        boolean metricsJson = "json".equals(metricsFormat);
+        if (metricsFormat != null && !metricsJson && !metricsFormat.equals("text")) {
+            System.out.println("Unknown --metrics format '" + metricsFormat + "'; use text or json.");
+            return;
+        }
+        CompilerMetrics metrics = null;
+        Timer metricsDump = null;
+        if (metricsFormat != null) {
+            metrics = new CompilerMetrics();
+            CompilerPipeline.setListener(metrics);
+            if (metricsInterval > 0) metricsDump = metrics.dumpEvery(metricsInterval * 1000, metricsJson, System.err);
+        }
+        CompilationCache.Compiler compiler = compilerFor(mode, mapped, parallelism, maxErrors);
+        int cachePath = CompilationCache.pathOf(mode, mapped, maxErrors > 0);
+        CompilationCache cache = null;
+        if (cacheDir != null) {
+            try {
+                cache = CompilationCache.open(cacheDir, cacheSize);
+            } catch (IOException e) {
+                System.out.println("Cache unavailable (" + e.getMessage() + "); compiling without it.");
+            }
+        }
+
+        if (file != null) {
+            // One compile, no prompt: the exit status tells scripts how it went
+            int status;
+            try {
+                status = compileAndReport(Paths.get(file), compiler, cache, cachePath) ? 0 : 1;
+            } catch (IOException | UncheckedIOException e) {
+                System.out.println("Error reading file " + file + " (" + e.getClass().getSimpleName() + ").");
+                status = 2;
+            }
+            finish(cache, metrics, metricsDump, metricsJson);
+            System.exit(status);
+        }
+
+        BufferedReader input = new BufferedReader(new InputStreamReader(System.in));
         while (true) {
             System.out.println("Enter the path to the .txt file containing Java variable declarations:");
-            String filePath = scanner.nextLine();
+            try {
+                String filePath = input.readLine();
+                if (filePath == null) break; // End of input
+                if (compileAndReport(Paths.get(filePath), compiler, cache, cachePath)) break; // Exit loop on success
+            } catch (IOException | UncheckedIOException e) {
+                System.out.println("Error reading file. Please check the path and try again.");
+            }
+            // Loop back
+        }
+        finish(cache, metrics, metricsDump, metricsJson);
+    }
+
+    // Prints the outcome phase by phase; returns whether every phase passed
+    private static boolean compileAndReport(Path path, CompilationCache.Compiler compiler, CompilationCache cache, int cachePath)
+            throws IOException {
+        CompilationResult result;
+        if (cache == null) {
+            result = compiler.compile(path);
+        } else {
+            long hits = cache.getHits();
+            result = cache.compile(path, cachePath, compiler);
+            if (cache.getHits() > hits) System.out.println("File unchanged since it was last compiled; using the cached result.");
+        }
+
+        if (!result.passed(Phase.LEXICAL)) {
+            System.out.println("Lexical analysis phase FAILED! Try again, pls :)");
+            return false;
+        }
+        System.out.println("Lexical analysis phase PASSED :D");
+
+        if (!result.passed(Phase.SYNTAX)) {
+            System.out.println("SYNTAX ERROR! try again :)");
+            return false;
+        }
+        System.out.println("Syntax Analysis PASSED! :D");
+
+        if (!result.passed(Phase.SEMANTIC)) {
+            System.out.println("Semantic Analysis FAILED! Try again :)");
+            return false;
+        }
+        System.out.println("Semantic Analysis PASSED! :D");
+        System.out.println("All analyses passed! Compilation successful.");
+        return true;
+    }
 
+    private static void finish(CompilationCache cache, CompilerMetrics metrics, Timer metricsDump, boolean metricsJson) {
+        if (metrics != null) {
+            if (metricsDump != null) metricsDump.cancel();
+            metrics.print(System.err, metricsJson);
+        }
+        if (cache != null) {
+            System.out.println(cache.statistics());
             try {
-                String content = new String(Files.readAllBytes(Paths.get(filePath)));
-                System.out.println("File contents:");
-                System.out.println(content);
-                System.out.println();
-
-                ArrayList<Token> tokens = LexicalAnalyzer.tokenize(content);
-
-                if (!LexicalAnalyzer.isValidLexically(tokens)) {
-                    System.out.println("Lexical analysis phase FAILED! Try again, pls :)");
-                    continue; // Loop back
-                }
-                System.out.println("Lexical analysis phase PASSED :D");
-
-                if (!SyntaxAnalyzer.analyze(tokens)) {
-                    System.out.println("SYNTAX ERROR! try again :)");
-                    continue; // Loop back
-                }
-                System.out.println("Syntax Analysis PASSED! :D");
-
-                if (!SemanticAnalyzer.analyze(tokens)) {
-                    System.out.println("Semantic Analysis FAILED! Try again :)");
-                    continue; // Loop back
-                }
-                System.out.println("Semantic Analysis PASSED! :D");
-                System.out.println("All analyses passed! Compilation successful.");
-                break; // Exit loop on success
+                cache.close();
+            } catch (IOException ignored) {}
+        }
+    }
 
-            } catch (IOException e) {
-                System.out.println("Error reading file. Please check the path and try again.");
-                continue; // Loop back
+    private static CompilationCache.Compiler compilerFor(CompileMode mode, boolean mapped, int parallelism, int maxErrors) {
+        return path -> compile(path, mode, mapped, parallelism, maxErrors);
+    }
+
+    private static CompilationResult compile(Path path, CompileMode mode, boolean mapped, int parallelism, int maxErrors)
+            throws IOException {
+        // Every path decodes UTF-8 and replaces malformed input, as the
+        // mapped path and BatchCompiler do, so the mode cannot change the result
+        if (maxErrors > 0) {
+            // One error-recovering pass that lists every problem instead of the contents
+            DiagnosticReport report = CompilerPipeline.diagnose(new String(Files.readAllBytes(path), StandardCharsets.UTF_8), maxErrors);
+            for (Diagnostic d : report.getDiagnostics()) System.out.println(path + ":" + d);
+            if (report.isTruncated()) {
+                System.out.println("... " + (report.getErrorCount() - report.getDiagnostics().size()) + " more error(s) not shown");
+            }
+            return report.getResult();
+        }
+        if (mapped) {
+            // Lexed in place from the memory-mapped file, so the contents are not echoed
+            return MappedCompiler.compile(path);
+        }
+        if (mode == CompileMode.FUSED) {
+            // Streamed straight from disk, so the contents are not echoed
+            try (Reader reader = new InputStreamReader(Files.newInputStream(path), StandardCharsets.UTF_8)) {
+                return CompilerPipeline.compileFused(reader);
             }
         }
-        scanner.close();
+        String content = new String(Files.readAllBytes(path), StandardCharsets.UTF_8);
+        System.out.println("File contents:");
+        System.out.println(content);
+        System.out.println();
+        return mode == CompileMode.PARALLEL
+                ? CompilerPipeline.compileParallel(content, parallelism)
+                : CompilerPipeline.compileStaged(content);
     }
-}
\ No newline at end of file
+}
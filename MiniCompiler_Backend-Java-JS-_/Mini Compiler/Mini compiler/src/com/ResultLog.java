@@ -0,0 +1,93 @@
+package com;
+
+import java.util.ArrayList;
+import java.util.List;
+import javax.swing.AbstractListModel;
+
+// Rows of the result view. A JList over this model with a fixed cell size
+// only measures and renders the rows in the viewport, so a long run of
+// output costs one reference per row instead of a text document with an
+// element per line. Rows are kept as given and turned into text by the
+// renderer when painted: diagnostics are formatted only while on screen.
+// Swing models are Serializable, but this one holds live results and is never serialized.
+@SuppressWarnings("serial")
+class ResultLog extends AbstractListModel<Object> {
+    private final ArrayList<Object> rows = new ArrayList<>();
+    // Text after the last '\n' of the last append, not yet a row
+    private final StringBuilder pending = new StringBuilder();
+    // Length in chars of the longest row, for the view's fixed cell width
+    private int widest;
+
+    @Override
+    public int getSize() {
+        return rows.size() + (pending.length() > 0 ? 1 : 0);
+    }
+
+    @Override
+    public Object getElementAt(int index) {
+        return index < rows.size() ? rows.get(index) : pending.toString();
+    }
+
+    public int getWidestRow() {
+        return widest;
+    }
+
+    // Same line splitting as JTextArea.append: text up to each '\n' ends a
+    // row, and what follows the last one is continued by the next append
+    public void append(String text) {
+        int before = getSize();
+        boolean hadPending = pending.length() > 0;
+        int from = 0;
+        for (int nl = text.indexOf('\n'); nl >= 0; nl = text.indexOf('\n', from)) {
+            pending.append(text, from, nl);
+            addRow(pending.toString());
+            pending.setLength(0);
+            from = nl + 1;
+        }
+        pending.append(text, from, text.length());
+        widest = Math.max(widest, pending.length());
+        changed(before, hadPending);
+    }
+
+    // Adds one row per item, shown as its toString()
+    public void appendRows(List<?> items, int rowLength) {
+        if (items.isEmpty()) return;
+        flush();
+        int before = getSize();
+        rows.addAll(items);
+        widest = Math.max(widest, rowLength);
+        fireIntervalAdded(this, before, getSize() - 1);
+    }
+
+    public void clear() {
+        int size = getSize();
+        rows.clear();
+        rows.trimToSize();
+        pending.setLength(0);
+        widest = 0;
+        if (size > 0) fireIntervalRemoved(this, 0, size - 1);
+    }
+
+    public void setText(String text) {
+        clear();
+        append(text);
+    }
+
+    private void flush() {
+        if (pending.length() == 0) return;
+        // The partial row stays where it is, it just stops being partial
+        rows.add(pending.toString());
+        pending.setLength(0);
+    }
+
+    private void addRow(String row) {
+        rows.add(row);
+        widest = Math.max(widest, row.length());
+    }
+
+    private void changed(int before, boolean hadPending) {
+        int after = getSize();
+        if (hadPending) fireContentsChanged(this, before - 1, before - 1);
+        if (after > before) fireIntervalAdded(this, before, after - 1);
+    }
+}
@@ -1,23 +1,37 @@
 package com;
 
 import com.analyzer.LexicalAnalyzer;
-import com.analyzer.SemanticAnalyzer;
-import com.analyzer.SyntaxAnalyzer;
-import com.model.Token;
+import com.analyzer.ProgressiveAnalyzer;
+import com.analyzer.TokenBuffer;
+import com.model.CompilationResult.Phase;
+import com.model.Diagnostic;
+import com.model.DiagnosticReport;
 
 import javax.swing.*;
 import javax.swing.border.Border;
 import javax.swing.event.DocumentEvent;
 import javax.swing.event.DocumentListener;
+import javax.swing.event.ListDataEvent;
+import javax.swing.event.ListDataListener;
 import java.awt.*;
 import java.nio.file.Files;
 import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
 
 public class SwingCompilerUI {
+    // Diagnostics listed when a phase fails; past this they are only counted
+    private static final int MAX_LISTED_DIAGNOSTICS = 1_000_000;
 
-    private static ArrayList<Token> tokens;
+    private static TokenBuffer tokens;
     private static final JTextArea codeArea = new JTextArea();
-    private static final JTextArea resultArea = new JTextArea();
+    private static final ResultLog results = new ResultLog();
+    private static final JList<Object> resultList = new JList<>(results);
+    private static final JLabel liveStatus = new JLabel(" ");
+    private static final JProgressBar phaseProgress = new JProgressBar(0, 100);
+    // The phase being analyzed in the background, or null
+    private static PhaseTask running;
 
     private static boolean isDarkTheme = true;
     private static JFrame frame;
@@ -86,8 +100,9 @@ public class SwingCompilerUI {
         codeArea.setBackground(bg);
         codeArea.setForeground(fg);
         codeArea.setCaretColor(fg);
-        resultArea.setBackground(bg);
-        resultArea.setForeground(isDarkTheme ? Color.CYAN : new Color(0, 120, 215));
+        resultList.setBackground(bg);
+        resultList.setForeground(isDarkTheme ? Color.CYAN : new Color(0, 120, 215));
+        liveStatus.setForeground(isDarkTheme ? new Color(150, 150, 150) : new Color(90, 90, 90));
 
         if (header != null) header.setBackground(headerBg);
         if (buttonBar != null) buttonBar.setBackground(buttonBarBg);
@@ -169,25 +184,8 @@ public class SwingCompilerUI {
         labelPanel.add(sourceLabel);
         labelPanel.add(resultLabel);
 
-        // === LINE NUMBERS ===
-        JTextArea lineNumbers = new JTextArea("1");
-        lineNumbers.setBackground(new Color(40, 40, 40));
-        lineNumbers.setForeground(new Color(150, 150, 150));
-        lineNumbers.setEditable(false);
-        lineNumbers.setFont(new Font("Courier", Font.PLAIN, 15));
-
         codeArea.setFont(new Font("Courier", Font.PLAIN, 15));
-        codeArea.getDocument().addDocumentListener(new DocumentListener() {
-            public void insertUpdate(DocumentEvent e) { updateLineNumbers(); }
-            public void removeUpdate(DocumentEvent e) { updateLineNumbers(); }
-            public void changedUpdate(DocumentEvent e) {}
-            private void updateLineNumbers() {
-                StringBuilder sb = new StringBuilder();
-                int lines = codeArea.getLineCount();
-                for (int i = 1; i <= lines; i++) sb.append(i).append('\n');
-                lineNumbers.setText(sb.toString());
-            }
-        });
+        new LiveAnalysis(codeArea.getDocument(), liveStatus::setText);
 
         // === SOURCE CODE PANEL WITH PADDING ===
         JPanel codePanel = new JPanel(new BorderLayout());
@@ -195,17 +193,25 @@ public class SwingCompilerUI {
         codePanel.setBorder(BorderFactory.createEmptyBorder(12, 12, 12, 12));
         codePanel.add(new JScrollPane(codeArea), BorderLayout.CENTER);
 
+        // === LINE NUMBERS ===
         JScrollPane codeScrollPane = new JScrollPane(codePanel);
-        codeScrollPane.setRowHeaderView(lineNumbers);
+        codeScrollPane.setRowHeaderView(new LineNumberGutter(codeArea, codePanel));
         codeScrollPane.setBorder(BorderFactory.createLineBorder(new Color(255, 225, 0), 3));
 
-        // === RESULT PANEL WITH PADDING ===
-        JPanel resultPanel = new JPanel(new BorderLayout());
-        resultPanel.setBackground(isDarkTheme ? Color.BLACK : new Color(252, 252, 252));
-        resultPanel.setBorder(BorderFactory.createEmptyBorder(12, 12, 12, 12));
-        resultPanel.add(new JScrollPane(resultArea), BorderLayout.CENTER);
+        // === RESULT LIST WITH PADDING ===
+        // Fixed cell sizes keep the list from measuring every row; only the
+        // rows in the viewport are rendered
+        resultList.setFont(new Font(Font.MONOSPACED, Font.PLAIN, 13));
+        resultList.setFixedCellHeight(resultList.getFontMetrics(resultList.getFont()).getHeight());
+        resultList.setBorder(BorderFactory.createEmptyBorder(12, 12, 12, 12));
+        results.addListDataListener(new ListDataListener() {
+            public void intervalAdded(ListDataEvent e) { resultsChanged(); }
+            public void intervalRemoved(ListDataEvent e) { resultsChanged(); }
+            public void contentsChanged(ListDataEvent e) { resultsChanged(); }
+        });
+        resultsChanged();
 
-        JScrollPane resultScrollPane = new JScrollPane(resultPanel);
+        JScrollPane resultScrollPane = new JScrollPane(resultList);
         resultScrollPane.setBorder(BorderFactory.createLineBorder(new Color(255, 225, 0), 3));
 
         // === SPLIT PANE ===
@@ -228,6 +234,17 @@ public class SwingCompilerUI {
         frame.setLayout(new BorderLayout());
         frame.add(middleSection, BorderLayout.NORTH);
         frame.add(splitPane, BorderLayout.CENTER);
+        liveStatus.setFont(new Font("Segoe UI", Font.PLAIN, 13));
+        liveStatus.setBorder(BorderFactory.createEmptyBorder(4, 20, 6, 20));
+        phaseProgress.setStringPainted(true);
+        phaseProgress.setPreferredSize(new Dimension(360, 20));
+        phaseProgress.setVisible(false);
+        JPanel statusBar = new JPanel(new BorderLayout());
+        statusBar.setOpaque(false);
+        statusBar.setBorder(BorderFactory.createEmptyBorder(0, 0, 0, 20));
+        statusBar.add(liveStatus, BorderLayout.CENTER);
+        statusBar.add(phaseProgress, BorderLayout.EAST);
+        frame.add(statusBar, BorderLayout.SOUTH);
 
         applyTheme();
         frame.setLocationRelativeTo(null);
@@ -236,8 +253,9 @@ public class SwingCompilerUI {
         // === ACTIONS ===
         openBtn.addActionListener(e -> openFile(frame));
         clearBtn.addActionListener(e -> {
+            cancelRunning();
             codeArea.setText("");
-            resultArea.setText("");
+            results.clear();
             tokens = null;
             resetButtons();
             lexicalBtn.setCompleted(false);
@@ -254,7 +272,8 @@ public class SwingCompilerUI {
             public void removeUpdate(DocumentEvent e) { updateEnable(); }
             public void changedUpdate(DocumentEvent e) {}
             private void updateEnable() {
-                lexicalBtn.setEnabled(!codeArea.getText().trim().isEmpty());
+                // A running phase re-enables the buttons when it ends
+                if (running == null) lexicalBtn.setEnabled(hasCode());
             }
         });
     }
@@ -262,73 +281,209 @@ public class SwingCompilerUI {
     private static void openFile(JFrame frame) {
         JFileChooser fc = new JFileChooser();
         if (fc.showOpenDialog(frame) == JFileChooser.APPROVE_OPTION) {
+            cancelRunning();
             try {
                 codeArea.setText(Files.readString(fc.getSelectedFile().toPath()));
-                resultArea.setText("File opened: " + fc.getSelectedFile().getName() + "\n\n");
+                results.setText("File opened: " + fc.getSelectedFile().getName() + "\n\n");
                 resetButtons();
                 lexicalBtn.setCompleted(false);
                 syntaxBtn.setCompleted(false);
                 semanticBtn.setCompleted(false);
             } catch (Exception ex) {
-                resultArea.append("ERROR: " + ex.getMessage() + "\n");
+                results.append("ERROR: " + ex.getMessage() + "\n");
             }
         }
     }
 
     private static void runLexical() {
-        resultArea.append("\n=== Running Lexical Analysis ===\n\n");
-        try {
-            tokens = LexicalAnalyzer.tokenize(codeArea.getText());
-            if (!LexicalAnalyzer.isValidLexically(tokens)) {
-                resultArea.append("Lexical analysis FAILED!\nUnknown tokens found.\n\n");
-                lexicalBtn.setCompleted(false);
-                return;
-            }
-            resultArea.append("Lexical Analysis Completed.\nTokens: " + tokens.size() + "\n\n");
-            syntaxBtn.setEnabled(true);
-            lexicalBtn.setCompleted(true);
-        } catch (Exception ex) {
-            resultArea.append("Lexical Error: " + ex.getMessage() + "\n");
-            ex.printStackTrace();
-        }
+        results.append("\n=== Running Lexical Analysis ===\n\n");
+        start(new PhaseTask(Phase.LEXICAL, codeArea.getText(), null));
     }
 
     private static void runSyntax() {
-        resultArea.append("\n=== Running Syntax Analysis ===\n\n");
-        try {
-            if (!SyntaxAnalyzer.analyze(tokens)) {
-                resultArea.append("Syntax analysis FAILED!\nInvalid syntax.\n\n");
-                syntaxBtn.setCompleted(false);
-                return;
-            }
-            resultArea.append("Syntax Analysis Completed.\n\n");
-            semanticBtn.setEnabled(true);
-            syntaxBtn.setCompleted(true);
-        } catch (Exception ex) {
-            resultArea.append("Syntax Error: " + ex.getMessage() + "\n");
-            ex.printStackTrace();
-        }
+        results.append("\n=== Running Syntax Analysis ===\n\n");
+        start(new PhaseTask(Phase.SYNTAX, tokens.source(), tokens));
     }
 
     private static void runSemantic() {
-        resultArea.append("\n=== Running Semantic Analysis ===\n\n");
-        try {
-            if (!SemanticAnalyzer.analyze(tokens)) {
-                resultArea.append("Semantic analysis FAILED!\nType mismatch or duplicate var.\n\n");
-                semanticBtn.setCompleted(false);
+        results.append("\n=== Running Semantic Analysis ===\n\n");
+        start(new PhaseTask(Phase.SEMANTIC, tokens.source(), tokens));
+    }
+
+    private static void start(PhaseTask task) {
+        running = task;
+        lexicalBtn.setEnabled(false);
+        syntaxBtn.setEnabled(false);
+        semanticBtn.setEnabled(false);
+        phaseProgress.setValue(0);
+        phaseProgress.setString(task.phaseName + " analysis");
+        phaseProgress.setVisible(true);
+        task.execute();
+    }
+
+    // Drops the running phase, if any, so Open and Clear never wait for it.
+    // Its worker gives up at its next step and nothing more it publishes is shown
+    private static void cancelRunning() {
+        if (running == null) return;
+        PhaseTask task = running;
+        // Cleared first: cancel runs done() right away when called on the EDT
+        running = null;
+        task.cancel(true);
+        phaseProgress.setVisible(false);
+    }
+
+    // One phase on a background thread. Progress shows in the bar under the
+    // editor; when the phase fails, its diagnostics go to the result list in
+    // batches while they are gathered. Tokens refer to the text as it was
+    // when lexing started, as they always have.
+    private static final class PhaseTask extends SwingWorker<Boolean, Object> {
+        private static final int BATCH = 4096;
+
+        private final Phase phase;
+        private final String phaseName;
+        private final CharSequence source;
+        private final boolean syntaxWasEnabled = syntaxBtn.isEnabled();
+        private final boolean semanticWasEnabled = semanticBtn.isEnabled();
+        private TokenBuffer tokens;
+        private volatile String status = "";
+
+        PhaseTask(Phase phase, CharSequence source, TokenBuffer tokens) {
+            this.phase = phase;
+            this.phaseName = phase == Phase.LEXICAL ? "Lexical" : phase == Phase.SYNTAX ? "Syntax" : "Semantic";
+            this.source = source;
+            this.tokens = tokens;
+            addPropertyChangeListener(e -> {
+                if (running != this || !"progress".equals(e.getPropertyName())) return;
+                phaseProgress.setValue(getProgress());
+                phaseProgress.setString(status);
+            });
+        }
+
+        @Override
+        protected Boolean doInBackground() {
+            boolean ok;
+            if (phase == Phase.LEXICAL) {
+                tokens = ProgressiveAnalyzer.scan(source, (done, fraction) ->
+                        step(fraction, String.format("Lexing: %,d of %,d chars", done, source.length())));
+                ok = LexicalAnalyzer.isValidLexically(tokens);
+            } else if (phase == Phase.SYNTAX) {
+                ok = ProgressiveAnalyzer.analyzeSyntax(tokens, (done, fraction) ->
+                        step(fraction, String.format("Syntax: %,d statements checked", done)));
+            } else {
+                ok = ProgressiveAnalyzer.analyzeSemantics(tokens, (done, fraction) ->
+                        step(fraction, String.format("Semantic: %,d statements checked", done)));
+            }
+            if (!ok) publishDiagnostics();
+            return ok;
+        }
+
+        private void step(double fraction, String text) {
+            if (isCancelled()) throw new CancellationException();
+            status = text;
+            setProgress((int) (fraction * 100));
+        }
+
+        // One row per diagnostic of the failed phase. Rows keep the Diagnostic
+        // itself and are formatted only when scrolled into view
+        private void publishDiagnostics() {
+            publish(phase == Phase.LEXICAL ? "Lexical analysis FAILED!\nUnknown tokens found.\n"
+                    : phase == Phase.SYNTAX ? "Syntax analysis FAILED!\nInvalid syntax.\n"
+                    : "Semantic analysis FAILED!\nType mismatch or duplicate var.\n");
+            DiagnosticReport report = ProgressiveAnalyzer.diagnose(source, MAX_LISTED_DIAGNOSTICS, (done, fraction) ->
+                    step(fraction, String.format("Collecting diagnostics: %,d of %,d chars", done, source.length())));
+            List<Diagnostic> batch = new ArrayList<>();
+            for (Diagnostic d : report.getDiagnostics()) {
+                if (d.getPhase() != phase) continue;
+                batch.add(d);
+                if (batch.size() == BATCH) {
+                    if (isCancelled()) return;
+                    publish(batch);
+                    batch = new ArrayList<>();
+                }
+            }
+            if (!batch.isEmpty()) publish(batch);
+            if (report.isTruncated()) publish("Only the first " + MAX_LISTED_DIAGNOSTICS + " diagnostics are listed.\n");
+            publish("\n");
+        }
+
+        @Override
+        protected void process(List<Object> chunks) {
+            // Chunks still queued when the phase was dropped are not shown
+            if (running != this) return;
+            for (Object chunk : chunks) {
+                if (chunk instanceof String) {
+                    results.append((String) chunk);
+                    continue;
+                }
+                @SuppressWarnings("unchecked")
+                List<Diagnostic> rows = (List<Diagnostic>) chunk;
+                int longest = 0;
+                for (Diagnostic d : rows) {
+                    longest = Math.max(longest, d.getCode().message().length() + d.getLexeme().length());
+                }
+                // Room for the position, code and quoting around the message and lexeme
+                results.appendRows(rows, longest + 36);
+            }
+        }
+
+        @Override
+        protected void done() {
+            if (running != this) return;
+            running = null;
+            phaseProgress.setVisible(false);
+            lexicalBtn.setEnabled(hasCode());
+            syntaxBtn.setEnabled(syntaxWasEnabled);
+            semanticBtn.setEnabled(semanticWasEnabled);
+            boolean ok;
+            try {
+                ok = get();
+            } catch (InterruptedException | ExecutionException ex) {
+                Throwable cause = ex.getCause() != null ? ex.getCause() : ex;
+                results.append(phaseName + " Error: " + cause.getMessage() + "\n");
+                cause.printStackTrace();
                 return;
             }
-            resultArea.append("Semantic Analysis Completed.\n\n");
-            resultArea.append("ALL ANALYSES PASSED! COMPILATION SUCCESSFUL!\n\n");
-            semanticBtn.setCompleted(true);
-        } catch (Exception ex) {
-            resultArea.append("Semantic Error: " + ex.getMessage() + "\n");
-            ex.printStackTrace();
+            if (phase == Phase.LEXICAL) {
+                SwingCompilerUI.tokens = tokens;
+                if (ok) {
+                    results.append("Lexical Analysis Completed.\nTokens: " + tokens.size() + "\n\n");
+                    syntaxBtn.setEnabled(true);
+                }
+                lexicalBtn.setCompleted(ok);
+            } else if (phase == Phase.SYNTAX) {
+                if (ok) {
+                    results.append("Syntax Analysis Completed.\n\n");
+                    semanticBtn.setEnabled(true);
+                }
+                syntaxBtn.setCompleted(ok);
+            } else {
+                if (ok) {
+                    results.append("Semantic Analysis Completed.\n\n");
+                    results.append("ALL ANALYSES PASSED! COMPILATION SUCCESSFUL!\n\n");
+                }
+                semanticBtn.setCompleted(ok);
+            }
+        }
+    }
+
+    private static void resultsChanged() {
+        FontMetrics metrics = resultList.getFontMetrics(resultList.getFont());
+        resultList.setFixedCellWidth(Math.max(1, results.getWidestRow()) * metrics.charWidth('0'));
+        // Follow the output like an appended text area; after layout, so the list has its new height
+        SwingUtilities.invokeLater(() -> resultList.ensureIndexIsVisible(results.getSize() - 1));
+    }
+
+    // Same as !getText().trim().isEmpty(), without copying the whole document per keystroke
+    private static boolean hasCode() {
+        DocumentText text = new DocumentText(codeArea.getDocument());
+        for (int i = 0; i < text.length(); i++) {
+            if (text.charAt(i) > ' ') return true;
         }
+        return false;
     }
 
     private static void resetButtons() {
-        lexicalBtn.setEnabled(!codeArea.getText().trim().isEmpty());
+        lexicalBtn.setEnabled(hasCode());
         syntaxBtn.setEnabled(false);
         semanticBtn.setEnabled(false);
     }
@@ -0,0 +1,40 @@
+package com;
+
+import com.analyzer.LexicalAnalyzer;
+import com.analyzer.TokenStream;
+import com.analyzer.TokenStreamWriter;
+import com.model.CompilationResult;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+// Splits a compile into a lexing job and a checking job joined by a token
+// stream file (see com.analyzer.TokenStream):
+//
+//   TokenStreamTool lex <source.txt> <tokens.mctk>
+//   TokenStreamTool check <tokens.mctk>
+//
+// check maps the stream and exits with 0 if every phase passed, 1 otherwise.
+public class TokenStreamTool {
+    public static void main(String[] args) throws IOException {
+        if (args.length == 3 && args[0].equals("lex")) {
+            String source = Files.readString(Paths.get(args[1]));
+            Path out = Paths.get(args[2]);
+            try (FileChannel channel = FileChannel.open(out, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING)) {
+                TokenStreamWriter.write(LexicalAnalyzer.scan(source), channel);
+            }
+            System.out.println("Wrote " + Files.size(out) + " bytes of tokens for " + source.length() + " chars of source");
+        } else if (args.length == 2 && args[0].equals("check")) {
+            CompilationResult result = TokenStream.map(Paths.get(args[1])).compile();
+            System.out.println(result);
+            System.exit(result.isSuccessful() ? 0 : 1);
+        } else {
+            System.err.println("Usage: TokenStreamTool lex <source> <tokens> | check <tokens>");
+            System.exit(2);
+        }
+    }
+}
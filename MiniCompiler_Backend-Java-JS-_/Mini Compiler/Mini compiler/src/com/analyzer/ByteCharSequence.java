@@ -0,0 +1,99 @@
+package com.analyzer;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Objects;
+
+// Read-only CharSequence over raw bytes, one char per byte. Every delimiter
+// the lexer looks for is ASCII, so UTF-8 input scans to the same token
+// boundaries without decoding; slices share the buffer instead of copying.
+// Equality and hash codes follow the content, like String.
+public final class ByteCharSequence implements CharSequence {
+    private final ByteBuffer bytes;
+    // The backing array of a heap buffer and where offset 0 is in it, so
+    // charAt can skip ByteBuffer's checks; null for mapped and direct ones
+    private final byte[] array;
+    private final int arrayOffset;
+    private final int offset;
+    private final int length;
+    private int hash;
+
+    public ByteCharSequence(ByteBuffer bytes) {
+        this(bytes, bytes.position(), bytes.remaining());
+    }
+
+    public ByteCharSequence(ByteBuffer bytes, int offset, int length) {
+        this.bytes = bytes;
+        this.offset = offset;
+        this.length = length;
+        boolean heap = bytes.hasArray();
+        this.array = heap ? bytes.array() : null;
+        this.arrayOffset = heap ? bytes.arrayOffset() + offset : 0;
+    }
+
+    @Override
+    public int length() { return length; }
+
+    @Override
+    public char charAt(int index) {
+        if (array != null) {
+            Objects.checkIndex(index, length);
+            return (char) (array[arrayOffset + index] & 0xFF);
+        }
+        return (char) (bytes.get(offset + index) & 0xFF);
+    }
+
+    public byte byteAt(int index) {
+        return bytes.get(offset + index);
+    }
+
+    // SwarScanner over [from, to) of this sequence; results are indexes into it too
+    int wordEndCandidate(int from, int to) {
+        if (array != null) return SwarScanner.wordEndCandidate(array, arrayOffset + from, arrayOffset + to) - arrayOffset;
+        return SwarScanner.wordEndCandidate(bytes, offset + from, offset + to) - offset;
+    }
+
+    int quoteOrNewline(int from, int to, char quote) {
+        if (array != null) return SwarScanner.quoteOrNewline(array, arrayOffset + from, arrayOffset + to, (byte) quote) - arrayOffset;
+        return SwarScanner.quoteOrNewline(bytes, offset + from, offset + to, (byte) quote) - offset;
+    }
+
+    boolean isAscii() {
+        return SwarScanner.isAscii(bytes, offset, offset + length);
+    }
+
+    @Override
+    public ByteCharSequence subSequence(int start, int end) {
+        return new ByteCharSequence(bytes, offset + start, end - start);
+    }
+
+    // Decodes the slice as UTF-8; only needed when the text is shown to a user
+    @Override
+    public String toString() {
+        byte[] copy = new byte[length];
+        bytes.get(offset, copy);
+        return new String(copy, StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public int hashCode() {
+        int h = hash;
+        if (h == 0) {
+            for (int i = 0; i < length; i++) h = 31 * h + (bytes.get(offset + i) & 0xFF);
+            hash = h;
+        }
+        return h;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof ByteCharSequence)) return false;
+        ByteCharSequence other = (ByteCharSequence) o;
+        if (length != other.length) return false;
+        for (int i = 0; i < length; i++) {
+            if (bytes.get(offset + i) != other.bytes.get(other.offset + i)) return false;
+        }
+        return true;
+    }
+}
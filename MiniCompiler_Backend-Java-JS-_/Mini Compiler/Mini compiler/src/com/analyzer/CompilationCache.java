@@ -0,0 +1,226 @@
+package com.analyzer;
+
+import com.model.CompilationResult;
+import com.model.CompilationResult.Phase;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// Remembers compilation results by file content, across runs, so unchanged
+// files are never compiled again. A file is keyed by the xxHash of its bytes
+// (see ContentHash) together with its length, and by the compile path that
+// made the result (see pathOf): the paths decode and check the bytes each in
+// their own way, so a result is only reused by the path that made it.
+//
+// The cache directory holds one append-only log of fixed-size records:
+// every store and every hit appends one, so replaying the log on open
+// restores the LRU order as well as the entries. When the log reaches the
+// size bound it is rewritten with just the live entries, and the entry count
+// is capped at half the bound so a rewrite always frees at least half of it.
+// Several processes may share a directory; a record appended while another
+// process rewrites the log can be lost, which only costs a recompile.
+public class CompilationCache implements Closeable {
+    public static final long DEFAULT_MAX_BYTES = 16L << 20;
+    static final String LOG_NAME = "results.bin";
+    // Bump whenever an analyzer change can alter the result for the same input
+    private static final int FORMAT_VERSION = 5;
+    private static final int MAGIC = 0x4D43430A;
+    private static final int HEADER_SIZE = 8;
+    // key, length, token count, failed phase (0 = passed, else ordinal + 1)
+    static final int RECORD_SIZE = 8 + 8 + 4 + 1;
+    // Compile paths besides the CompileMode ones, for pathOf
+    private static final int MAPPED_PATH = CompileMode.values().length;
+    private static final int DIAGNOSTICS_PATH = MAPPED_PATH + 1;
+
+    public interface Compiler {
+        CompilationResult compile(Path file) throws IOException;
+    }
+
+    private static final class Entry {
+        final long length;
+        final int tokenCount;
+        final byte phase;
+
+        Entry(long length, int tokenCount, byte phase) {
+            this.length = length;
+            this.tokenCount = tokenCount;
+            this.phase = phase;
+        }
+    }
+
+    private final Path log;
+    private final long maxBytes;
+    private final int maxEntries;
+    private final LinkedHashMap<Long, Entry> entries;
+    private final ByteBuffer record = ByteBuffer.allocate(RECORD_SIZE);
+    private FileChannel channel;
+    private long logSize;
+
+    private long hits;
+    private long misses;
+    private long bytesSaved;
+    private long evictions;
+
+    private CompilationCache(Path directory, long maxBytes) {
+        this.log = directory.resolve(LOG_NAME);
+        this.maxBytes = maxBytes;
+        this.maxEntries = (int) Math.min(Integer.MAX_VALUE, Math.max(1, (maxBytes - HEADER_SIZE) / RECORD_SIZE / 2));
+        this.entries = new LinkedHashMap<Long, Entry>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Entry> eldest) {
+                if (size() <= maxEntries) return false;
+                evictions++;
+                return true;
+            }
+        };
+    }
+
+    public static CompilationCache open(Path directory) throws IOException {
+        return open(directory, DEFAULT_MAX_BYTES);
+    }
+
+    public static CompilationCache open(Path directory, long maxBytes) throws IOException {
+        if (maxBytes < HEADER_SIZE + 2 * RECORD_SIZE) throw new IllegalArgumentException("Cache size too small: " + maxBytes);
+        Files.createDirectories(directory);
+        CompilationCache cache = new CompilationCache(directory, maxBytes);
+        cache.load();
+        return cache;
+    }
+
+    // The compile path a result comes from, for compile: the mode unless the
+    // file is memory-mapped or compiled with diagnostics
+    public static int pathOf(CompileMode mode, boolean mapped, boolean diagnostics) {
+        if (diagnostics) return DIAGNOSTICS_PATH;
+        return mapped ? MAPPED_PATH : mode.ordinal();
+    }
+
+    // Compiles the file unless a result for the same content from the same
+    // path (see pathOf) is cached
+    public CompilationResult compile(Path file, int path, Compiler compiler) throws IOException {
+        long length = Files.size(file);
+        long key = key(ContentHash.hash(file), path);
+        CompilationResult cached = lookup(key, length);
+        if (cached != null) return cached;
+        CompilationResult result = compiler.compile(file);
+        store(key, length, result);
+        return result;
+    }
+
+    // Spreads the path over all 64 bits, so keys of different paths are as
+    // unlikely to collide as content hashes
+    static long key(long hash, int path) {
+        return hash ^ (path + 1) * 0x9E3779B97F4A7C15L;
+    }
+
+    public synchronized CompilationResult lookup(long key, long length) throws IOException {
+        Entry entry = entries.get(key);
+        if (entry == null || entry.length != length) {
+            misses++;
+            return null;
+        }
+        hits++;
+        bytesSaved += length;
+        append(key, entry);
+        return new CompilationResult(entry.phase == 0 ? null : Phase.values()[entry.phase - 1], entry.tokenCount);
+    }
+
+    public synchronized void store(long key, long length, CompilationResult result) throws IOException {
+        Phase failed = result.getFailedPhase();
+        Entry entry = new Entry(length, result.getTokenCount(), (byte) (failed == null ? 0 : failed.ordinal() + 1));
+        entries.put(key, entry);
+        append(key, entry);
+    }
+
+    private void load() throws IOException {
+        channel = FileChannel.open(log, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        long size = channel.size();
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        if (size < HEADER_SIZE || channel.read(header, 0) < HEADER_SIZE
+                || header.flip().getInt() != MAGIC || header.getInt() != FORMAT_VERSION) {
+            // Missing, foreign or from another format version: start over
+            rewrite();
+            return;
+        }
+
+        // A torn record at the end (interrupted append) is dropped
+        logSize = HEADER_SIZE + (size - HEADER_SIZE) / RECORD_SIZE * RECORD_SIZE;
+        ByteBuffer data = ByteBuffer.allocate(RECORD_SIZE * 4096);
+        for (long position = HEADER_SIZE; position < logSize; ) {
+            data.clear().limit((int) Math.min(data.capacity(), logSize - position));
+            while (data.hasRemaining() && channel.read(data, position + data.position()) >= 0) {}
+            position += data.position();
+            data.flip();
+            while (data.remaining() >= RECORD_SIZE) {
+                long hash = data.getLong();
+                entries.put(hash, new Entry(data.getLong(), data.getInt(), data.get()));
+            }
+        }
+        evictions = 0;
+        // Written under a larger bound, or torn
+        if (logSize > maxBytes) rewrite();
+        else if (logSize != size) channel.truncate(logSize);
+    }
+
+    private void append(long hash, Entry entry) throws IOException {
+        if (logSize + RECORD_SIZE > maxBytes) {
+            rewrite();
+            return;
+        }
+        record.clear();
+        put(record, hash, entry);
+        record.flip();
+        while (record.hasRemaining()) channel.write(record, logSize + record.position());
+        logSize += RECORD_SIZE;
+    }
+
+    // Replaces the log with the live entries, least recently used first
+    private void rewrite() throws IOException {
+        ByteBuffer data = ByteBuffer.allocate(HEADER_SIZE + entries.size() * RECORD_SIZE);
+        data.putInt(MAGIC).putInt(FORMAT_VERSION);
+        for (Map.Entry<Long, Entry> e : entries.entrySet()) put(data, e.getKey(), e.getValue());
+        data.flip();
+
+        Path temp = log.resolveSibling(LOG_NAME + ".tmp");
+        try (FileChannel out = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (data.hasRemaining()) out.write(data);
+        }
+        channel.close();
+        Files.move(temp, log, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        channel = FileChannel.open(log, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        logSize = data.limit();
+    }
+
+    private static void put(ByteBuffer buffer, long hash, Entry entry) {
+        buffer.putLong(hash).putLong(entry.length).putInt(entry.tokenCount).put(entry.phase);
+    }
+
+    public synchronized long getHits() { return hits; }
+    public synchronized long getMisses() { return misses; }
+    // Bytes of input that did not have to be compiled
+    public synchronized long getBytesSaved() { return bytesSaved; }
+    public synchronized long getEvictions() { return evictions; }
+    public synchronized int size() { return entries.size(); }
+
+    public synchronized double getHitRate() {
+        long lookups = hits + misses;
+        return lookups == 0 ? 0 : (double) hits / lookups;
+    }
+
+    public synchronized String statistics() {
+        return String.format("Cache: %d hits, %d misses (%.1f%% hit rate), %d bytes saved, %d entries, %d evicted",
+                hits, misses, getHitRate() * 100, bytesSaved, entries.size(), evictions);
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        channel.close();
+    }
+}
@@ -0,0 +1,145 @@
+package com.analyzer;
+
+import com.model.CompilationResult;
+import com.model.CompilationResult.Phase;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+
+// Everything a staged compilation allocates, kept for the next one: the
+// token buffer, the symbol table, the constant pool, the lexer, the
+// expression parser, and the byte and char arenas a file is read and
+// decoded into. Once the
+// arrays have grown to fit the inputs, compiling again allocates only the
+// CompilationResult, which is what a batch run or the server does
+// millions of times.
+//
+// A context is not thread-safe; pools use one per thread (forThread).
+// Inputs longer than retainedChars still compile here, but the arrays they
+// grew are dropped afterwards so an idle thread does not pin them.
+public final class CompilationContext {
+    public static final int DEFAULT_RETAINED_CHARS = 1 << 20;
+    private static final ThreadLocal<CompilationContext> PER_THREAD = ThreadLocal.withInitial(CompilationContext::new);
+
+    private final Lexer lexer = new Lexer();
+    private final ExpressionParser parser = new ExpressionParser();
+    private final ConstantPool constants = new ConstantPool();
+    private final CharsetDecoder decoder = StandardCharsets.UTF_8.newDecoder()
+            .onMalformedInput(CodingErrorAction.REPLACE)
+            .onUnmappableCharacter(CodingErrorAction.REPLACE);
+    private TokenBuffer tokens;
+    private SymbolTable symbols;
+    private ByteBuffer bytes;
+    private CharBuffer chars;
+    private final int retainedChars;
+    private int compilations;
+
+    public CompilationContext() {
+        this(DEFAULT_RETAINED_CHARS);
+    }
+
+    public CompilationContext(int retainedChars) {
+        this.retainedChars = retainedChars;
+        release();
+    }
+
+    public static CompilationContext forThread() {
+        return PER_THREAD.get();
+    }
+
+    // Same phases and result as CompilerPipeline.compileStaged. With a
+    // listener installed the phases are timed, but tokens are not counted by
+    // kind and failures are not replayed for a reason, which would allocate
+    public CompilationResult compile(CharSequence source) {
+        CompilationListener l = CompilerPipeline.getListener();
+        if (l == null) return compile(source, null, null);
+        return compile(source, l, new TraceClock());
+    }
+
+    private CompilationResult compile(CharSequence source, CompilationListener l, TraceClock clock) {
+        lexer.reset();
+        tokens.reset(source);
+        lexer.scan(source, 0, source.length(), true, tokens);
+        constants.clear();
+        Phase failed = null;
+        int symbolCount = -1;
+        boolean lexicalOk = LexicalAnalyzer.isValidLexically(tokens);
+        if (clock != null) clock.endPhase(Phase.LEXICAL);
+        if (!lexicalOk) {
+            failed = Phase.LEXICAL;
+        } else {
+            boolean syntaxOk = SyntaxAnalyzer.analyze(tokens, 0, tokens.size(), parser);
+            if (clock != null) clock.endPhase(Phase.SYNTAX);
+            if (!syntaxOk) {
+                failed = Phase.SYNTAX;
+            } else {
+                symbols.reset(source);
+                int outcome = SemanticAnalyzer.check(tokens, symbols, 0, tokens.size(), parser, SemanticAnalyzer.DECLARE,
+                        constants);
+                if (clock != null) clock.endPhase(Phase.SEMANTIC);
+                if (outcome != SemanticAnalyzer.PASSED) failed = Phase.SEMANTIC;
+                symbolCount = symbols.size();
+            }
+        }
+        CompilationResult result = new CompilationResult(failed, tokens.size());
+        // The source is the caller's; nothing here should keep it reachable
+        tokens.reset("");
+        symbols.reset("");
+        compilations++;
+        if (source.length() > retainedChars) release();
+        if (l != null) l.compiled(clock.trace("staged", result, source.length(), null, symbolCount, null));
+        return result;
+    }
+
+    // Reads size bytes of UTF-8 into the arenas and compiles them. ASCII,
+    // the usual case, is compiled from the bytes as they are: it needs no
+    // decoding, and the lexer scans byte-backed text with SwarScanner
+    public CompilationResult compile(ReadableByteChannel channel, long size) throws IOException {
+        readBytes(channel, size);
+        ByteCharSequence text = new ByteCharSequence(bytes, 0, bytes.limit());
+        return compile(text.isAscii() ? text : decode());
+    }
+
+    // Values of the constant declarators of the last compilation, up to its
+    // first semantic error (empty if an earlier phase failed). The next
+    // compilation refills it, and shrinks it if this one was large
+    public ConstantPool getConstants() {
+        return constants;
+    }
+
+    public int getCompilations() {
+        return compilations;
+    }
+
+    private void readBytes(ReadableByteChannel channel, long size) throws IOException {
+        if (size > Integer.MAX_VALUE) throw new IOException("File too large to buffer: " + size + " bytes");
+        if (bytes.capacity() < size) bytes = ByteBuffer.allocate((int) size);
+        bytes.clear().limit((int) size);
+        while (bytes.hasRemaining() && channel.read(bytes) >= 0) {}
+        bytes.flip();
+    }
+
+    // Malformed input is replaced, as Charset.decode does. The text lives in
+    // the char arena, so it is only valid until the next read
+    private CharBuffer decode() {
+        // UTF-8 never decodes to more chars than it has bytes
+        if (chars.capacity() < bytes.remaining()) chars = CharBuffer.allocate(bytes.remaining());
+        chars.clear();
+        decoder.reset();
+        decoder.decode(bytes, chars, true);
+        decoder.flush(chars);
+        chars.flip();
+        return chars;
+    }
+
+    private void release() {
+        tokens = new TokenBuffer("");
+        symbols = new SymbolTable("");
+        bytes = ByteBuffer.allocate(0);
+        chars = CharBuffer.allocate(0);
+    }
+}
@@ -0,0 +1,8 @@
+package com.analyzer;
+
+// Receives one trace per compilation once installed with
+// CompilerPipeline.setListener. Called on the compiling thread, so
+// implementations must be thread-safe and should return quickly.
+public interface CompilationListener {
+    void compiled(CompilationTrace trace);
+}
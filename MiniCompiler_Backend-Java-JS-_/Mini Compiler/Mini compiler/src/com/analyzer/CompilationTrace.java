@@ -0,0 +1,76 @@
+package com.analyzer;
+
+import com.model.CompilationResult;
+import com.model.CompilationResult.Phase;
+import com.model.Diagnostic.Code;
+
+// What one compilation cost and found. The staged pipeline times each phase
+// separately and counts tokens by kind; the other modes interleave the
+// phases, so their traces only carry the totals. Allocation figures count
+// the compiling thread only (parallel workers are not included) and are -1
+// when the JVM does not measure them.
+public final class CompilationTrace {
+    private final String mode;
+    private final CompilationResult result;
+    private final long size;
+    private final long nanos;
+    private final long allocatedBytes;
+    // Indexed by Phase ordinal; null when the phases were not timed apart
+    private final long[] phaseNanos;
+    private final long[] phaseBytes;
+    // Indexed by TokenKind ordinal; null when tokens were not counted by kind
+    private final int[] kindCounts;
+    private final int symbolCount;
+    private final Code failure;
+
+    CompilationTrace(String mode, CompilationResult result, long size, long nanos, long allocatedBytes,
+                     long[] phaseNanos, long[] phaseBytes, int[] kindCounts, int symbolCount, Code failure) {
+        this.mode = mode;
+        this.result = result;
+        this.size = size;
+        this.nanos = nanos;
+        this.allocatedBytes = allocatedBytes;
+        this.phaseNanos = phaseNanos;
+        this.phaseBytes = phaseBytes;
+        this.kindCounts = kindCounts;
+        this.symbolCount = symbolCount;
+        this.failure = failure;
+    }
+
+    public String getMode() { return mode; }
+    public CompilationResult getResult() { return result; }
+    // Chars of source (bytes for a mapped file); -1 when the input was streamed
+    public long getSize() { return size; }
+    public long getNanos() { return nanos; }
+    public long getAllocatedBytes() { return allocatedBytes; }
+    // Declared identifiers, or -1 when unknown or the semantic phase was not reached
+    public int getSymbolCount() { return symbolCount; }
+    // Why the failed phase failed; null when compilation passed or the reason is not known
+    public Code getFailure() { return failure; }
+
+    public boolean hasPhases() { return phaseNanos != null; }
+    public boolean hasKindCounts() { return kindCounts != null; }
+
+    // 0 for a phase that did not run; -1 when the phases were not timed apart
+    public long getPhaseNanos(Phase phase) {
+        return phaseNanos == null ? -1 : phaseNanos[phase.ordinal()];
+    }
+
+    public long getPhaseAllocatedBytes(Phase phase) {
+        return phaseBytes == null ? -1 : phaseBytes[phase.ordinal()];
+    }
+
+    public int getKindCount(TokenKind kind) {
+        return kindCounts == null ? -1 : kindCounts[kind.ordinal()];
+    }
+
+    public double getTokensPerSecond() {
+        return nanos == 0 ? 0 : result.getTokenCount() * 1e9 / nanos;
+    }
+
+    @Override
+    public String toString() {
+        return mode + " " + result + " in " + nanos / 1000 + " us"
+                + (failure == null ? "" : " [" + failure.id() + " " + failure.message() + "]");
+    }
+}
@@ -0,0 +1,10 @@
+package com.analyzer;
+
+public enum CompileMode {
+    // tokenize into a list, then run each analyzer over it in turn
+    STAGED,
+    // lex, check syntax and check semantics in one pass with no token list
+    FUSED,
+    // split at statement boundaries and check the pieces on a fork/join pool
+    PARALLEL
+}
@@ -0,0 +1,156 @@
+package com.analyzer;
+
+import com.model.CompilationResult;
+import com.model.CompilationResult.Phase;
+import com.model.Diagnostic.Code;
+import java.io.PrintStream;
+import java.util.Map;
+import java.util.Timer;
+import java.util.TimerTask;
+import java.util.TreeMap;
+
+// Running totals over every trace it is handed: install it with
+// CompilerPipeline.setListener, then read text() or json() at any time or
+// have dumpEvery print them periodically. Failures are histogrammed by
+// diagnostic code, or by phase when the mode could not tell the reason.
+public class CompilerMetrics implements CompilationListener {
+    private static final Phase[] PHASES = Phase.values();
+    private static final TokenKind[] KINDS = TokenKind.values();
+
+    private long compilations;
+    private long failures;
+    private long nanos;
+    private long allocatedBytes;
+    private long tokens;
+    private long size;
+    // Compilations whose phases were timed apart, and their per-phase totals
+    private long phased;
+    private final long[] phaseNanos = new long[PHASES.length];
+    private final long[] phaseBytes = new long[PHASES.length];
+    // Compilations whose tokens were counted by kind (CompilationContext does not)
+    private long kindCounted;
+    private final long[] kindCounts = new long[KINDS.length];
+    private long symbols;
+    private int maxSymbols;
+    private final TreeMap<String, Long> failureReasons = new TreeMap<>();
+
+    @Override
+    public synchronized void compiled(CompilationTrace trace) {
+        CompilationResult result = trace.getResult();
+        compilations++;
+        nanos += trace.getNanos();
+        if (trace.getAllocatedBytes() > 0) allocatedBytes += trace.getAllocatedBytes();
+        tokens += result.getTokenCount();
+        if (trace.getSize() > 0) size += trace.getSize();
+        if (trace.hasPhases()) {
+            phased++;
+            for (Phase phase : PHASES) {
+                phaseNanos[phase.ordinal()] += trace.getPhaseNanos(phase);
+                long bytes = trace.getPhaseAllocatedBytes(phase);
+                if (bytes > 0) phaseBytes[phase.ordinal()] += bytes;
+            }
+        }
+        if (trace.hasKindCounts()) {
+            kindCounted++;
+            for (TokenKind kind : KINDS) kindCounts[kind.ordinal()] += trace.getKindCount(kind);
+        }
+        if (trace.getSymbolCount() >= 0) {
+            symbols += trace.getSymbolCount();
+            maxSymbols = Math.max(maxSymbols, trace.getSymbolCount());
+        }
+        if (!result.isSuccessful()) {
+            failures++;
+            Code failure = trace.getFailure();
+            String reason = failure == null ? result.getFailedPhase().toString() : failure.id();
+            failureReasons.merge(reason, 1L, Long::sum);
+        }
+    }
+
+    public synchronized long getCompilations() { return compilations; }
+    public synchronized long getFailures() { return failures; }
+    public synchronized long getTokens() { return tokens; }
+
+    public synchronized double getTokensPerSecond() {
+        return nanos == 0 ? 0 : tokens * 1e9 / nanos;
+    }
+
+    // Failures by diagnostic code id (or phase name when the reason is unknown)
+    public synchronized Map<String, Long> getFailureReasons() {
+        return new TreeMap<>(failureReasons);
+    }
+
+    public synchronized String text() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("Compilations: %d (%d failed), %d tokens, %.0f tokens/s, %.3f ms, %d bytes allocated%n",
+                compilations, failures, tokens, getTokensPerSecond(), nanos / 1e6, allocatedBytes));
+        if (phased > 0) {
+            for (Phase phase : PHASES) {
+                sb.append(String.format("  %-9s %10.3f ms %14d bytes%n",
+                        phase, phaseNanos[phase.ordinal()] / 1e6, phaseBytes[phase.ordinal()]));
+            }
+            if (kindCounted > 0) {
+                sb.append("  Tokens:");
+                for (TokenKind kind : KINDS) sb.append(' ').append(kind).append('=').append(kindCounts[kind.ordinal()]);
+                sb.append(String.format("%n"));
+            }
+            sb.append(String.format("  Symbols: %d declared, largest table %d%n", symbols, maxSymbols));
+        }
+        if (!failureReasons.isEmpty()) {
+            sb.append("  Failures:");
+            for (Map.Entry<String, Long> e : failureReasons.entrySet()) {
+                sb.append(' ').append(e.getKey()).append('=').append(e.getValue());
+            }
+            sb.append(String.format("%n"));
+        }
+        return sb.toString();
+    }
+
+    // One line, so periodic dumps form a JSON-lines stream
+    public synchronized String json() {
+        StringBuilder sb = new StringBuilder("{\"compilations\":").append(compilations)
+                .append(",\"failures\":").append(failures)
+                .append(",\"tokens\":").append(tokens)
+                .append(",\"size\":").append(size)
+                .append(",\"nanos\":").append(nanos)
+                .append(",\"allocatedBytes\":").append(allocatedBytes)
+                .append(",\"tokensPerSecond\":").append(Math.round(getTokensPerSecond()))
+                .append(",\"phases\":{");
+        for (Phase phase : PHASES) {
+            if (phase.ordinal() > 0) sb.append(',');
+            sb.append('"').append(phase).append("\":{\"nanos\":").append(phaseNanos[phase.ordinal()])
+                    .append(",\"allocatedBytes\":").append(phaseBytes[phase.ordinal()]).append('}');
+        }
+        sb.append("},\"kinds\":{");
+        for (TokenKind kind : KINDS) {
+            if (kind.ordinal() > 0) sb.append(',');
+            sb.append('"').append(kind).append("\":").append(kindCounts[kind.ordinal()]);
+        }
+        sb.append("},\"symbols\":").append(symbols)
+                .append(",\"maxSymbols\":").append(maxSymbols)
+                .append(",\"failureReasons\":{");
+        boolean first = true;
+        for (Map.Entry<String, Long> e : failureReasons.entrySet()) {
+            if (!first) sb.append(',');
+            first = false;
+            sb.append('"').append(e.getKey()).append("\":").append(e.getValue());
+        }
+        return sb.append("}}").toString();
+    }
+
+    // Prints the totals every periodMillis on a daemon thread until the timer is cancelled
+    public Timer dumpEvery(long periodMillis, boolean json, PrintStream out) {
+        Timer timer = new Timer("compiler-metrics", true);
+        timer.scheduleAtFixedRate(new TimerTask() {
+            @Override
+            public void run() {
+                print(out, json);
+            }
+        }, periodMillis, periodMillis);
+        return timer;
+    }
+
+    public void print(PrintStream out, boolean json) {
+        if (json) out.println(json());
+        else out.print(text());
+    }
+}
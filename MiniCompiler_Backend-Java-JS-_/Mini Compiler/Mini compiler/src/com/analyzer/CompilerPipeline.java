@@ -0,0 +1,133 @@
+package com.analyzer;
+
+import com.model.CompilationResult;
+import com.model.CompilationResult.Phase;
+import com.model.Diagnostic.Code;
+import com.model.DiagnosticReport;
+import java.io.Reader;
+import java.io.StringReader;
+
+public class CompilerPipeline {
+    // Tracing is off while this is null; the untraced paths pay one volatile read
+    private static volatile CompilationListener listener;
+
+    // Every compilation run through this class (and MappedCompiler) is
+    // reported to the listener; null turns tracing off again
+    public static void setListener(CompilationListener listener) {
+        CompilerPipeline.listener = listener;
+    }
+
+    public static CompilationListener getListener() {
+        return listener;
+    }
+
+    public static CompilationResult compile(CharSequence source, CompileMode mode) {
+        if (mode == CompileMode.FUSED) return compileFused(new StringReader(source.toString()));
+        if (mode == CompileMode.PARALLEL) {
+            CompilationListener l = listener;
+            if (l == null) return new ParallelCompiler().compile(source);
+            TraceClock clock = new TraceClock();
+            CompilationResult result = new ParallelCompiler().compile(source);
+            l.compiled(clock.trace("parallel", result, source.length()));
+            return result;
+        }
+        return compileStaged(source);
+    }
+
+    public static CompilationResult compileStaged(CharSequence source) {
+        CompilationListener l = listener;
+        if (l != null) return compileTraced(source, l);
+        return compileTokens(LexicalAnalyzer.scan(source));
+    }
+
+    // The checks of compileStaged on tokens lexed earlier (see TokenStream)
+    public static CompilationResult compileTokens(TokenBuffer tokens) {
+        Phase failed = null;
+        if (!LexicalAnalyzer.isValidLexically(tokens)) failed = Phase.LEXICAL;
+        else if (!SyntaxAnalyzer.analyze(tokens)) failed = Phase.SYNTAX;
+        else if (!SemanticAnalyzer.analyze(tokens)) failed = Phase.SEMANTIC;
+        return new CompilationResult(failed, tokens.size());
+    }
+
+    // compileStaged with each phase timed; the counting afterwards is not charged to any phase
+    private static CompilationResult compileTraced(CharSequence source, CompilationListener l) {
+        TraceClock clock = new TraceClock();
+        TokenBuffer tokens = LexicalAnalyzer.scan(source);
+        Phase failed = null;
+        SymbolTable symbols = null;
+        boolean lexicalOk = LexicalAnalyzer.isValidLexically(tokens);
+        clock.endPhase(Phase.LEXICAL);
+        if (!lexicalOk) {
+            failed = Phase.LEXICAL;
+        } else {
+            boolean syntaxOk = SyntaxAnalyzer.analyze(tokens);
+            clock.endPhase(Phase.SYNTAX);
+            if (!syntaxOk) {
+                failed = Phase.SYNTAX;
+            } else {
+                symbols = new SymbolTable(source);
+                boolean semanticOk = SemanticAnalyzer.analyze(tokens, symbols);
+                clock.endPhase(Phase.SEMANTIC);
+                if (!semanticOk) failed = Phase.SEMANTIC;
+            }
+        }
+        CompilationResult result = new CompilationResult(failed, tokens.size());
+
+        int[] kindCounts = new int[TokenKind.values().length];
+        for (int i = 0; i < tokens.size(); i++) kindCounts[tokens.kind(i).ordinal()]++;
+        Code failure = null;
+        if (failed != null) {
+            // Replaying the tokens through the recovering analyzer names the first error of the phase
+            RecoveringAnalyzer reasons = new RecoveringAnalyzer(source, 1);
+            for (int i = 0; i < tokens.size(); i++) {
+                reasons.token(tokens.kind(i), tokens.start(i), tokens.start(i) + tokens.length(i));
+            }
+            reasons.report();
+            failure = reasons.firstError(failed);
+        }
+        l.compiled(clock.trace("staged", result, source.length(), kindCounts,
+                symbols == null ? -1 : symbols.size(), failure));
+        return result;
+    }
+
+    public static CompilationResult compileFused(Reader source) {
+        CompilationListener l = listener;
+        if (l == null) return fused(source);
+        TraceClock clock = new TraceClock();
+        CompilationResult result = fused(source);
+        l.compiled(clock.trace("fused", result, -1));
+        return result;
+    }
+
+    static CompilationResult fused(Reader source) {
+        FusedAnalyzer analyzer = new FusedAnalyzer();
+        LexicalAnalyzer.tokenize(source, analyzer);
+        return analyzer.result();
+    }
+
+    // Reports every error instead of stopping at the first, keeping at most maxErrors
+    public static DiagnosticReport diagnose(CharSequence source, int maxErrors) {
+        CompilationListener l = listener;
+        TraceClock clock = l == null ? null : new TraceClock();
+        RecoveringAnalyzer analyzer = new RecoveringAnalyzer(source, maxErrors);
+        new Lexer().scan(source, 0, source.length(), true, analyzer);
+        DiagnosticReport report = analyzer.report();
+        if (l != null) {
+            Phase failed = report.getResult().getFailedPhase();
+            l.compiled(clock.trace("diagnostics", report.getResult(), source.length(), null, -1,
+                    failed == null ? null : analyzer.firstError(failed)));
+        }
+        return report;
+    }
+
+    public static CompilationResult compileParallel(CharSequence source, int parallelism) {
+        CompilationListener l = listener;
+        TraceClock clock = l == null ? null : new TraceClock();
+        CompilationResult result;
+        try (ParallelCompiler compiler = new ParallelCompiler(parallelism)) {
+            result = compiler.compile(source);
+        }
+        if (l != null) l.compiled(clock.trace("parallel", result, source.length()));
+        return result;
+    }
+}
@@ -0,0 +1,81 @@
+package com.analyzer;
+
+import java.util.Arrays;
+
+// The values the semantic check worked out for declarators whose
+// initializers are constants, so later stages never parse literal text
+// again. One entry per such declarator, in source order and keyed by the
+// offset of its identifier, over parallel primitive arrays: 13 bytes an
+// entry and no objects. Values have the declared type, kept as ExpressionParser
+// keeps them: a long for integral types, char and boolean, the bits of a
+// double for float and double. Strings are not kept.
+public final class ConstantPool {
+    private static final int INITIAL_CAPACITY = 64;
+
+    private int[] starts;
+    private byte[] types;
+    private long[] values;
+    private int size;
+
+    public ConstantPool() {
+        allocate(INITIAL_CAPACITY);
+    }
+
+    private void allocate(int capacity) {
+        starts = new int[capacity];
+        types = new byte[capacity];
+        values = new long[capacity];
+    }
+
+    // Entries must be added in source order
+    void add(int start, int typeCode, long value) {
+        if (size == starts.length) {
+            int capacity = size * 2;
+            starts = Arrays.copyOf(starts, capacity);
+            types = Arrays.copyOf(types, capacity);
+            values = Arrays.copyOf(values, capacity);
+        }
+        starts[size] = start;
+        types[size] = (byte) typeCode;
+        values[size] = value;
+        size++;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    // Offset of the entry's identifier in the source
+    public int start(int index) { return starts[index]; }
+    public DataType type(int index) { return DataType.ofCode(types[index]); }
+
+    // The value of an integral, char or boolean entry
+    public long longValue(int index) { return values[index]; }
+
+    public double doubleValue(int index) {
+        return isFloating(index) ? Double.longBitsToDouble(values[index]) : values[index];
+    }
+
+    public boolean booleanValue(int index) { return values[index] != 0; }
+
+    // Entry of the identifier declared at start, or -1 if its value is not constant
+    public int indexOf(int start) {
+        int index = Arrays.binarySearch(starts, 0, size, start);
+        return index < 0 ? -1 : index;
+    }
+
+    // Like SymbolTable.reset: the arrays are kept unless far larger than the last fill needed
+    public void clear() {
+        if (starts.length > INITIAL_CAPACITY && size * 8L < starts.length) allocate(INITIAL_CAPACITY);
+        size = 0;
+    }
+
+    // Heap held by the pool's arrays (headers excluded)
+    public long memoryBytes() {
+        return (long) starts.length * (4 + 1 + 8);
+    }
+
+    private boolean isFloating(int index) {
+        return types[index] == DataType.FLOAT.code() || types[index] == DataType.DOUBLE.code();
+    }
+}
@@ -0,0 +1,107 @@
+package com.analyzer;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+// 64-bit xxHash (XXH64, seed 0) of file contents: fast, non-cryptographic,
+// and only needs to tell changed files from unchanged ones. Files are
+// memory-mapped and hashed region by region; every region but the last is
+// a whole number of 32-byte stripes, so no state spills between them.
+public final class ContentHash {
+    private static final long P1 = 0x9E3779B185EBCA87L;
+    private static final long P2 = 0xC2B2AE3D27D4EB4FL;
+    private static final long P3 = 0x165667B19E3779F9L;
+    private static final long P4 = 0x85EBCA77C2B2AE63L;
+    private static final long P5 = 0x27D4EB2F165667C5L;
+    private static final long REGION_SIZE = 64L << 20;
+
+    private long v1 = P1 + P2;
+    private long v2 = P2;
+    private long v3 = 0;
+    private long v4 = -P1;
+    private long length;
+
+    private ContentHash() {}
+
+    public static long hash(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            ContentHash hash = new ContentHash();
+            long base = 0;
+            for (; size - base > REGION_SIZE; base += REGION_SIZE) {
+                hash.stripes(channel.map(FileChannel.MapMode.READ_ONLY, base, REGION_SIZE).order(ByteOrder.LITTLE_ENDIAN));
+            }
+            return hash.finish(channel.map(FileChannel.MapMode.READ_ONLY, base, size - base).order(ByteOrder.LITTLE_ENDIAN));
+        }
+    }
+
+    public static long hash(ByteBuffer data) {
+        return new ContentHash().finish(data.slice().order(ByteOrder.LITTLE_ENDIAN));
+    }
+
+    private void stripes(ByteBuffer data) {
+        int i = data.position();
+        int limit = data.limit();
+        for (; i + 32 <= limit; i += 32) {
+            v1 = round(v1, data.getLong(i));
+            v2 = round(v2, data.getLong(i + 8));
+            v3 = round(v3, data.getLong(i + 16));
+            v4 = round(v4, data.getLong(i + 24));
+        }
+        length += i - data.position();
+        data.position(i);
+    }
+
+    private long finish(ByteBuffer data) {
+        stripes(data);
+        long h;
+        if (length > 0) {
+            h = Long.rotateLeft(v1, 1) + Long.rotateLeft(v2, 7) + Long.rotateLeft(v3, 12) + Long.rotateLeft(v4, 18);
+            h = merge(h, v1);
+            h = merge(h, v2);
+            h = merge(h, v3);
+            h = merge(h, v4);
+        } else {
+            h = P5;
+        }
+
+        int i = data.position();
+        int limit = data.limit();
+        h += length + (limit - i);
+        for (; i + 8 <= limit; i += 8) {
+            h ^= round(0, data.getLong(i));
+            h = Long.rotateLeft(h, 27) * P1 + P4;
+        }
+        if (i + 4 <= limit) {
+            h ^= (data.getInt(i) & 0xFFFFFFFFL) * P1;
+            h = Long.rotateLeft(h, 23) * P2 + P3;
+            i += 4;
+        }
+        for (; i < limit; i++) {
+            h ^= (data.get(i) & 0xFF) * P5;
+            h = Long.rotateLeft(h, 11) * P1;
+        }
+
+        h ^= h >>> 33;
+        h *= P2;
+        h ^= h >>> 29;
+        h *= P3;
+        h ^= h >>> 32;
+        return h;
+    }
+
+    private static long round(long acc, long input) {
+        acc += input * P2;
+        acc = Long.rotateLeft(acc, 31);
+        return acc * P1;
+    }
+
+    private static long merge(long acc, long v) {
+        acc ^= round(0, v);
+        return acc * P1 + P4;
+    }
+}
@@ -0,0 +1,74 @@
+package com.analyzer;
+
+public enum DataType {
+    INT("int"),
+    FLOAT("float"),
+    DOUBLE("double"),
+    CHAR("char"),
+    BOOLEAN("boolean"),
+    STRING("String"),
+    LONG("long"),
+    SHORT("short"),
+    BYTE("byte");
+
+    private static final DataType[] VALUES = values();
+
+    private final String lexeme;
+
+    DataType(String lexeme) {
+        this.lexeme = lexeme;
+    }
+
+    public String lexeme() { return lexeme; }
+
+    public byte code() { return (byte) ordinal(); }
+
+    public static DataType ofCode(int code) { return VALUES[code]; }
+
+    public static DataType lookup(CharSequence lexeme) {
+        return lookup(lexeme, 0, lexeme.length());
+    }
+
+    // Length and first character pick at most one candidate, so every
+    // lookup costs a single comparison of the remaining characters
+    public static DataType lookup(CharSequence text, int start, int end) {
+        DataType candidate;
+        switch (end - start) {
+            case 3:
+                candidate = INT;
+                break;
+            case 4:
+                switch (text.charAt(start)) {
+                    case 'c': candidate = CHAR; break;
+                    case 'l': candidate = LONG; break;
+                    case 'b': candidate = BYTE; break;
+                    default: return null;
+                }
+                break;
+            case 5:
+                switch (text.charAt(start)) {
+                    case 'f': candidate = FLOAT; break;
+                    case 's': candidate = SHORT; break;
+                    default: return null;
+                }
+                break;
+            case 6:
+                switch (text.charAt(start)) {
+                    case 'd': candidate = DOUBLE; break;
+                    case 'S': candidate = STRING; break;
+                    default: return null;
+                }
+                break;
+            case 7:
+                candidate = BOOLEAN;
+                break;
+            default:
+                return null;
+        }
+        String expected = candidate.lexeme;
+        for (int k = 0; k < expected.length(); k++) {
+            if (text.charAt(start + k) != expected.charAt(k)) return null;
+        }
+        return candidate;
+    }
+}
@@ -0,0 +1,442 @@
+package com.analyzer;
+
+import java.util.Arrays;
+
+// Operator-precedence parser for initializer expressions, fed one token at
+// a time so the streaming analyzers can use it as well as the staged ones.
+// Operators wait on a stack until one of lower precedence (Operator's
+// table) or a ')' arrives, which is Pratt's binding-power loop with an
+// explicit stack instead of recursion.
+//
+// Each reduction appends a node to parallel arrays: the AST of one
+// expression, children always before their parents, reused from one
+// expression to the next. Node types are worked out as nodes are added,
+// from the leaf types the caller passes in: DataType codes, or UNTYPED
+// when only the syntax is checked.
+//
+// Typed nodes are folded as they are added: literals are read in place
+// and each operator over known values is evaluated with Java's
+// arithmetic (int and long wrap around, integer division by zero leaves
+// the value unknown). Names are never constants here, as nothing is final.
+public final class ExpressionParser {
+    public static final int UNTYPED = -1;
+    // An operand that has no type: a broken literal, an undeclared name, or
+    // an operator applied to the wrong types. It makes its parents INVALID
+    // without further errors, so only the first cause is reported
+    public static final int INVALID = -2;
+    // Passed for a name that is not declared (before this point)
+    public static final int UNDECLARED = -3;
+
+    // First semantic error of the expression
+    public static final int NO_ERROR = 0;
+    public static final int UNDECLARED_IDENTIFIER = 1;
+    public static final int BAD_OPERANDS = 2;
+    // An integer literal too large for a long, or a decimal one that is
+    // not zero but rounds to zero or infinity
+    public static final int OUT_OF_RANGE = 3;
+
+    private static final int LEAF = -1;
+    private static final int OPEN = -1;
+
+    // Nodes: operator code or LEAF, children (-1 if none), the span of the
+    // leaf or operator token, the type, and the value if it is known
+    private byte[] operators = new byte[16];
+    private int[] lefts = new int[16];
+    private int[] rights = new int[16];
+    private int[] starts = new int[16];
+    private int[] ends = new int[16];
+    private byte[] types = new byte[16];
+    private boolean[] constants = new boolean[16];
+    private long[] values = new long[16];
+    private int nodeCount;
+
+    // Operands waiting for an operator, and operators (or OPEN) waiting for operands
+    private int[] operands = new int[16];
+    private int operandCount;
+    private int[] pending = new int[16];
+    private int[] pendingStarts = new int[16];
+    private int[] pendingEnds = new int[16];
+    private int pendingCount;
+
+    private boolean expectOperand;
+    private int tokens;
+    private int error;
+    private int errorStart;
+    private int errorEnd;
+
+    public ExpressionParser() {
+        reset();
+    }
+
+    public void reset() {
+        nodeCount = 0;
+        operandCount = 0;
+        pendingCount = 0;
+        expectOperand = true;
+        tokens = 0;
+        error = NO_ERROR;
+    }
+
+    // Takes the next token of the expression, with the type of a VALUE or
+    // IDENTIFIER leaf (ignored for other kinds). Returns false, leaving the
+    // parser as it was, if the token cannot come next
+    public boolean push(TokenKind kind, CharSequence text, int start, int end, int leafType) {
+        if (expectOperand) {
+            if (kind == TokenKind.VALUE || kind == TokenKind.IDENTIFIER) {
+                leaf(text, start, end, leafType, kind == TokenKind.VALUE);
+                expectOperand = false;
+            } else if (kind == TokenKind.SEPARATOR && text.charAt(start) == '(') {
+                pend(OPEN, start, end);
+            } else if (kind == TokenKind.OPERATOR) {
+                Operator op = Operator.lookup(text, start, end);
+                if (op == Operator.SUBTRACT) op = Operator.NEGATE;
+                if (op == null || !op.isPrefix()) return false;
+                pend(op.ordinal(), start, end);
+            } else {
+                return false;
+            }
+        } else if (kind == TokenKind.OPERATOR) {
+            Operator op = Operator.lookup(text, start, end);
+            if (op == null || op == Operator.NOT) return false;
+            // Everything waiting that binds at least as tightly has its operands now
+            while (pendingCount > 0 && pending[pendingCount - 1] != OPEN
+                    && Operator.ofCode(pending[pendingCount - 1]).precedence() >= op.precedence()) {
+                reduce();
+            }
+            pend(op.ordinal(), start, end);
+            expectOperand = true;
+        } else if (kind == TokenKind.SEPARATOR && text.charAt(start) == ')') {
+            int open = pendingCount - 1;
+            while (open >= 0 && pending[open] != OPEN) open--;
+            if (open < 0) return false;
+            while (pendingCount - 1 > open) reduce();
+            pendingCount--;
+        } else {
+            return false;
+        }
+        tokens++;
+        return true;
+    }
+
+    // Whether the next token must be an operand, so that the expression cannot end here
+    public boolean expectsOperand() {
+        return expectOperand;
+    }
+
+    public boolean hasOpenParenthesis() {
+        for (int i = 0; i < pendingCount; i++) {
+            if (pending[i] == OPEN) return true;
+        }
+        return false;
+    }
+
+    // Ends the expression; returns its root node, or -1 if it is incomplete
+    // (see expectsOperand and hasOpenParenthesis)
+    public int finish() {
+        if (expectOperand || hasOpenParenthesis()) return -1;
+        while (pendingCount > 0) reduce();
+        return operands[0];
+    }
+
+    // The expression so far is one literal or name, with nothing around it
+    public boolean isSingleToken() {
+        return tokens == 1 && !expectOperand;
+    }
+
+    public int nodeCount() { return nodeCount; }
+    public int error() { return error; }
+    public int errorStart() { return errorStart; }
+    public int errorEnd() { return errorEnd; }
+
+    // Operator of an inner node, or null for a leaf
+    public Operator operator(int node) {
+        return operators[node] == LEAF ? null : Operator.ofCode(operators[node]);
+    }
+
+    public int left(int node) { return lefts[node]; }
+    public int right(int node) { return rights[node]; }
+    public int start(int node) { return starts[node]; }
+    public int end(int node) { return ends[node]; }
+    public int type(int node) { return types[node]; }
+    // Whether the value of the node is known: no name occurs below it and
+    // every literal and operator below it could be evaluated
+    public boolean isConstant(int node) { return constants[node]; }
+    // Value of a constant node: a long for integral types, char and boolean
+    // (1 for true), the bits of a double for float and double
+    public long value(int node) { return values[node]; }
+
+    // Type of a literal leaf as written: the DataType its format belongs to, or INVALID
+    public static int literalType(CharSequence text, int start, int end) {
+        switch (LexemeClassifier.scan(text, start, end)) {
+            case LexemeClassifier.INTEGER: return DataType.INT.code();
+            case LexemeClassifier.FLOATING_POINT: return DataType.DOUBLE.code();
+            default: break;
+        }
+        if (LexemeClassifier.isQuoted(text, start, end, '"')) return DataType.STRING.code();
+        if (LexemeClassifier.isQuoted(text, start, end, '\'')) return DataType.CHAR.code();
+        if (LexemeClassifier.isBoolean(text, start, end)) return DataType.BOOLEAN.code();
+        return INVALID;
+    }
+
+    private void leaf(CharSequence text, int start, int end, int type, boolean literal) {
+        if (type == UNDECLARED) {
+            fail(UNDECLARED_IDENTIFIER, start, end);
+            type = INVALID;
+        }
+        boolean constant = false;
+        long value = 0;
+        if (literal && type >= 0) {
+            constant = true;
+            if (type == DataType.INT.code()) {
+                // No suffix makes a literal long; one too large for an int is
+                value = LexemeClassifier.integerValue(text, start, end);
+                if (value > Integer.MAX_VALUE) type = DataType.LONG.code();
+                if (value < 0) type = outOfRange(start, end);
+            } else if (type == DataType.DOUBLE.code()) {
+                double decimal = LexemeClassifier.decimalValue(text, start, end);
+                if (Double.isInfinite(decimal) || decimal == 0 && !LexemeClassifier.isZero(text, start, end)) {
+                    type = outOfRange(start, end);
+                }
+                value = Double.doubleToRawLongBits(decimal);
+            } else if (type == DataType.CHAR.code()) {
+                value = LexemeClassifier.charValue(text, start, end);
+                constant = value >= 0;
+            } else if (type == DataType.BOOLEAN.code()) {
+                value = text.charAt(start) == 't' ? 1 : 0;
+            } else {
+                constant = false;
+            }
+            constant &= type >= 0;
+        }
+        push(addNode(LEAF, -1, -1, start, end, type, constant, value));
+    }
+
+    private int outOfRange(int start, int end) {
+        fail(OUT_OF_RANGE, start, end);
+        return INVALID;
+    }
+
+    private void reduce() {
+        int code = pending[--pendingCount];
+        Operator op = Operator.ofCode(code);
+        int start = pendingStarts[pendingCount];
+        int end = pendingEnds[pendingCount];
+        int right = operands[--operandCount];
+        int left = op.isPrefix() ? -1 : operands[--operandCount];
+        int type = op.isPrefix() ? prefixType(op, types[right]) : binaryType(op, types[left], types[right]);
+        if (type == INVALID && types[right] != INVALID && (left < 0 || types[left] != INVALID)) {
+            fail(BAD_OPERANDS, start, end);
+        }
+        boolean constant = type >= 0 && constants[right] && (left < 0 || constants[left]);
+        long value = 0;
+        if (constant && op == Operator.NEGATE && operators[right] == LEAF
+                && types[right] == DataType.LONG.code() && values[right] == 1L << 31) {
+            // The one int literal that is written larger than an int
+            type = DataType.INT.code();
+            value = Integer.MIN_VALUE;
+        } else if (constant) {
+            if ((op == Operator.DIVIDE || op == Operator.REMAINDER) && isIntegral(type) && values[right] == 0) {
+                constant = false;
+            } else {
+                value = fold(op, type, left, right);
+            }
+        }
+        push(addNode(code, left, right, start, end, type, constant, value));
+    }
+
+    // Value of an operator node over constants
+    private long fold(Operator op, int type, int left, int right) {
+        switch (op) {
+            case NOT:
+                return values[right] ^ 1;
+            case NEGATE:
+                long operand = convert(right, type);
+                if (isFloating(type)) return Double.doubleToRawLongBits(-Double.longBitsToDouble(operand));
+                return type == DataType.LONG.code() ? -operand : (int) -operand;
+            case OR:
+                return values[left] | values[right];
+            case AND:
+                return values[left] & values[right];
+            case ADD:
+            case SUBTRACT:
+            case MULTIPLY:
+            case DIVIDE:
+            case REMAINDER:
+                return arithmetic(op, type, convert(left, type), convert(right, type));
+            default:
+                return compare(op, left, right) ? 1 : 0;
+        }
+    }
+
+    // a and b are values of the type, which is numeric
+    private static long arithmetic(Operator op, int type, long a, long b) {
+        if (!isFloating(type)) {
+            long result;
+            switch (op) {
+                case ADD: result = a + b; break;
+                case SUBTRACT: result = a - b; break;
+                case MULTIPLY: result = a * b; break;
+                case DIVIDE: result = a / b; break;
+                default: result = a % b; break;
+            }
+            // int arithmetic keeps the low 32 bits of the long result
+            return type == DataType.LONG.code() ? result : (int) result;
+        }
+        double x = Double.longBitsToDouble(a);
+        double y = Double.longBitsToDouble(b);
+        double result;
+        switch (op) {
+            case ADD: result = x + y; break;
+            case SUBTRACT: result = x - y; break;
+            case MULTIPLY: result = x * y; break;
+            case DIVIDE: result = x / y; break;
+            default: result = x % y; break;
+        }
+        // A double holds a float result exactly before it is rounded once
+        if (type == DataType.FLOAT.code()) result = (float) result;
+        return Double.doubleToRawLongBits(result);
+    }
+
+    private boolean compare(Operator op, int left, int right) {
+        int type = isNumeric(types[left]) ? promote(types[left], types[right]) : types[left];
+        if (isFloating(type)) {
+            double x = Double.longBitsToDouble(convert(left, type));
+            double y = Double.longBitsToDouble(convert(right, type));
+            switch (op) {
+                case EQUAL: return x == y;
+                case NOT_EQUAL: return x != y;
+                case LESS: return x < y;
+                case LESS_OR_EQUAL: return x <= y;
+                case GREATER: return x > y;
+                default: return x >= y;
+            }
+        }
+        long x = convert(left, type);
+        long y = convert(right, type);
+        switch (op) {
+            case EQUAL: return x == y;
+            case NOT_EQUAL: return x != y;
+            case LESS: return x < y;
+            case LESS_OR_EQUAL: return x <= y;
+            case GREATER: return x > y;
+            default: return x >= y;
+        }
+    }
+
+    private long convert(int node, int type) {
+        return convert(values[node], types[node], type);
+    }
+
+    // A value of type from as a value of type to, both numeric (or equal)
+    static long convert(long value, int from, int to) {
+        if (isFloating(from) == isFloating(to)) {
+            if (to != DataType.FLOAT.code() || from == to) return value;
+            return Double.doubleToRawLongBits((float) Double.longBitsToDouble(value));
+        }
+        if (isFloating(from)) return (long) Double.longBitsToDouble(value);
+        // long to float rounds once, not through double
+        return Double.doubleToRawLongBits(to == DataType.FLOAT.code() ? (float) value : (double) value);
+    }
+
+    static int prefixType(Operator op, int operand) {
+        if (operand == UNTYPED || operand == INVALID) return operand;
+        if (op == Operator.NOT) return operand == DataType.BOOLEAN.code() ? operand : INVALID;
+        return isNumeric(operand) ? promote(operand, DataType.INT.code()) : INVALID;
+    }
+
+    static int binaryType(Operator op, int left, int right) {
+        if (left == INVALID || right == INVALID) return INVALID;
+        if (left == UNTYPED || right == UNTYPED) return UNTYPED;
+        int string = DataType.STRING.code();
+        int bool = DataType.BOOLEAN.code();
+        boolean numeric = isNumeric(left) && isNumeric(right);
+        switch (op) {
+            case OR:
+            case AND:
+                return left == bool && right == bool ? bool : INVALID;
+            case EQUAL:
+            case NOT_EQUAL:
+                return numeric || (left == right && (left == bool || left == string)) ? bool : INVALID;
+            case LESS:
+            case LESS_OR_EQUAL:
+            case GREATER:
+            case GREATER_OR_EQUAL:
+                return numeric ? bool : INVALID;
+            case ADD:
+                // String concatenation takes any other operand
+                if (left == string || right == string) return string;
+                return numeric ? promote(left, right) : INVALID;
+            default:
+                return numeric ? promote(left, right) : INVALID;
+        }
+    }
+
+    static boolean isNumeric(int type) {
+        return type >= 0 && type != DataType.BOOLEAN.code() && type != DataType.STRING.code();
+    }
+
+    static boolean isIntegral(int type) {
+        return isNumeric(type) && !isFloating(type);
+    }
+
+    private static boolean isFloating(int type) {
+        return type == DataType.FLOAT.code() || type == DataType.DOUBLE.code();
+    }
+
+    // Binary numeric promotion, as in Java: double, then float, then long, else int
+    static int promote(int left, int right) {
+        if (left == DataType.DOUBLE.code() || right == DataType.DOUBLE.code()) return DataType.DOUBLE.code();
+        if (left == DataType.FLOAT.code() || right == DataType.FLOAT.code()) return DataType.FLOAT.code();
+        if (left == DataType.LONG.code() || right == DataType.LONG.code()) return DataType.LONG.code();
+        return DataType.INT.code();
+    }
+
+    private void fail(int code, int start, int end) {
+        if (error != NO_ERROR) return;
+        error = code;
+        errorStart = start;
+        errorEnd = end;
+    }
+
+    private void push(int node) {
+        if (operandCount == operands.length) operands = Arrays.copyOf(operands, operandCount * 2);
+        operands[operandCount++] = node;
+    }
+
+    private void pend(int code, int start, int end) {
+        if (pendingCount == pending.length) {
+            int capacity = pendingCount * 2;
+            pending = Arrays.copyOf(pending, capacity);
+            pendingStarts = Arrays.copyOf(pendingStarts, capacity);
+            pendingEnds = Arrays.copyOf(pendingEnds, capacity);
+        }
+        pending[pendingCount] = code;
+        pendingStarts[pendingCount] = start;
+        pendingEnds[pendingCount] = end;
+        pendingCount++;
+    }
+
+    private int addNode(int operator, int left, int right, int start, int end, int type, boolean constant, long value) {
+        if (nodeCount == operators.length) {
+            int capacity = nodeCount * 2;
+            operators = Arrays.copyOf(operators, capacity);
+            lefts = Arrays.copyOf(lefts, capacity);
+            rights = Arrays.copyOf(rights, capacity);
+            starts = Arrays.copyOf(starts, capacity);
+            ends = Arrays.copyOf(ends, capacity);
+            types = Arrays.copyOf(types, capacity);
+            constants = Arrays.copyOf(constants, capacity);
+            values = Arrays.copyOf(values, capacity);
+        }
+        int node = nodeCount++;
+        operators[node] = (byte) operator;
+        lefts[node] = left;
+        rights[node] = right;
+        starts[node] = start;
+        ends[node] = end;
+        types[node] = (byte) type;
+        constants[node] = constant;
+        values[node] = value;
+        return node;
+    }
+}
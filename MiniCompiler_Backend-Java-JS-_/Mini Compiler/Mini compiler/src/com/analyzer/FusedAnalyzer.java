@@ -0,0 +1,138 @@
+package com.analyzer;
+
+import com.model.CompilationResult;
+import com.model.CompilationResult.Phase;
+import com.model.Token;
+import java.util.function.Consumer;
+
+// Runs the lexical, syntax and semantic checks on each token as the lexer
+// produces it. The outcome matches the staged pipeline: a lexical error
+// anywhere wins over an earlier syntax error, so lexing always runs to the end.
+//
+// Tokens arrive either as Token objects or as spans of the text last passed
+// to setText. Identifiers are copied into the symbol table's arena, so the
+// text may be a reused buffer or a mapped region that is unmapped later.
+public class FusedAnalyzer implements Consumer<Token>, TokenSink {
+    private static final int EXPECT_TYPE = 0;
+    private static final int EXPECT_IDENTIFIER = 1;
+    private static final int EXPECT_ASSIGN_OR_END = 2;
+    private static final int IN_EXPRESSION = 3;
+
+    private final SymbolTable variables = new SymbolTable();
+    private CharSequence text;
+    private int state = EXPECT_TYPE;
+    private DataType dataType;
+    // Slot of the identifier being declared, which its own initializer may not name
+    private int declared;
+    private ExpressionParser parser;
+    // The initializer's first token was a VALUE, and whether it passes on its own
+    private boolean literal;
+    private boolean literalCompatible;
+    private int tokenCount;
+    private boolean lexicalOk = true;
+    private boolean syntaxOk = true;
+    private boolean semanticOk = true;
+
+    public void setText(CharSequence text) {
+        this.text = text;
+    }
+
+    @Override
+    public void accept(Token token) {
+        String lexeme = token.getLexeme();
+        text = lexeme;
+        token(TokenKind.ofLabel(token.getType()), 0, lexeme.length());
+    }
+
+    @Override
+    public void token(TokenKind kind, int start, int end) {
+        tokenCount++;
+        if (kind == TokenKind.UNKNOWN) lexicalOk = false;
+        if (!lexicalOk || !syntaxOk) return;
+
+        switch (state) {
+            case EXPECT_TYPE:
+                if (kind != TokenKind.DATA_TYPE) break;
+                dataType = DataType.lookup(text, start, end);
+                state = EXPECT_IDENTIFIER;
+                return;
+            case EXPECT_IDENTIFIER:
+                if (kind != TokenKind.IDENTIFIER) break;
+                if (semanticOk) {
+                    if (variables.declare(text, start, end, dataType.code())) declared = variables.slotOf(text, start, end);
+                    else fail();
+                }
+                state = EXPECT_ASSIGN_OR_END;
+                return;
+            case EXPECT_ASSIGN_OR_END:
+                if (kind == TokenKind.ASSIGNMENT_OPERATOR) {
+                    if (parser == null) parser = new ExpressionParser();
+                    parser.reset();
+                    state = IN_EXPRESSION;
+                    return;
+                }
+                if (endDeclarator(kind, start)) return;
+                break;
+            default:
+                if (parser.push(kind, text, start, end, leafType(kind, start, end))) {
+                    if (parser.isSingleToken()) {
+                        literal = kind == TokenKind.VALUE;
+                        literalCompatible = literal && SemanticAnalyzer.isCompatible(dataType, text, start, end);
+                    }
+                    return;
+                }
+                if (parser.finish() < 0) break;
+                if (semanticOk) checkInitializer();
+                if (endDeclarator(kind, start)) return;
+                break;
+        }
+        syntaxOk = false;
+    }
+
+    // ',' starts the next declarator and ';' the next statement
+    private boolean endDeclarator(TokenKind kind, int start) {
+        if (kind == TokenKind.DELIMITER) {
+            state = EXPECT_TYPE;
+            return true;
+        }
+        if (kind == TokenKind.SEPARATOR && text.charAt(start) == ',') {
+            state = EXPECT_IDENTIFIER;
+            return true;
+        }
+        return false;
+    }
+
+    private int leafType(TokenKind kind, int start, int end) {
+        if (!semanticOk) return ExpressionParser.UNTYPED;
+        if (kind == TokenKind.VALUE) return ExpressionParser.literalType(text, start, end);
+        if (kind != TokenKind.IDENTIFIER) return ExpressionParser.UNTYPED;
+        int slot = variables.slotOf(text, start, end);
+        return slot < 0 || slot == declared ? ExpressionParser.UNDECLARED : variables.typeAt(slot);
+    }
+
+    private void checkInitializer() {
+        if (parser.isSingleToken() && literal) {
+            if (!literalCompatible) fail();
+        } else {
+            int root = parser.finish();
+            if (parser.error() != ExpressionParser.NO_ERROR
+                    || SemanticAnalyzer.fit(dataType, parser, root) != SemanticAnalyzer.FITS) {
+                fail();
+            }
+        }
+    }
+
+    private void fail() {
+        semanticOk = false;
+        // Nothing after this can change the outcome but a lexical or syntax error
+        variables.clear();
+    }
+
+    public CompilationResult result() {
+        Phase failed = null;
+        if (!lexicalOk) failed = Phase.LEXICAL;
+        else if (!syntaxOk || state != EXPECT_TYPE) failed = Phase.SYNTAX;
+        else if (!semanticOk) failed = Phase.SEMANTIC;
+        return new CompilationResult(failed, tokenCount);
+    }
+}
@@ -0,0 +1,604 @@
+package com.analyzer;
+
+import com.model.CompilationResult;
+import com.model.CompilationResult.Phase;
+import java.util.Arrays;
+
+// Keeps per-statement results for an editable document and re-checks only
+// the statements an edit touches. A statement runs up to and including a
+// ';' token; the lexer needs no context from before such a boundary, so
+// re-lexing starts at the statement containing the edit and stops at the
+// first boundary past the edit that lines up with an old one. Duplicates
+// are tracked by counting declarations per name, in arrays indexed by the
+// name's key in an interning symbol table.
+//
+// An initializer that names an identifier declared in another statement
+// cannot be checked on its own. Such a statement keeps every name it
+// mentions, and each name keeps the statements that declare and mention
+// it. An edit re-checks a statement against the declarations before it
+// when the statement is new or a name it mentions gained or lost a
+// declaration, so the work follows the edit and its dependents rather
+// than the document.
+//
+// The result always equals a full staged compile of the current text.
+public class IncrementalAnalyzer {
+    // The lexer cannot stop mid-window, so start small and widen for long re-lexes
+    private static final int FIRST_WINDOW = 256;
+    private static final int MAX_WINDOW = 64 * 1024;
+    private static final byte LEXICAL_OK = 1;
+    private static final byte SYNTAX_OK = 2;
+    private static final byte COMPATIBLE = 4;
+    // Names an identifier from another statement, so COMPATIBLE only covers the rest
+    private static final byte REFERENCES = 8;
+    // Has REFERENCES and fails against the declarations before it
+    private static final byte UNRESOLVED = 16;
+
+    // Statements live in a gap buffer. Before the gap a position is the start
+    // offset; after it, the distance from the end of the document, which an
+    // edit further up leaves unchanged. Editing near the previous edit only
+    // moves a few entries across the gap.
+    private int[] positions = new int[16];
+    private int[] tokenCounts = new int[16];
+    private byte[] flags = new byte[16];
+    // Declared type code, for statements that pass syntax
+    private byte[] types = new byte[16];
+    // The identifiers each statement declares, or null: (start relative to
+    // the statement, length, name key) per identifier, so moving a statement
+    // leaves them valid
+    private int[][] declared = new int[16][];
+    // Every identifier a statement with REFERENCES mentions, in the same form, or null
+    private int[][] mentioned = new int[16][];
+    // A handle names a statement for as long as it exists, wherever the gap moves it
+    private int[] handles = new int[16];
+    private int gapStart = 0;
+    private int gapEnd = 16;
+    private int length;
+
+    // Index into the arrays above, by handle
+    private int[] where = new int[16];
+    private int handleCount;
+    private int[] freeHandles = new int[16];
+    private int freeCount;
+
+    // Every name declared or mentioned since the last compaction; dead names
+    // stay until they outweigh the live ones
+    private final SymbolTable names = new SymbolTable();
+    // Per name, indexed by key: how many times it is declared, and the
+    // first node of the lists of statements declaring and mentioning it
+    private int[] declarations = new int[256];
+    private int[] declarers = new int[256];
+    private int[] users = new int[256];
+    // Chars of the names with a declaration
+    private int liveChars;
+    // List nodes: a statement handle and the next node. Node 0 ends a list
+    private int[] nodeHandles = new int[64];
+    private int[] nextNodes = new int[64];
+    private int nodeCount = 1;
+    private int freeNode;
+
+    // Names whose declarations the current edit changed, and the statements to re-check
+    private int[] changed = new int[16];
+    private int changedCount;
+    private int[] pending = new int[16];
+    private int pendingCount;
+    private int[] queued = new int[16];
+    private int epoch;
+    private final TokenBuffer statementTokens = new TokenBuffer("");
+    private final SymbolTable scope = new SymbolTable("");
+    private final ExpressionParser parser = new ExpressionParser();
+
+    private int tokenCount;
+    private int lexicalErrors;
+    private int syntaxErrors;
+    private int typeErrors;
+    private int duplicates;
+    private int unresolved;
+
+    public void reset(CharSequence text) {
+        Arrays.fill(declared, null);
+        Arrays.fill(mentioned, null);
+        gapStart = 0;
+        gapEnd = positions.length;
+        length = 0;
+        handleCount = freeCount = 0;
+        names.clear();
+        declarations = new int[256];
+        declarers = new int[256];
+        users = new int[256];
+        liveChars = 0;
+        nodeCount = 1;
+        freeNode = 0;
+        tokenCount = lexicalErrors = syntaxErrors = typeErrors = duplicates = unresolved = 0;
+        edit(text, 0, 0, text.length());
+    }
+
+    // text is the document after the edit, which replaced removed chars at
+    // offset with inserted new ones
+    public void edit(CharSequence text, int offset, int removed, int inserted) {
+        epoch++;
+        int a = statementAt(offset);
+        moveGap(a);
+        int from = gapEnd < positions.length ? length - positions[gapEnd] : 0;
+        length = length - removed + inserted;
+
+        Relexer relexer = new Relexer(text, from, offset + inserted);
+        Lexer lexer = new Lexer(from == 0);
+        int pos = from;
+        int to = from;
+        int window = FIRST_WINDOW;
+        while (!relexer.stopped && to < length) {
+            to = (int) Math.min(length, (long) to + window);
+            window = Math.min(window * 2, MAX_WINDOW);
+            pos = lexer.scan(text, pos, to, to == length, relexer);
+        }
+        if (!relexer.stopped) {
+            // Reached the end: everything left of the old layout is stale
+            while (gapEnd < positions.length) removeAfterGap();
+            if (relexer.statementStart < length) relexer.finishStatement(length);
+        }
+        checkReferences(text);
+        if (names.arenaSize() > 4 * liveChars + 4096) compact(text);
+    }
+
+    // Re-checks the new statements with REFERENCES and every statement
+    // mentioning a name whose declarations changed
+    private void checkReferences(CharSequence text) {
+        for (int c = 0; c < changedCount; c++) {
+            for (int node = users[changed[c]]; node != 0; node = nextNodes[node]) addPending(nodeHandles[node]);
+        }
+        for (int k = 0; k < pendingCount; k++) checkAgainstEarlier(text, pending[k]);
+        changedCount = pendingCount = 0;
+    }
+
+    // Runs the staged semantic check on one statement with a scope holding
+    // the first declaration of each name it mentions, if that comes before
+    // it: all of the staged pass's scope the statement can see
+    private void checkAgainstEarlier(CharSequence text, int handle) {
+        int p = where[handle];
+        int i = logical(p);
+        int start = startOf(i);
+        int end = i + 1 < statementCount() ? startOf(i + 1) : length;
+        statementTokens.reset(text);
+        new Lexer(start == 0).scan(text, start, end, true, statementTokens);
+        scope.reset(text);
+        int[] identifiers = mentioned[p];
+        for (int k = 0; k < identifiers.length; k += 3) {
+            int declarer = firstDeclarer(identifiers[k + 2]);
+            if (declarer < 0) continue;
+            int q = where[declarer];
+            int base = startOf(logical(q));
+            if (base >= start) continue;
+            int[] declaredThere = declared[q];
+            for (int j = 0; j < declaredThere.length; j += 3) {
+                if (declaredThere[j + 2] != identifiers[k + 2]) continue;
+                int at = base + declaredThere[j];
+                scope.declare(text, at, at + declaredThere[j + 1], types[q]);
+                break;
+            }
+        }
+        int outcome = SemanticAnalyzer.check(statementTokens, scope, 0, statementTokens.size(), parser, SemanticAnalyzer.DECLARE, null);
+        boolean failed = outcome != SemanticAnalyzer.PASSED;
+        if (failed == ((flags[p] & UNRESOLVED) != 0)) return;
+        flags[p] ^= UNRESOLVED;
+        unresolved += failed ? 1 : -1;
+    }
+
+    public CompilationResult result() {
+        Phase failed = null;
+        if (lexicalErrors > 0) failed = Phase.LEXICAL;
+        else if (syntaxErrors > 0) failed = Phase.SYNTAX;
+        else if (typeErrors > 0 || duplicates > 0 || unresolved > 0) failed = Phase.SEMANTIC;
+        return new CompilationResult(failed, tokenCount);
+    }
+
+    public int statementCount() {
+        return gapStart + positions.length - gapEnd;
+    }
+
+    // Start offset of the first statement that fails the phase the
+    // document fails in, or -1 when it compiles
+    public int firstErrorOffset() {
+        Phase failed = result().getFailedPhase();
+        if (failed == null) return -1;
+        for (int i = 0; i < statementCount(); i++) {
+            int p = physical(i);
+            byte f = flags[p];
+            boolean bad;
+            if (failed == Phase.LEXICAL) bad = (f & LEXICAL_OK) == 0;
+            else if (failed == Phase.SYNTAX) bad = (f & SYNTAX_OK) == 0;
+            else bad = (f & (COMPATIBLE | UNRESOLVED)) != COMPATIBLE || redeclares(p);
+            if (bad) return startOf(i);
+        }
+        return -1;
+    }
+
+    // Whether the staged pass would reject one of the statement's
+    // declarations: the name is declared by an earlier statement, or twice here
+    private boolean redeclares(int p) {
+        int[] identifiers = declared[p];
+        if (identifiers == null) return false;
+        for (int k = 0; k < identifiers.length; k += 3) {
+            int key = identifiers[k + 2];
+            if (declarations[key] < 2) continue;
+            if (firstDeclarer(key) != handles[p]) return true;
+            for (int j = 0; j < k; j += 3) {
+                if (identifiers[j + 2] == key) return true;
+            }
+        }
+        return false;
+    }
+
+    // Handle of the earliest statement declaring the name, or -1
+    private int firstDeclarer(int key) {
+        int first = -1;
+        int firstStart = Integer.MAX_VALUE;
+        for (int node = declarers[key]; node != 0; node = nextNodes[node]) {
+            int start = startOf(logical(where[nodeHandles[node]]));
+            if (start < firstStart) {
+                first = nodeHandles[node];
+                firstStart = start;
+            }
+        }
+        return first;
+    }
+
+    // Re-interns the live names into an empty table, dropping the ones no
+    // statement declares any more (each keystroke in a name adds one)
+    private void compact(CharSequence text) {
+        names.clear();
+        declarations = new int[256];
+        declarers = new int[256];
+        users = new int[256];
+        nodeCount = 1;
+        freeNode = 0;
+        for (int i = 0; i < statementCount(); i++) {
+            int p = physical(i);
+            int base = startOf(i);
+            int[] identifiers = declared[p];
+            if (identifiers != null) {
+                rekey(text, base, identifiers);
+                for (int k = 0; k < identifiers.length; k += 3) declarations[identifiers[k + 2]]++;
+                link(declarers, identifiers, handles[p]);
+            }
+            if (mentioned[p] != null) {
+                rekey(text, base, mentioned[p]);
+                link(users, mentioned[p], handles[p]);
+            }
+        }
+    }
+
+    private void rekey(CharSequence text, int base, int[] identifiers) {
+        for (int k = 0; k < identifiers.length; k += 3) {
+            int start = base + identifiers[k];
+            identifiers[k + 2] = keyOf(text, start, start + identifiers[k + 1]);
+        }
+    }
+
+    // The name's key, with room for it in the per-name arrays
+    private int keyOf(CharSequence text, int start, int end) {
+        int key = names.keyOf(text, start, end);
+        if (key >= declarations.length) {
+            int capacity = Math.max(declarations.length * 2, names.arenaSize());
+            declarations = Arrays.copyOf(declarations, capacity);
+            declarers = Arrays.copyOf(declarers, capacity);
+            users = Arrays.copyOf(users, capacity);
+        }
+        return key;
+    }
+
+    // Puts the statement on the list of each name
+    private void link(int[] heads, int[] identifiers, int handle) {
+        for (int k = 0; k < identifiers.length; k += 3) {
+            int key = identifiers[k + 2];
+            int node = freeNode;
+            if (node != 0) {
+                freeNode = nextNodes[node];
+            } else {
+                if (nodeCount == nodeHandles.length) {
+                    nodeHandles = Arrays.copyOf(nodeHandles, nodeCount * 2);
+                    nextNodes = Arrays.copyOf(nextNodes, nodeCount * 2);
+                }
+                node = nodeCount++;
+            }
+            nodeHandles[node] = handle;
+            nextNodes[node] = heads[key];
+            heads[key] = node;
+        }
+    }
+
+    // Takes every node of the statement off the lists of its names
+    private void unlink(int[] heads, int[] identifiers, int handle) {
+        for (int k = 0; k < identifiers.length; k += 3) {
+            int key = identifiers[k + 2];
+            int previous = 0;
+            for (int node = heads[key]; node != 0; ) {
+                int next = nextNodes[node];
+                if (nodeHandles[node] == handle) {
+                    if (previous == 0) heads[key] = next;
+                    else nextNodes[previous] = next;
+                    nextNodes[node] = freeNode;
+                    freeNode = node;
+                } else {
+                    previous = node;
+                }
+                node = next;
+            }
+        }
+    }
+
+    private void addChanged(int[] identifiers) {
+        for (int k = 0; k < identifiers.length; k += 3) {
+            if (changedCount == changed.length) changed = Arrays.copyOf(changed, changedCount * 2);
+            changed[changedCount++] = identifiers[k + 2];
+        }
+    }
+
+    private void addPending(int handle) {
+        if (queued[handle] == epoch) return;
+        queued[handle] = epoch;
+        if (pendingCount == pending.length) pending = Arrays.copyOf(pending, pendingCount * 2);
+        pending[pendingCount++] = handle;
+    }
+
+    private int physical(int i) {
+        return i < gapStart ? i : i + gapEnd - gapStart;
+    }
+
+    private int logical(int p) {
+        return p < gapStart ? p : p - (gapEnd - gapStart);
+    }
+
+    private int startOf(int i) {
+        return i < gapStart ? positions[i] : length - positions[physical(i)];
+    }
+
+    // Last statement starting at or before offset
+    private int statementAt(int offset) {
+        int lo = 0;
+        int hi = statementCount() - 1;
+        int found = 0;
+        while (lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            if (startOf(mid) <= offset) {
+                found = mid;
+                lo = mid + 1;
+            } else {
+                hi = mid - 1;
+            }
+        }
+        return found;
+    }
+
+    private void moveGap(int index) {
+        while (gapStart > index) {
+            gapStart--;
+            gapEnd--;
+            positions[gapEnd] = length - positions[gapStart];
+            copy(gapStart, gapEnd);
+        }
+        while (gapStart < index) {
+            positions[gapStart] = length - positions[gapEnd];
+            copy(gapEnd, gapStart);
+            gapStart++;
+            gapEnd++;
+        }
+    }
+
+    private void copy(int from, int to) {
+        tokenCounts[to] = tokenCounts[from];
+        flags[to] = flags[from];
+        types[to] = types[from];
+        // from and to are the same slot when the gap is empty
+        int[] identifiers = declared[from];
+        int[] mentions = mentioned[from];
+        declared[from] = null;
+        mentioned[from] = null;
+        declared[to] = identifiers;
+        mentioned[to] = mentions;
+        handles[to] = handles[from];
+        where[handles[to]] = to;
+    }
+
+    private void insertBeforeGap(int start, int tokens, byte statementFlags, byte type, int[] identifiers, int[] mentions) {
+        if (gapStart == gapEnd) grow();
+        int handle = newHandle();
+        positions[gapStart] = start;
+        tokenCounts[gapStart] = tokens;
+        flags[gapStart] = statementFlags;
+        types[gapStart] = type;
+        declared[gapStart] = identifiers;
+        mentioned[gapStart] = mentions;
+        handles[gapStart] = handle;
+        where[handle] = gapStart;
+        gapStart++;
+        account(tokens, statementFlags, identifiers, 1);
+        if (identifiers != null) {
+            link(declarers, identifiers, handle);
+            addChanged(identifiers);
+        }
+        if (mentions != null) {
+            link(users, mentions, handle);
+            addPending(handle);
+        }
+    }
+
+    private void removeAfterGap() {
+        int handle = handles[gapEnd];
+        int[] identifiers = declared[gapEnd];
+        account(tokenCounts[gapEnd], flags[gapEnd], identifiers, -1);
+        if (identifiers != null) {
+            unlink(declarers, identifiers, handle);
+            addChanged(identifiers);
+        }
+        if (mentioned[gapEnd] != null) unlink(users, mentioned[gapEnd], handle);
+        declared[gapEnd] = null;
+        mentioned[gapEnd] = null;
+        freeHandles[freeCount++] = handle;
+        gapEnd++;
+    }
+
+    private int newHandle() {
+        if (freeCount > 0) return freeHandles[--freeCount];
+        if (handleCount == where.length) {
+            where = Arrays.copyOf(where, handleCount * 2);
+            queued = Arrays.copyOf(queued, handleCount * 2);
+            freeHandles = Arrays.copyOf(freeHandles, handleCount * 2);
+        }
+        return handleCount++;
+    }
+
+    private void account(int tokens, byte statementFlags, int[] identifiers, int sign) {
+        tokenCount += sign * tokens;
+        if ((statementFlags & LEXICAL_OK) == 0) lexicalErrors += sign;
+        if ((statementFlags & SYNTAX_OK) == 0) syntaxErrors += sign;
+        else if ((statementFlags & COMPATIBLE) == 0) typeErrors += sign;
+        if ((statementFlags & UNRESOLVED) != 0) unresolved += sign;
+        if (identifiers == null) return;
+        for (int k = 0; k < identifiers.length; k += 3) {
+            int key = identifiers[k + 2];
+            if (sign > 0) {
+                if (++declarations[key] > 1) duplicates++;
+                else liveChars += identifiers[k + 1];
+            } else {
+                if (--declarations[key] > 0) duplicates--;
+                else liveChars -= identifiers[k + 1];
+            }
+        }
+    }
+
+    private void grow() {
+        int capacity = positions.length;
+        int newCapacity = capacity * 2;
+        int tail = capacity - gapEnd;
+        int newGapEnd = newCapacity - tail;
+        positions = regrow(positions, newCapacity, tail);
+        tokenCounts = regrow(tokenCounts, newCapacity, tail);
+        handles = regrow(handles, newCapacity, tail);
+        flags = regrow(flags, newCapacity, tail);
+        types = regrow(types, newCapacity, tail);
+        declared = regrow(declared, newCapacity, tail);
+        mentioned = regrow(mentioned, newCapacity, tail);
+        gapEnd = newGapEnd;
+        for (int p = gapEnd; p < newCapacity; p++) where[handles[p]] = p;
+    }
+
+    private int[] regrow(int[] array, int newCapacity, int tail) {
+        int[] grown = Arrays.copyOf(array, newCapacity);
+        System.arraycopy(array, array.length - tail, grown, newCapacity - tail, tail);
+        return grown;
+    }
+
+    private byte[] regrow(byte[] array, int newCapacity, int tail) {
+        byte[] grown = Arrays.copyOf(array, newCapacity);
+        System.arraycopy(array, array.length - tail, grown, newCapacity - tail, tail);
+        return grown;
+    }
+
+    // The gap keeps no references, so dropped statements' arrays can be freed
+    private int[][] regrow(int[][] array, int newCapacity, int tail) {
+        int[][] grown = Arrays.copyOf(array, newCapacity);
+        Arrays.fill(grown, gapStart, newCapacity - tail, null);
+        System.arraycopy(array, array.length - tail, grown, newCapacity - tail, tail);
+        return grown;
+    }
+
+    // Cuts the re-lexed text into statements and splices them in until the
+    // new boundaries line up with the old ones again
+    private final class Relexer implements TokenSink {
+        private final CharSequence text;
+        private final int editEnd;
+        private final TokenBuffer tokens;
+        // Duplicates are counted across statements, so this only ever holds one statement's names
+        private final SymbolTable local;
+        int statementStart;
+        boolean stopped;
+
+        Relexer(CharSequence text, int from, int editEnd) {
+            this.text = text;
+            this.editEnd = editEnd;
+            this.statementStart = from;
+            this.tokens = new TokenBuffer(text);
+            this.local = new SymbolTable(text);
+        }
+
+        @Override
+        public void token(TokenKind kind, int start, int end) {
+            if (stopped) return;
+            tokens.token(kind, start, end);
+            if (kind != TokenKind.DELIMITER) return;
+
+            // Old statements starting inside the new one are replaced by it
+            while (gapEnd < positions.length && length - positions[gapEnd] < end) removeAfterGap();
+            finishStatement(end);
+            if (end >= editEnd && gapEnd < positions.length && length - positions[gapEnd] == end) stopped = true;
+        }
+
+        void finishStatement(int end) {
+            byte statementFlags = 0;
+            byte type = SymbolTable.NO_TYPE;
+            int[] identifiers = null;
+            int[] mentions = null;
+            if (LexicalAnalyzer.isValidLexically(tokens)) statementFlags |= LEXICAL_OK;
+            if (SyntaxAnalyzer.analyze(tokens, 0, tokens.size(), parser)) {
+                statementFlags |= SYNTAX_OK;
+                if (tokens.size() > 0) {
+                    identifiers = declaredIdentifiers();
+                    DataType dataType = DataType.lookup(text, tokens.start(0), tokens.start(0) + tokens.length(0));
+                    if (dataType != null) type = dataType.code();
+                }
+                local.reset(text);
+                int outcome = SemanticAnalyzer.check(tokens, local, 0, tokens.size(), parser, SemanticAnalyzer.DEFER, null);
+                if (outcome != SemanticAnalyzer.FAILED) statementFlags |= COMPATIBLE;
+                if (outcome == SemanticAnalyzer.UNRESOLVED) {
+                    statementFlags |= REFERENCES;
+                    mentions = mentionedIdentifiers();
+                }
+            }
+            insertBeforeGap(statementStart, tokens.size(), statementFlags, type, identifiers, mentions);
+            statementStart = end;
+            tokens.clear();
+        }
+
+        // The identifier after the type and after each ',' outside an initializer
+        private int[] declaredIdentifiers() {
+            int count = 1;
+            for (int i = 0; i < tokens.size(); i++) {
+                if (tokens.kind(i) == TokenKind.SEPARATOR && tokens.lexemeEquals(i, ",")) count++;
+            }
+            int[] identifiers = new int[3 * count];
+            add(identifiers, 0, 1);
+            for (int i = 0, k = 3; i < tokens.size(); i++) {
+                if (tokens.kind(i) == TokenKind.SEPARATOR && tokens.lexemeEquals(i, ",")) {
+                    add(identifiers, k, i + 1);
+                    k += 3;
+                }
+            }
+            return identifiers;
+        }
+
+        // Every identifier, declared or not: a declaration can clash with an
+        // earlier statement's as well as an initializer can use one
+        private int[] mentionedIdentifiers() {
+            int count = 0;
+            for (int i = 0; i < tokens.size(); i++) {
+                if (tokens.kind(i) == TokenKind.IDENTIFIER) count++;
+            }
+            int[] identifiers = new int[3 * count];
+            for (int i = 0, k = 0; i < tokens.size(); i++) {
+                if (tokens.kind(i) == TokenKind.IDENTIFIER) {
+                    add(identifiers, k, i);
+                    k += 3;
+                }
+            }
+            return identifiers;
+        }
+
+        private void add(int[] identifiers, int k, int token) {
+            int start = tokens.start(token);
+            int end = start + tokens.length(token);
+            identifiers[k] = start - statementStart;
+            identifiers[k + 1] = end - start;
+            identifiers[k + 2] = keyOf(text, start, end);
+        }
+    }
+}
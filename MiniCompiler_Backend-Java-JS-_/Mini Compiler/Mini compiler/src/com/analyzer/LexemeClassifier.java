@@ -0,0 +1,180 @@
+package com.analyzer;
+
+// Table-driven replacement for the regex checks. One pass over a lexeme
+// walks a small DFA over ASCII character classes and tells identifiers,
+// integer and floating-point literals apart; keywords are resolved only
+// once the lexeme is known to be identifier-shaped. Literal values are
+// read in place too; only a decimal too long for the fast path makes a String.
+final class LexemeClassifier {
+    static final int NONE = 0;
+    static final int IDENTIFIER = 1;
+    static final int INTEGER = 2;
+    static final int FLOATING_POINT = 3;
+
+    // integerValue for a number too large for a long, and for a lexeme that is not a number
+    static final long TOO_LARGE = -1;
+    static final long NOT_INTEGER = -2;
+
+    private static final byte OTHER = 0;
+    private static final byte DIGIT = 1;
+    private static final byte LETTER = 2;
+    private static final byte DOT = 3;
+
+    private static final int REJECT = 0;
+    private static final int START = 1;
+    private static final int IN_IDENTIFIER = 2;
+    private static final int IN_INTEGER = 3;
+    private static final int AFTER_DOT = 4;
+    private static final int IN_FRACTION = 5;
+
+    private static final byte[] CHAR_CLASS = new byte[128];
+    // TRANSITIONS[state][char class]
+    private static final byte[][] TRANSITIONS = {
+            /* REJECT        */ {REJECT, REJECT, REJECT, REJECT},
+            /* START         */ {REJECT, IN_INTEGER, IN_IDENTIFIER, REJECT},
+            /* IN_IDENTIFIER */ {REJECT, IN_IDENTIFIER, IN_IDENTIFIER, REJECT},
+            /* IN_INTEGER    */ {REJECT, IN_INTEGER, REJECT, AFTER_DOT},
+            /* AFTER_DOT     */ {REJECT, IN_FRACTION, REJECT, REJECT},
+            /* IN_FRACTION   */ {REJECT, IN_FRACTION, REJECT, REJECT},
+    };
+    private static final int[] ACCEPT = {NONE, NONE, IDENTIFIER, INTEGER, NONE, FLOATING_POINT};
+    // Up to 10^22 every power of ten is an exact double
+    private static final double[] POWERS_OF_TEN = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+            1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22};
+
+    static {
+        for (char c = '0'; c <= '9'; c++) CHAR_CLASS[c] = DIGIT;
+        for (char c = 'a'; c <= 'z'; c++) CHAR_CLASS[c] = LETTER;
+        for (char c = 'A'; c <= 'Z'; c++) CHAR_CLASS[c] = LETTER;
+        CHAR_CLASS['_'] = LETTER;
+        CHAR_CLASS['.'] = DOT;
+    }
+
+    private LexemeClassifier() {}
+
+    static int scan(CharSequence text, int start, int end) {
+        int state = START;
+        for (int i = start; i < end && state != REJECT; i++) {
+            char c = text.charAt(i);
+            state = TRANSITIONS[state][c < 128 ? CHAR_CLASS[c] : OTHER];
+        }
+        return ACCEPT[state];
+    }
+
+    // Classifies a lexeme that does not start with a quote
+    static TokenKind classifyWord(CharSequence text, int start, int end) {
+        switch (scan(text, start, end)) {
+            case IDENTIFIER:
+                if (DataType.lookup(text, start, end) != null) return TokenKind.DATA_TYPE;
+                if (isBoolean(text, start, end)) return TokenKind.VALUE;
+                return TokenKind.IDENTIFIER;
+            case INTEGER:
+            case FLOATING_POINT:
+                return TokenKind.VALUE;
+            default:
+                return TokenKind.UNKNOWN;
+        }
+    }
+
+    static boolean isBoolean(CharSequence text, int start, int end) {
+        int len = end - start;
+        if (len == 4) {
+            return text.charAt(start) == 't' && text.charAt(start + 1) == 'r'
+                    && text.charAt(start + 2) == 'u' && text.charAt(start + 3) == 'e';
+        }
+        if (len == 5) {
+            return text.charAt(start) == 'f' && text.charAt(start + 1) == 'a' && text.charAt(start + 2) == 'l'
+                    && text.charAt(start + 3) == 's' && text.charAt(start + 4) == 'e';
+        }
+        return false;
+    }
+
+    // Value of a lexeme that is all digits, read in place in the same pass
+    // that checks it is one (so scan need not run first): TOO_LARGE if it
+    // does not fit in a long, NOT_INTEGER if it is not an INTEGER
+    static long integerValue(CharSequence text, int start, int end) {
+        if (start == end) return NOT_INTEGER;
+        long value = 0;
+        int i = start;
+        // 18 digits never overflow, so most literals skip the check
+        for (int safe = Math.min(end, start + 18); i < safe; i++) {
+            int digit = text.charAt(i) - '0';
+            if (digit < 0 || digit > 9) return NOT_INTEGER;
+            value = value * 10 + digit;
+        }
+        boolean tooLarge = false;
+        for (; i < end; i++) {
+            int digit = text.charAt(i) - '0';
+            if (digit < 0 || digit > 9) return NOT_INTEGER;
+            tooLarge |= value > (Long.MAX_VALUE - digit) / 10;
+            if (!tooLarge) value = value * 10 + digit;
+        }
+        return tooLarge ? TOO_LARGE : value;
+    }
+
+    // Value of a FLOATING_POINT lexeme, correctly rounded, read in the same
+    // pass that checks it is one; NaN if it is not. With at most 15
+    // significant digits and 22 after the point, digits and scale are both
+    // exact doubles and one division rounds once (Clinger's fast path); the
+    // rare longer literal is left to Double.parseDouble
+    static double decimalValue(CharSequence text, int start, int end) {
+        long digits = 0;
+        int significant = 0;
+        int point = -1;
+        for (int i = start; i < end; i++) {
+            char c = text.charAt(i);
+            if (c == '.' && point < 0) {
+                point = i;
+                continue;
+            }
+            if (c < '0' || c > '9') return Double.NaN;
+            if (digits == 0 && c == '0') continue;
+            if (++significant <= 15) digits = digits * 10 + (c - '0');
+        }
+        if (point <= start || point == end - 1) return Double.NaN;
+        int scale = end - point - 1;
+        if (significant > 15 || scale >= POWERS_OF_TEN.length) {
+            return Double.parseDouble(text.subSequence(start, end).toString());
+        }
+        return digits / POWERS_OF_TEN[scale];
+    }
+
+    // Whether a numeric lexeme has no digit but zeros
+    static boolean isZero(CharSequence text, int start, int end) {
+        for (int i = start; i < end; i++) {
+            char c = text.charAt(i);
+            if (c != '0' && c != '.') return false;
+        }
+        return true;
+    }
+
+    // Value of a quoted char literal: one char, or a backslash and one of
+    // Java's single-char escapes; -1 for anything else. Byte-backed text
+    // holds a non-ASCII char as its UTF-8 bytes, which are decoded (with
+    // replacement, as the decoding paths do) so every path sees one value
+    static int charValue(CharSequence text, int start, int end) {
+        if (end - start >= 3 && text.charAt(start + 1) >= 0x80 && text instanceof ByteCharSequence) {
+            String decoded = ((ByteCharSequence) text).subSequence(start + 1, end - 1).toString();
+            return decoded.length() == 1 ? decoded.charAt(0) : -1;
+        }
+        if (end - start == 3) return text.charAt(start + 1);
+        if (end - start != 4 || text.charAt(start + 1) != '\\') return -1;
+        switch (text.charAt(start + 2)) {
+            case 'b': return '\b';
+            case 't': return '\t';
+            case 'n': return '\n';
+            case 'f': return '\f';
+            case 'r': return '\r';
+            case '0': return 0;
+            case '"': return '"';
+            case '\'': return '\'';
+            case '\\': return '\\';
+            default: return -1;
+        }
+    }
+
+    static boolean isQuoted(CharSequence text, int start, int end, char quote) {
+        return end > start && text.charAt(start) == quote && text.charAt(end - 1) == quote;
+    }
+}
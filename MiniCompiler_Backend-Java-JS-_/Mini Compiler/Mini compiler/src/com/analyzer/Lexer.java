@@ -0,0 +1,156 @@
+package com.analyzer;
+
+// Resumable scanner shared by the in-memory and streaming entry points.
+// It reproduces the line semantics of the original split("\n") + trim()
+// tokenizer without materializing lines: literals never run past a newline,
+// and characters <= ' ' are dropped at the start and end of every line.
+final class Lexer {
+    // In byte-backed text, a word or literal still going after SWAR_AFTER
+    // chars is searched for its end eight bytes at a time (SwarScanner).
+    // Most tokens are shorter and never get there. -Dminicompiler.lexer=scalar
+    // turns it off, for comparison; other text is always scanned char by char
+    static final boolean SWAR = !"scalar".equals(System.getProperty("minicompiler.lexer"));
+    private static final int SWAR_AFTER = 16;
+
+    // ASCII chars that begin an operator or separator token, and those that
+    // end a word: white space, quotes, ';' and the operator chars
+    private static final boolean[] STARTS_OPERATOR = new boolean[128];
+    private static final boolean[] ENDS_WORD = new boolean[128];
+
+    static {
+        for (char c : "=!<>&|+-*/%,()".toCharArray()) STARTS_OPERATOR[c] = true;
+        for (char c = 0; c < 128; c++) {
+            ENDS_WORD[c] = STARTS_OPERATOR[c] || Character.isWhitespace(c) || c == ';' || c == '"' || c == '\'';
+        }
+    }
+
+    private boolean lineStart;
+
+    Lexer() {
+        this(true);
+    }
+
+    // lineStart is false when resuming mid-line, e.g. right after a ';'
+    Lexer(boolean lineStart) {
+        this.lineStart = lineStart;
+    }
+
+    // Back to the start of a new input
+    void reset() {
+        lineStart = true;
+    }
+
+    // Scans text[from, to) and returns the offset it stopped at. Unless eof
+    // is set, a token touching the end of the window is left unconsumed so
+    // the caller can refill and resume from the returned offset.
+    int scan(CharSequence text, int from, int to, boolean eof, TokenSink sink) {
+        int i = from;
+        while (i < to) {
+            char c = text.charAt(i);
+            if (lineStart) {
+                if (c <= ' ') {
+                    i++;
+                    continue;
+                }
+                lineStart = false;
+            }
+            int next;
+            if (c == '\n') {
+                lineStart = true;
+                next = i + 1;
+            } else if (Character.isWhitespace(c)) {
+                next = i + 1;
+            } else if (c == ';') {
+                sink.token(TokenKind.DELIMITER, i, i + 1);
+                next = i + 1;
+            } else if (c == '"' || c == '\'') {
+                next = scanLiteral(text, i, to, eof, sink);
+            } else if (c < 128 && STARTS_OPERATOR[c]) {
+                next = scanOperator(text, i, to, eof, sink);
+            } else {
+                next = scanWord(text, i, to, eof, sink);
+            }
+            if (next < 0) return i;
+            i = next;
+        }
+        return i;
+    }
+
+    // Each returns the offset after the token, or -1 if it runs into the
+    // end of a window that is not the end of input
+
+    private static int scanLiteral(CharSequence text, int start, int to, boolean eof, TokenSink sink) {
+        char quote = text.charAt(start);
+        int j = start + 1;
+        int scalarTo = SWAR && text instanceof ByteCharSequence ? Math.min(to, j + SWAR_AFTER) : to;
+        while (j < scalarTo && text.charAt(j) != quote && text.charAt(j) != '\n') j++;
+        if (j == scalarTo && j < to) j = ((ByteCharSequence) text).quoteOrNewline(j, to, quote);
+        if (j == to && !eof) return -1;
+        if (j < to && text.charAt(j) == quote) {
+            sink.token(TokenKind.VALUE, start, j + 1);
+            return j + 1;
+        }
+        // Unterminated: the literal runs to the end of the trimmed line
+        sink.token(TokenKind.VALUE, start, trimEnd(text, start, j));
+        return j;
+    }
+
+    private static int scanWord(CharSequence text, int start, int to, boolean eof, TokenSink sink) {
+        int j = start;
+        int scalarTo = SWAR && text instanceof ByteCharSequence ? Math.min(to, j + SWAR_AFTER) : to;
+        while (j < scalarTo && !isWordEnd(text.charAt(j))) j++;
+        if (j == scalarTo && j < to) {
+            ByteCharSequence bytes = (ByteCharSequence) text;
+            j = bytes.wordEndCandidate(j, to);
+            while (j < to && !isWordEnd(text.charAt(j))) j = bytes.wordEndCandidate(j + 1, to);
+        }
+        if (j == to && !eof) return -1;
+        int end = j;
+        if (text.charAt(j - 1) <= ' ') {
+            // Trailing control characters only survive if the line goes on
+            int k = j;
+            while (k < to && text.charAt(k) != '\n' && text.charAt(k) <= ' ') k++;
+            if (k == to && !eof) return -1;
+            if (k == to || text.charAt(k) == '\n') {
+                end = trimEnd(text, start, j);
+                j = k;
+            }
+        }
+        if (end > start) sink.token(LexicalAnalyzer.classify(text, start, end), start, end);
+        return j;
+    }
+
+    // Separators and operators are one char, or two for "==", "!=", "<=",
+    // ">=", "&&" and "||"; a single '=' assigns, and a single '&' or '|' is
+    // not a token
+    private static int scanOperator(CharSequence text, int start, int to, boolean eof, TokenSink sink) {
+        char c = text.charAt(start);
+        if (c == ',' || c == '(' || c == ')') {
+            sink.token(TokenKind.SEPARATOR, start, start + 1);
+            return start + 1;
+        }
+        boolean pairs = c == '=' || c == '!' || c == '<' || c == '>' || c == '&' || c == '|';
+        if (pairs) {
+            if (start + 1 == to && !eof) return -1;
+            if (start + 1 < to) {
+                char second = text.charAt(start + 1);
+                if (second == (c == '&' || c == '|' ? c : '=')) {
+                    sink.token(TokenKind.OPERATOR, start, start + 2);
+                    return start + 2;
+                }
+            }
+        }
+        TokenKind kind = c == '=' ? TokenKind.ASSIGNMENT_OPERATOR : c == '&' || c == '|' ? TokenKind.UNKNOWN : TokenKind.OPERATOR;
+        sink.token(kind, start, start + 1);
+        return start + 1;
+    }
+
+    private static boolean isWordEnd(char c) {
+        return c < 128 ? ENDS_WORD[c] : Character.isWhitespace(c);
+    }
+
+    private static int trimEnd(CharSequence text, int start, int end) {
+        while (end > start && text.charAt(end - 1) <= ' ') end--;
+        return end;
+    }
+}
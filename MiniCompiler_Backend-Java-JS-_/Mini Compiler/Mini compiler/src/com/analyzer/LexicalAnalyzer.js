@@ -5,11 +5,11 @@ class LexicalAnalyzer {
         const tokens = [];
         const lines = input.split('\n');
         for (const line of lines) {
-            const trimmedLine = line.trim();
+            const trimmedLine = this.trim(line);
             let i = 0;
             while (i < trimmedLine.length) {
                 const c = trimmedLine.charAt(i);
-                if (/\s/.test(c)) {
+                if (this.isWhitespace(c)) {
                     i++;
                     continue;
                 }
@@ -18,9 +18,8 @@ class LexicalAnalyzer {
                     i++;
                     continue;
                 }
-                if (c === '=') {
-                    tokens.push(new Token('=', '<assignment_operator>'));
-                    i++;
+                if (this.isOperatorStart(c)) {
+                    i = this.scanOperator(trimmedLine, i, tokens);
                     continue;
                 }
                 if (c === '"') {
@@ -54,8 +53,8 @@ class LexicalAnalyzer {
                     continue;
                 }
                 let token = '';
-                while (i < trimmedLine.length && !/\s/.test(trimmedLine.charAt(i))
-                        && trimmedLine.charAt(i) !== '=' && trimmedLine.charAt(i) !== ';'
+                while (i < trimmedLine.length && !this.isWhitespace(trimmedLine.charAt(i))
+                        && !this.isOperatorStart(trimmedLine.charAt(i)) && trimmedLine.charAt(i) !== ';'
                         && trimmedLine.charAt(i) !== '"' && trimmedLine.charAt(i) !== "'") {
                     token += trimmedLine.charAt(i);
                     i++;
@@ -79,6 +78,47 @@ class LexicalAnalyzer {
         return tokens;
     }
 
+    static isOperatorStart(c) {
+        return '=!<>&|+-*/%,()'.includes(c);
+    }
+
+    // ',' and the parentheses are separators. "==", "!=", "<=", ">=", "&&"
+    // and "||" are two-char operators; a single '=' assigns, a single '&'
+    // or '|' is unknown, and any other char is an operator by itself
+    static scanOperator(line, i, tokens) {
+        const c = line.charAt(i);
+        if (c === ',' || c === '(' || c === ')') {
+            tokens.push(new Token(c, '<separator>'));
+            return i + 1;
+        }
+        const pair = c + line.charAt(i + 1);
+        if (['==', '!=', '<=', '>=', '&&', '||'].includes(pair)) {
+            tokens.push(new Token(pair, '<operator>'));
+            return i + 2;
+        }
+        let type = '<operator>';
+        if (c === '=') type = '<assignment_operator>';
+        else if (c === '&' || c === '|') type = '<unknown>';
+        tokens.push(new Token(c, type));
+        return i + 1;
+    }
+
+    // Java's String.trim(): strips chars <= ' ' only, where String.prototype.trim
+    // strips all Unicode white space
+    static trim(line) {
+        let start = 0;
+        let end = line.length;
+        while (start < end && line.charCodeAt(start) <= 32) start++;
+        while (end > start && line.charCodeAt(end - 1) <= 32) end--;
+        return line.substring(start, end);
+    }
+
+    // Java's Character.isWhitespace, which /\s/ is not: no-break spaces and
+    // U+FEFF are not white space, U+001C to U+001F are
+    static isWhitespace(c) {
+        return /[\t-\r\u001C-\u0020\u1680\u2000-\u2006\u2008-\u200A\u2028\u2029\u205F\u3000]/.test(c);
+    }
+
     static isDataType(lexeme) {
         return ['int', 'float', 'double', 'char', 'boolean', 'String', 'long', 'short', 'byte'].includes(lexeme);
     }
@@ -86,6 +126,7 @@ class LexicalAnalyzer {
     static isValue(lexeme) {
         if (lexeme.startsWith('"') && lexeme.endsWith('"') && lexeme.length >= 2) return true;
         if (lexeme.startsWith("'") && lexeme.endsWith("'") && lexeme.length >= 2) return true;
+        if (lexeme === 'true' || lexeme === 'false') return true;
         if (/^[0-9]+$/.test(lexeme)) return true;
         if (/^[0-9]+\.[0-9]+$/.test(lexeme)) return true;
         return false;
@@ -0,0 +1,94 @@
+package com.analyzer;
+
+import com.model.CompilationResult;
+import com.model.CompilationResult.Phase;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+// Compiles a file by memory-mapping it region by region and lexing the
+// mapped bytes in place, with the fused single-pass checks. Nothing is
+// decoded, and only identifiers are copied (into the symbol table). Regions
+// are mapped one at a time, so files larger than 2 GB work as well.
+public class MappedCompiler {
+    static final long DEFAULT_REGION_SIZE = 256L << 20;
+
+    public static CompilationResult compile(Path file) throws IOException {
+        CompilationListener listener = CompilerPipeline.getListener();
+        if (listener == null) return compile(file, DEFAULT_REGION_SIZE);
+        TraceClock clock = new TraceClock();
+        CompilationResult result = compile(file, DEFAULT_REGION_SIZE);
+        listener.compiled(clock.trace("mapped", result, Files.size(file)));
+        return result;
+    }
+
+    static CompilationResult compile(Path file, long regionSize) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            Lexer lexer = new Lexer();
+            RegionSink sink = new RegionSink();
+
+            long base = 0;
+            while (base < size) {
+                long length = Math.min(regionSize, size - base);
+                boolean last = base + length == size;
+                MappedByteBuffer region = channel.map(FileChannel.MapMode.READ_ONLY, base, length);
+                ByteCharSequence text = new ByteCharSequence(region, 0, (int) length);
+                sink.setText(text);
+                int stop = lexer.scan(text, 0, (int) length, last, sink);
+                if (last) break;
+                if (stop == 0) {
+                    // A single token longer than the region
+                    if (regionSize >= Integer.MAX_VALUE) throw new IOException("Token longer than 2 GB at offset " + base);
+                    regionSize = Math.min(regionSize * 2, Integer.MAX_VALUE);
+                    continue;
+                }
+                base += stop;
+            }
+
+            CompilationResult result = sink.analyzer.result();
+            if (result.getFailedPhase() == Phase.LEXICAL && sink.nonAsciiUnknown) {
+                // Non-ASCII whitespace (U+3000 and friends) separates tokens once
+                // decoded but not in the raw bytes; let the decoding path decide.
+                // Malformed bytes are replaced, as in the staged and fused modes
+                channel.position(0);
+                CharsetDecoder decoder = StandardCharsets.UTF_8.newDecoder()
+                        .onMalformedInput(CodingErrorAction.REPLACE)
+                        .onUnmappableCharacter(CodingErrorAction.REPLACE);
+                return CompilerPipeline.fused(Channels.newReader(channel, decoder, -1));
+            }
+            return result;
+        }
+    }
+
+    private static final class RegionSink implements TokenSink {
+        final FusedAnalyzer analyzer = new FusedAnalyzer();
+        ByteCharSequence text;
+        boolean nonAsciiUnknown;
+
+        void setText(ByteCharSequence text) {
+            this.text = text;
+            analyzer.setText(text);
+        }
+
+        @Override
+        public void token(TokenKind kind, int start, int end) {
+            if (kind == TokenKind.UNKNOWN && !nonAsciiUnknown) nonAsciiUnknown = hasNonAscii(text, start, end);
+            analyzer.token(kind, start, end);
+        }
+
+        private static boolean hasNonAscii(ByteCharSequence text, int start, int end) {
+            for (int i = start; i < end; i++) {
+                if (text.byteAt(i) < 0) return true;
+            }
+            return false;
+        }
+    }
+}
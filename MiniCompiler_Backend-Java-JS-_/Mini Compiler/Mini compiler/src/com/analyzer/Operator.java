@@ -0,0 +1,71 @@
+package com.analyzer;
+
+// Expression operators with their binding power: a higher precedence binds
+// tighter, and every binary operator is left-associative. NOT and NEGATE
+// are prefix; the lexer emits "-" for both minus signs and the parser
+// tells them apart by position.
+public enum Operator {
+    OR("||", 1),
+    AND("&&", 2),
+    EQUAL("==", 3),
+    NOT_EQUAL("!=", 3),
+    LESS("<", 4),
+    LESS_OR_EQUAL("<=", 4),
+    GREATER(">", 4),
+    GREATER_OR_EQUAL(">=", 4),
+    ADD("+", 5),
+    SUBTRACT("-", 5),
+    MULTIPLY("*", 6),
+    DIVIDE("/", 6),
+    REMAINDER("%", 6),
+    NOT("!", 7),
+    NEGATE("-", 7);
+
+    private static final Operator[] VALUES = values();
+
+    private final String symbol;
+    private final int precedence;
+
+    Operator(String symbol, int precedence) {
+        this.symbol = symbol;
+        this.precedence = precedence;
+    }
+
+    public String symbol() { return symbol; }
+    public int precedence() { return precedence; }
+    public boolean isPrefix() { return this == NOT || this == NEGATE; }
+
+    public static Operator ofCode(int code) { return VALUES[code]; }
+
+    // The operator an OPERATOR token spells, reading "-" as SUBTRACT; null if none
+    public static Operator lookup(CharSequence text, int start, int end) {
+        char first = text.charAt(start);
+        if (end - start == 1) {
+            switch (first) {
+                case '<': return LESS;
+                case '>': return GREATER;
+                case '+': return ADD;
+                case '-': return SUBTRACT;
+                case '*': return MULTIPLY;
+                case '/': return DIVIDE;
+                case '%': return REMAINDER;
+                case '!': return NOT;
+                default: return null;
+            }
+        }
+        if (end - start != 2) return null;
+        char second = text.charAt(start + 1);
+        if (second == '=') {
+            switch (first) {
+                case '=': return EQUAL;
+                case '!': return NOT_EQUAL;
+                case '<': return LESS_OR_EQUAL;
+                case '>': return GREATER_OR_EQUAL;
+                default: return null;
+            }
+        }
+        if (first == '&' && second == '&') return AND;
+        if (first == '|' && second == '|') return OR;
+        return null;
+    }
+}
@@ -0,0 +1,208 @@
+package com.analyzer;
+
+import com.model.CompilationResult;
+import com.model.CompilationResult.Phase;
+import java.util.ArrayList;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+
+// Splits a source at statement boundaries and lexes, syntax-checks and
+// type-checks the pieces on a fork/join pool. A ';' outside a literal can
+// only ever end a statement in a valid file, so the pieces pass on their
+// own exactly when the whole file does; only the duplicate-identifier
+// check needs the per-piece symbol tables merged on the way back up.
+// The tables all key on offsets into the one source, so merging copies
+// no characters.
+//
+// An initializer may name an identifier declared in an earlier piece. A
+// piece that does keeps its tokens, and once the merged table holds the
+// whole file, those pieces are checked again against it, a name counting
+// only where it was declared before the declarator that uses it.
+public class ParallelCompiler implements AutoCloseable {
+    static final int MIN_CHUNK_SIZE = 64 * 1024;
+    private static final int CHUNKS_PER_THREAD = 4;
+
+    private final ForkJoinPool pool;
+    private final boolean ownsPool;
+    private final int minChunkSize;
+
+    public ParallelCompiler() {
+        this.pool = ForkJoinPool.commonPool();
+        this.ownsPool = false;
+        this.minChunkSize = MIN_CHUNK_SIZE;
+    }
+
+    public ParallelCompiler(int parallelism) {
+        this(parallelism, MIN_CHUNK_SIZE);
+    }
+
+    ParallelCompiler(int parallelism, int minChunkSize) {
+        this.pool = new ForkJoinPool(parallelism);
+        this.ownsPool = true;
+        this.minChunkSize = minChunkSize;
+    }
+
+    public int getParallelism() { return pool.getParallelism(); }
+
+    public CompilationResult compile(CharSequence source) {
+        int[] bounds = split(source, pool.getParallelism() * CHUNKS_PER_THREAD, minChunkSize);
+        ChunkResult result = pool.invoke(new ChunkTask(source, bounds, 0, bounds.length - 1));
+        if (result.syntaxOk && result.semanticOk && result.deferred != null) {
+            SymbolTable variables = result.variables;
+            ArrayList<ForkJoinTask<Integer>> checks = new ArrayList<>();
+            for (TokenBuffer tokens : result.deferred) {
+                checks.add(pool.submit(() -> SemanticAnalyzer.check(tokens, variables, 0, tokens.size(), null,
+                        SemanticAnalyzer.CHECK_BEFORE, null)));
+            }
+            for (ForkJoinTask<Integer> check : checks) {
+                if (check.join() != SemanticAnalyzer.PASSED) result.semanticOk = false;
+            }
+        }
+
+        Phase failed = null;
+        if (!result.lexicalOk) failed = Phase.LEXICAL;
+        else if (!result.syntaxOk) failed = Phase.SYNTAX;
+        else if (!result.semanticOk) failed = Phase.SEMANTIC;
+        return new CompilationResult(failed, result.tokenCount);
+    }
+
+    // Chunk i covers [bounds[i], bounds[i + 1]); every inner bound sits right after a ';'
+    static int[] split(CharSequence source, int chunks, int minChunkSize) {
+        int length = source.length();
+        int target = Math.max(minChunkSize, length / Math.max(1, chunks));
+        ArrayList<Integer> bounds = new ArrayList<>();
+        bounds.add(0);
+        int from = target;
+        while (from < length) {
+            int cut = nextStatementEnd(source, from);
+            if (cut < 0) break;
+            bounds.add(cut);
+            from = cut + target;
+        }
+        bounds.add(length);
+
+        int[] result = new int[bounds.size()];
+        for (int i = 0; i < result.length; i++) result[i] = bounds.get(i);
+        return result;
+    }
+
+    // Offset just past the first ';' outside a literal at or after the
+    // line containing from, or -1. Literals never span lines, so scanning
+    // from the start of the next line needs no earlier context.
+    private static int nextStatementEnd(CharSequence source, int from) {
+        int length = source.length();
+        int i = from;
+        while (i < length && source.charAt(i - 1) != '\n') i++;
+        char quote = 0;
+        for (; i < length; i++) {
+            char c = source.charAt(i);
+            if (c == '\n') {
+                quote = 0;
+            } else if (quote != 0) {
+                if (c == quote) quote = 0;
+            } else if (c == '"' || c == '\'') {
+                quote = c;
+            } else if (c == ';') {
+                return i + 1;
+            }
+        }
+        return -1;
+    }
+
+    @Override
+    public void close() {
+        if (ownsPool) pool.shutdown();
+    }
+
+    private static final class ChunkResult {
+        boolean lexicalOk;
+        boolean syntaxOk;
+        boolean semanticOk;
+        int tokenCount;
+        SymbolTable variables;
+        // Tokens of the pieces that name identifiers they do not declare, or null
+        ArrayList<TokenBuffer> deferred;
+    }
+
+    // Lives for one compile and is never serialized
+    @SuppressWarnings("serial")
+    private static final class ChunkTask extends RecursiveTask<ChunkResult> {
+        private final CharSequence source;
+        private final int[] bounds;
+        private final int lo;
+        private final int hi;
+
+        ChunkTask(CharSequence source, int[] bounds, int lo, int hi) {
+            this.source = source;
+            this.bounds = bounds;
+            this.lo = lo;
+            this.hi = hi;
+        }
+
+        @Override
+        protected ChunkResult compute() {
+            if (hi - lo == 1) return analyzeChunk();
+
+            int mid = (lo + hi) >>> 1;
+            ChunkTask right = new ChunkTask(source, bounds, mid, hi);
+            right.fork();
+            ChunkResult left = new ChunkTask(source, bounds, lo, mid).compute();
+            return merge(left, right.join());
+        }
+
+        private ChunkResult analyzeChunk() {
+            int from = bounds[lo];
+            TokenBuffer tokens = new TokenBuffer(source);
+            new Lexer(lo == 0).scan(source, from, bounds[hi], true, tokens);
+
+            ChunkResult result = new ChunkResult();
+            result.tokenCount = tokens.size();
+            result.lexicalOk = LexicalAnalyzer.isValidLexically(tokens);
+            ExpressionParser parser = new ExpressionParser();
+            result.syntaxOk = result.lexicalOk && SyntaxAnalyzer.analyze(tokens, 0, tokens.size(), parser);
+            if (result.syntaxOk) {
+                result.variables = new SymbolTable(source);
+                int outcome = SemanticAnalyzer.check(tokens, result.variables, 0, tokens.size(), parser, SemanticAnalyzer.DEFER, null);
+                result.semanticOk = outcome != SemanticAnalyzer.FAILED;
+                if (outcome == SemanticAnalyzer.UNRESOLVED) {
+                    result.deferred = new ArrayList<>();
+                    result.deferred.add(tokens);
+                }
+            }
+            return result;
+        }
+
+        private static ChunkResult merge(ChunkResult left, ChunkResult right) {
+            left.tokenCount += right.tokenCount;
+            left.lexicalOk &= right.lexicalOk;
+            left.syntaxOk &= right.syntaxOk;
+            left.semanticOk &= right.semanticOk;
+            if (!left.syntaxOk || !left.semanticOk) {
+                // The outcome is decided; the symbol tables are no longer needed
+                left.variables = null;
+                left.deferred = null;
+                return left;
+            }
+            if (left.deferred == null) {
+                left.deferred = right.deferred;
+            } else if (right.deferred != null) {
+                left.deferred.addAll(right.deferred);
+            }
+            SymbolTable into = left.variables;
+            SymbolTable from = right.variables;
+            if (into.size() < from.size()) {
+                into = right.variables;
+                from = left.variables;
+            }
+            if (!into.mergeFrom(from)) {
+                left.semanticOk = false;
+                left.variables = null;
+                left.deferred = null;
+                return left;
+            }
+            left.variables = into;
+            return left;
+        }
+    }
+}
@@ -0,0 +1,9 @@
+package com.analyzer;
+
+// Told how far a phase run by ProgressiveAnalyzer has got. done counts the
+// phase's own units (chars lexed, statements checked); fraction is the share
+// of the phase's input behind it, from 0 to 1. Throwing from it, e.g. a
+// CancellationException, abandons the phase.
+public interface ProgressListener {
+    void progress(int done, double fraction);
+}
@@ -0,0 +1,78 @@
+package com.analyzer;
+
+import com.model.DiagnosticReport;
+
+// Runs one phase over a whole file in steps and reports to a listener after
+// each step, so a caller on another thread can show progress and give up
+// part-way. Lexing goes a window of chars at a time through the resumable
+// lexer; the checks go a batch of statements at a time, cut just past a ';'
+// as ParallelCompiler cuts its chunks. Results are the same as the one-shot
+// analyzers'.
+public final class ProgressiveAnalyzer {
+    private static final int LEX_WINDOW = 256 * 1024;
+    private static final int STATEMENTS_PER_STEP = 16 * 1024;
+
+    private ProgressiveAnalyzer() {}
+
+    public static TokenBuffer scan(CharSequence input, ProgressListener progress) {
+        TokenBuffer tokens = new TokenBuffer(input);
+        lex(input, tokens, progress);
+        return tokens;
+    }
+
+    // Same report as CompilerPipeline.diagnose, untraced
+    public static DiagnosticReport diagnose(CharSequence input, int maxErrors, ProgressListener progress) {
+        RecoveringAnalyzer analyzer = new RecoveringAnalyzer(input, maxErrors);
+        lex(input, analyzer, progress);
+        return analyzer.report();
+    }
+
+    public static boolean analyzeSyntax(TokenBuffer tokens, ProgressListener progress) {
+        return inSteps(tokens, progress, (from, to) -> SyntaxAnalyzer.analyze(tokens, from, to));
+    }
+
+    // Expects tokens that passed the syntax check
+    public static boolean analyzeSemantics(TokenBuffer tokens, ProgressListener progress) {
+        SymbolTable variables = new SymbolTable(tokens.source());
+        return inSteps(tokens, progress, (from, to) -> SemanticAnalyzer.analyze(tokens, variables, from, to));
+    }
+
+    private interface StatementCheck {
+        boolean check(int from, int to);
+    }
+
+    private static boolean inSteps(TokenBuffer tokens, ProgressListener progress, StatementCheck check) {
+        int size = tokens.size();
+        int statements = 0;
+        for (int from = 0; from < size; ) {
+            int to = from;
+            int step = 0;
+            while (to < size && step < STATEMENTS_PER_STEP) {
+                if (tokens.kind(to++) == TokenKind.DELIMITER) step++;
+            }
+            if (!check.check(from, to)) return false;
+            statements += step;
+            from = to;
+            progress.progress(statements, fraction(to, size));
+        }
+        return true;
+    }
+
+    private static void lex(CharSequence input, TokenSink sink, ProgressListener progress) {
+        Lexer lexer = new Lexer();
+        int length = input.length();
+        int pos = 0;
+        int to = 0;
+        while (pos < length) {
+            // Unless it is the last, a window leaves its unfinished token for
+            // the next one, which grows until the token fits
+            to = Math.min(length, to + LEX_WINDOW);
+            pos = lexer.scan(input, pos, to, to == length, sink);
+            progress.progress(pos, fraction(pos, length));
+        }
+    }
+
+    private static double fraction(int done, int total) {
+        return total == 0 ? 1 : (double) done / total;
+    }
+}
@@ -0,0 +1,216 @@
+package com.analyzer;
+
+import com.model.CompilationResult;
+import com.model.CompilationResult.Phase;
+import com.model.Diagnostic;
+import com.model.Diagnostic.Code;
+import com.model.DiagnosticReport;
+import java.util.ArrayList;
+
+// Single-pass analysis that keeps going after errors and reports each one
+// with its position. After a lexical or syntax error the rest of the
+// declaration is skipped up to the next ';'. Semantic checks run on every
+// declarator that parsed, at its ',' or ';'. At most maxErrors diagnostics are
+// kept (the rest are only counted), which bounds memory on broken input.
+//
+// The failed phase and token count always match the staged pipeline.
+public class RecoveringAnalyzer implements TokenSink {
+    public static final int DEFAULT_MAX_ERRORS = 100;
+    private static final int MAX_LEXEME = 40;
+
+    private static final int EXPECT_TYPE = 0;
+    private static final int EXPECT_IDENTIFIER = 1;
+    private static final int EXPECT_ASSIGN_OR_END = 2;
+    private static final int IN_EXPRESSION = 3;
+    private static final int SKIP_TO_DELIMITER = 4;
+
+    private final CharSequence text;
+    private final int maxErrors;
+    private final SymbolTable variables;
+    private final ArrayList<Diagnostic> diagnostics = new ArrayList<>();
+    private int errorCount;
+    // The first error of each phase, by Phase ordinal, kept past the cap
+    private final Code[] firstErrors = new Code[Phase.values().length];
+    private boolean lexicalOk = true;
+    private boolean syntaxOk = true;
+    private boolean semanticOk = true;
+    private int tokenCount;
+
+    // The declarator being parsed; its identifier is declared at the ','
+    // or ';' after it, so its own initializer cannot name it
+    private int state = EXPECT_TYPE;
+    private DataType dataType;
+    private int identifierStart;
+    private int identifierEnd;
+    private ExpressionParser parser;
+    private boolean initialized;
+    private boolean literal;
+    private int valueStart;
+    private int valueEnd;
+
+    // Line bookkeeping, advanced lazily up to the last reported offset
+    private int scanned;
+    private int line = 1;
+    private int lineStart;
+
+    public RecoveringAnalyzer(CharSequence text) {
+        this(text, DEFAULT_MAX_ERRORS);
+    }
+
+    public RecoveringAnalyzer(CharSequence text, int maxErrors) {
+        if (maxErrors < 1) throw new IllegalArgumentException("maxErrors must be at least 1: " + maxErrors);
+        this.text = text;
+        this.maxErrors = maxErrors;
+        this.variables = new SymbolTable(text);
+    }
+
+    @Override
+    public void token(TokenKind kind, int start, int end) {
+        tokenCount++;
+        if (kind == TokenKind.UNKNOWN) {
+            error(Code.UNKNOWN_TOKEN, start, end);
+            state = SKIP_TO_DELIMITER;
+            return;
+        }
+
+        Code expected;
+        switch (state) {
+            case EXPECT_TYPE:
+                if (kind == TokenKind.DATA_TYPE) {
+                    dataType = DataType.lookup(text, start, end);
+                    state = EXPECT_IDENTIFIER;
+                    return;
+                }
+                expected = Code.EXPECTED_DATA_TYPE;
+                break;
+            case EXPECT_IDENTIFIER:
+                if (kind == TokenKind.IDENTIFIER) {
+                    identifierStart = start;
+                    identifierEnd = end;
+                    initialized = false;
+                    state = EXPECT_ASSIGN_OR_END;
+                    return;
+                }
+                expected = Code.EXPECTED_IDENTIFIER;
+                break;
+            case EXPECT_ASSIGN_OR_END:
+                if (kind == TokenKind.ASSIGNMENT_OPERATOR) {
+                    if (parser == null) parser = new ExpressionParser();
+                    parser.reset();
+                    initialized = true;
+                    valueStart = -1;
+                    state = IN_EXPRESSION;
+                    return;
+                }
+                if (endDeclarator(kind, start)) return;
+                expected = Code.EXPECTED_ASSIGNMENT_OR_DELIMITER;
+                break;
+            case IN_EXPRESSION:
+                if (parser.push(kind, text, start, end, leafType(kind, start, end))) {
+                    if (valueStart < 0) valueStart = start;
+                    valueEnd = end;
+                    if (parser.isSingleToken()) literal = kind == TokenKind.VALUE;
+                    return;
+                }
+                if (parser.expectsOperand()) {
+                    expected = Code.EXPECTED_VALUE;
+                } else if (parser.hasOpenParenthesis() && (kind == TokenKind.DELIMITER || kind == TokenKind.SEPARATOR)) {
+                    expected = Code.EXPECTED_CLOSING_PARENTHESIS;
+                } else {
+                    parser.finish();
+                    if (endDeclarator(kind, start)) return;
+                    expected = Code.EXPECTED_DELIMITER;
+                }
+                break;
+            default:
+                if (kind == TokenKind.DELIMITER) state = EXPECT_TYPE;
+                return;
+        }
+
+        error(expected, start, end);
+        // A stray ';' ends the broken declaration by itself
+        state = kind == TokenKind.DELIMITER ? EXPECT_TYPE : SKIP_TO_DELIMITER;
+    }
+
+    // At ',' or ';' the declarator is complete and checked
+    private boolean endDeclarator(TokenKind kind, int start) {
+        boolean delimiter = kind == TokenKind.DELIMITER;
+        if (!delimiter && (kind != TokenKind.SEPARATOR || text.charAt(start) != ',')) return false;
+        declare();
+        state = delimiter ? EXPECT_TYPE : EXPECT_IDENTIFIER;
+        return true;
+    }
+
+    private int leafType(TokenKind kind, int start, int end) {
+        if (kind == TokenKind.VALUE) return ExpressionParser.literalType(text, start, end);
+        if (kind != TokenKind.IDENTIFIER) return ExpressionParser.UNTYPED;
+        int slot = variables.slotOf(text, start, end);
+        return slot < 0 ? ExpressionParser.UNDECLARED : variables.typeAt(slot);
+    }
+
+    private void declare() {
+        int typeCode = dataType == null ? SymbolTable.NO_TYPE : dataType.code();
+        if (!variables.declare(text, identifierStart, identifierEnd, typeCode)) {
+            error(Code.DUPLICATE_IDENTIFIER, identifierStart, identifierEnd);
+        }
+        if (!initialized) return;
+        if (parser.isSingleToken() && literal) {
+            fitError(SemanticAnalyzer.fitLiteral(dataType, text, valueStart, valueEnd));
+        } else if (parser.error() == ExpressionParser.UNDECLARED_IDENTIFIER) {
+            error(Code.UNDECLARED_IDENTIFIER, parser.errorStart(), parser.errorEnd());
+        } else if (parser.error() == ExpressionParser.BAD_OPERANDS) {
+            error(Code.BAD_OPERANDS, parser.errorStart(), parser.errorEnd());
+        } else if (parser.error() == ExpressionParser.OUT_OF_RANGE) {
+            error(Code.OUT_OF_RANGE, parser.errorStart(), parser.errorEnd());
+        } else {
+            fitError(SemanticAnalyzer.fit(dataType, parser, parser.finish()));
+        }
+    }
+
+    private void fitError(int fit) {
+        if (fit == SemanticAnalyzer.MISMATCH) error(Code.TYPE_MISMATCH, valueStart, valueEnd);
+        else if (fit == SemanticAnalyzer.OUT_OF_RANGE) error(Code.OUT_OF_RANGE, valueStart, valueEnd);
+    }
+
+    private void error(Code code, int start, int end) {
+        errorCount++;
+        if (code.phase() == Phase.LEXICAL) lexicalOk = false;
+        else if (code.phase() == Phase.SYNTAX) syntaxOk = false;
+        else semanticOk = false;
+        if (firstErrors[code.phase().ordinal()] == null) firstErrors[code.phase().ordinal()] = code;
+        if (diagnostics.size() >= maxErrors) return;
+
+        if (start < scanned) {
+            scanned = 0;
+            line = 1;
+            lineStart = 0;
+        }
+        for (; scanned < start; scanned++) {
+            if (text.charAt(scanned) == '\n') {
+                line++;
+                lineStart = scanned + 1;
+            }
+        }
+        String lexeme = text.subSequence(start, Math.min(end, start + MAX_LEXEME)).toString();
+        diagnostics.add(new Diagnostic(code, start, line, start - lineStart + 1, lexeme));
+    }
+
+    // The first error found in the phase, or null; it is the reason the
+    // staged pipeline gives up in that phase. Complete after report()
+    public Code firstError(Phase phase) {
+        return firstErrors[phase.ordinal()];
+    }
+
+    // Call once the lexer has reached the end of the text
+    public DiagnosticReport report() {
+        if (state != EXPECT_TYPE && state != SKIP_TO_DELIMITER) {
+            error(Code.UNTERMINATED_DECLARATION, text.length(), text.length());
+            state = SKIP_TO_DELIMITER;
+        }
+        Phase failed = null;
+        if (!lexicalOk) failed = Phase.LEXICAL;
+        else if (!syntaxOk) failed = Phase.SYNTAX;
+        else if (!semanticOk) failed = Phase.SEMANTIC;
+        return new DiagnosticReport(new CompilationResult(failed, tokenCount), diagnostics, errorCount);
+    }
+}
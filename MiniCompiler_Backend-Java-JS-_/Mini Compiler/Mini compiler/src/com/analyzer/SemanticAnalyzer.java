@@ -2,40 +2,239 @@ package com.analyzer;
 
 import com.model.Token;
 import java.util.ArrayList;
-import java.util.HashMap;
 
 public class SemanticAnalyzer {
+    // Outcomes of check
+    static final int PASSED = 0;
+    static final int FAILED = 1;
+    // Nothing failed, but an initializer names an identifier this table does not have
+    static final int UNRESOLVED = 2;
+
+    // How check resolves the identifiers named in initializers
+    // Declares each declarator; a name must have been declared before it
+    static final int DECLARE = 0;
+    // As DECLARE, but a name not found is left unresolved instead of failing
+    static final int DEFER = 1;
+    // Declares nothing: the table already holds the whole file, and a name
+    // must be declared at a smaller offset than the declarator naming it
+    static final int CHECK_BEFORE = 2;
+
+    // Whether an initializer's value suits the declared type
+    static final int FITS = 0;
+    static final int MISMATCH = 1;
+    // The right kind of value, but the type cannot hold it
+    static final int OUT_OF_RANGE = 2;
+
     public static boolean analyze(ArrayList<Token> tokens) {
-        HashMap<String, String> variables = new HashMap<>();
-        int i = 0;
-        while (i < tokens.size()) {
-            String dataType = tokens.get(i).getLexeme();
-            i++;
-            String identifier = tokens.get(i).getLexeme();
+        return analyze(TokenBuffer.of(tokens));
+    }
+
+    public static boolean analyze(TokenBuffer tokens) {
+        // Identifiers are keyed by their offsets in the source, never copied
+        return analyze(tokens, new SymbolTable(tokens.source()));
+    }
+
+    // Declared identifiers are added to the given table, so callers that
+    // check a file in pieces can merge the tables afterwards to find duplicates
+    public static boolean analyze(TokenBuffer tokens, SymbolTable variables) {
+        return analyze(tokens, variables, 0, tokens.size());
+    }
+
+    // Checks the statements in tokens [from, to), which must have passed the syntax check
+    public static boolean analyze(TokenBuffer tokens, SymbolTable variables, int from, int to) {
+        return check(tokens, variables, from, to, null, DECLARE, null) == PASSED;
+    }
+
+    // Also adds the value of every constant declarator to the pool, up to
+    // the first error
+    public static boolean analyze(TokenBuffer tokens, SymbolTable variables, ConstantPool constants) {
+        return check(tokens, variables, 0, tokens.size(), null, DECLARE, constants) == PASSED;
+    }
+
+    // parser is reused for the initializers that need one; if null, one is
+    // made the first time. constants may be null
+    static int check(TokenBuffer tokens, SymbolTable variables, int from, int to, ExpressionParser parser, int mode,
+                     ConstantPool constants) {
+        CharSequence text = tokens.source();
+        boolean unresolved = false;
+        int i = from;
+        int size = to;
+        while (i < size) {
+            int typeStart = tokens.start(i);
+            DataType dataType = DataType.lookup(text, typeStart, typeStart + tokens.length(i));
+            int typeCode = dataType == null ? SymbolTable.NO_TYPE : dataType.code();
             i++;
-            String value = null;
-            if (i < tokens.size() && tokens.get(i).getType().equals("<assignment_operator>")) {
-                i++;
-                value = tokens.get(i).getLexeme();
+            // One declarator per pass, up to and including its ',' or ';'
+            while (true) {
+                int start = tokens.start(i);
+                int end = start + tokens.length(i);
                 i++;
+                // Check for duplicate identifiers
+                if (mode != CHECK_BEFORE && !variables.declare(text, start, end, typeCode)) return FAILED;
+
+                if (tokens.kind(i) == TokenKind.ASSIGNMENT_OPERATOR) {
+                    i++;
+                    int value = i;
+                    while (!SyntaxAnalyzer.endsDeclarator(tokens, i)) i++;
+                    if (i - value == 1 && tokens.kind(value) == TokenKind.VALUE) {
+                        // Check type-value compatibility
+                        int valueStart = tokens.start(value);
+                        int valueEnd = valueStart + tokens.length(value);
+                        if (fitLiteral(dataType, text, valueStart, valueEnd, constants, start) != FITS) return FAILED;
+                    } else {
+                        if (parser == null) parser = new ExpressionParser();
+                        parser.reset();
+                        // The declarator's own name is declared, but not for its initializer
+                        int self = mode == CHECK_BEFORE ? -1 : variables.slotOf(text, start, end);
+                        boolean resolved = true;
+                        for (int k = value; k < i; k++) {
+                            int tokenStart = tokens.start(k);
+                            int tokenEnd = tokenStart + tokens.length(k);
+                            TokenKind kind = tokens.kind(k);
+                            int leafType = ExpressionParser.UNTYPED;
+                            if (kind == TokenKind.VALUE) {
+                                leafType = ExpressionParser.literalType(text, tokenStart, tokenEnd);
+                            } else if (kind == TokenKind.IDENTIFIER) {
+                                int slot = variables.slotOf(text, tokenStart, tokenEnd);
+                                if (slot < 0 && mode == DEFER) {
+                                    resolved = false;
+                                } else if (slot < 0 || slot == self || mode == CHECK_BEFORE && variables.startAt(slot) >= start) {
+                                    leafType = ExpressionParser.UNDECLARED;
+                                } else {
+                                    leafType = variables.typeAt(slot);
+                                }
+                            }
+                            parser.push(kind, text, tokenStart, tokenEnd, leafType);
+                        }
+                        int root = parser.finish();
+                        if (parser.error() != ExpressionParser.NO_ERROR) return FAILED;
+                        if (fit(dataType, parser, root) != FITS) return FAILED;
+                        if (constants != null && dataType != null && parser.isConstant(root)) {
+                            constants.add(start, typeCode, ExpressionParser.convert(parser.value(root), parser.type(root), typeCode));
+                        }
+                        unresolved |= !resolved;
+                    }
+                }
+                if (tokens.kind(i++) == TokenKind.DELIMITER) break;
             }
-            i++; // skip ;
-
-            // Check for duplicate identifiers
-            if (variables.containsKey(identifier)) return false;
-
-            // Check type-value compatibility
-            if (value != null) {
-                if (dataType.equals("int") && !value.matches("^[0-9]+$")) return false;
-                if ((dataType.equals("double") || dataType.equals("float")) && !value.matches("^[0-9]+\\.[0-9]+$")) return false;
-                if (dataType.equals("String") && !(value.startsWith("\"") && value.endsWith("\""))) return false;
-                if (dataType.equals("char") && !(value.startsWith("'") && value.endsWith("'"))) return false;
-                if (dataType.equals("boolean") && !(value.equals("true") || value.equals("false"))) return false;
-                // Add more checks as needed for other types
-            }
+        }
+        return unresolved ? UNRESOLVED : PASSED;
+    }
+
+    static boolean isCompatible(CharSequence dataType, CharSequence value) {
+        if (value == null) return true;
+        return isCompatible(DataType.lookup(dataType), value, 0, value.length());
+    }
+
+    static boolean isCompatible(DataType type, CharSequence text, int start, int end) {
+        return fitLiteral(type, text, start, end) == FITS;
+    }
+
+    // The rule for an initializer that is one literal. Its format has to be
+    // the type's, and a number has to be in the type's range: that literal
+    // is the only way to write a long, short or byte value, so it is read
+    // against the declared type rather than as an int
+    static int fitLiteral(DataType type, CharSequence text, int start, int end) {
+        return fitLiteral(type, text, start, end, null, 0);
+    }
+
+    // As above; a literal that fits is also added to constants, if not null,
+    // as the value of the identifier at declarator. Each literal is read once
+    static int fitLiteral(DataType type, CharSequence text, int start, int end, ConstantPool constants, int declarator) {
+        if (type == null) return FITS;
+        long value;
+        switch (type) {
+            case INT:
+            case LONG:
+            case SHORT:
+            case BYTE:
+                value = LexemeClassifier.integerValue(text, start, end);
+                if (value == LexemeClassifier.NOT_INTEGER) return MISMATCH;
+                if (value < 0 || value > maxValue(type)) return OUT_OF_RANGE;
+                break;
+            case DOUBLE:
+            case FLOAT:
+                double decimal = LexemeClassifier.decimalValue(text, start, end);
+                if (Double.isNaN(decimal)) return MISMATCH;
+                if (type == DataType.FLOAT) decimal = (float) decimal;
+                // Too large rounds to infinity, too small to zero
+                if (Double.isInfinite(decimal) || decimal == 0 && !LexemeClassifier.isZero(text, start, end)) {
+                    return OUT_OF_RANGE;
+                }
+                value = Double.doubleToRawLongBits(decimal);
+                break;
+            case STRING:
+                return LexemeClassifier.isQuoted(text, start, end, '"') ? FITS : MISMATCH;
+            case CHAR:
+                if (!LexemeClassifier.isQuoted(text, start, end, '\'')) return MISMATCH;
+                value = LexemeClassifier.charValue(text, start, end);
+                // A longer quote passes, as it always has, but has no value
+                if (value < 0) return FITS;
+                break;
+            case BOOLEAN:
+                if (!LexemeClassifier.isBoolean(text, start, end)) return MISMATCH;
+                value = text.charAt(start) == 't' ? 1 : 0;
+                break;
+            default:
+                return FITS;
+        }
+        if (constants != null) constants.add(declarator, type.code(), value);
+        return FITS;
+    }
+
+    private static long maxValue(DataType type) {
+        switch (type) {
+            case LONG: return Long.MAX_VALUE;
+            case SHORT: return Short.MAX_VALUE;
+            case BYTE: return Byte.MAX_VALUE;
+            default: return Integer.MAX_VALUE;
+        }
+    }
+
+    // The rule for any other initializer: its type has to be assignable, and
+    // a constant that narrows has to be in the type's range
+    static int fit(DataType type, ExpressionParser parser, int root) {
+        int expressionType = parser.type(root);
+        boolean constant = parser.isConstant(root);
+        if (!isAssignable(type, expressionType, constant)) return MISMATCH;
+        if (type == null || !constant) return FITS;
+        long value = parser.value(root);
+        switch (type) {
+            case SHORT:
+                return expressionType != DataType.INT.code() || value == (short) value ? FITS : OUT_OF_RANGE;
+            case BYTE:
+                return expressionType != DataType.INT.code() || value == (byte) value ? FITS : OUT_OF_RANGE;
+            case FLOAT:
+                if (expressionType != DataType.DOUBLE.code()) return FITS;
+                // A constant that overflowed a double while folding is out of range too
+                return Float.isInfinite((float) Double.longBitsToDouble(value)) ? OUT_OF_RANGE : FITS;
+            default:
+                return FITS;
+        }
+    }
 
-            variables.put(identifier, dataType);
+    // Whether a value of the expression's type can be assigned, and whether
+    // the value is known. Numbers widen as in Java; as there are no float
+    // literals, float takes any number. short and byte take int constants,
+    // which fit checks for range
+    static boolean isAssignable(DataType type, int expressionType, boolean constant) {
+        if (type == null || expressionType == ExpressionParser.UNTYPED) return true;
+        if (expressionType < 0) return false;
+        switch (type) {
+            case DOUBLE:
+            case FLOAT:
+                return ExpressionParser.isNumeric(expressionType);
+            case LONG:
+                return ExpressionParser.isIntegral(expressionType);
+            case INT:
+                return ExpressionParser.isIntegral(expressionType) && expressionType != DataType.LONG.code();
+            case SHORT:
+                return expressionType == DataType.SHORT.code() || expressionType == DataType.BYTE.code()
+                        || constant && expressionType == DataType.INT.code();
+            case BYTE:
+                return expressionType == DataType.BYTE.code() || constant && expressionType == DataType.INT.code();
+            default:
+                return expressionType == type.code();
         }
-        return true;
     }
-}
\ No newline at end of file
+}
@@ -1,3 +1,13 @@
+const SyntaxAnalyzer = require('./SyntaxAnalyzer');
+
+// Numeric types, narrowest first among those binary promotion can produce
+const NUMERIC = ['byte', 'short', 'char', 'int', 'long', 'float', 'double'];
+const INVALID = null;
+// Largest value of each integral type a literal can be written for
+const MAX_VALUE = { int: 2147483647n, long: 9223372036854775807n, short: 32767n, byte: 127n };
+// Java's single-char escapes
+const ESCAPES = { b: 8, t: 9, n: 10, f: 12, r: 13, '0': 0, '"': 34, "'": 39, '\\': 92 };
+
 class SemanticAnalyzer {
     static analyze(tokens) {
         const variables = new Map();
@@ -5,32 +15,226 @@ class SemanticAnalyzer {
         while (i < tokens.length) {
             const dataType = tokens[i].getLexeme();
             i++;
-            const identifier = tokens[i].getLexeme();
-            i++;
-            let value = null;
-            if (i < tokens.length && tokens[i].getType() === '<assignment_operator>') {
-                i++;
-                value = tokens[i].getLexeme();
+            while (true) {
+                const identifier = tokens[i].getLexeme();
                 i++;
+
+                // Check for duplicate identifiers
+                if (variables.has(identifier)) return false;
+
+                if (tokens[i].getType() === '<assignment_operator>') {
+                    i++;
+                    const value = i;
+                    while (!SyntaxAnalyzer.endsDeclarator(tokens[i])) i++;
+                    if (i - value === 1 && tokens[value].getType() === '<value>') {
+                        // Check type-value compatibility
+                        if (!this.isCompatible(dataType, tokens[value].getLexeme())) return false;
+                    } else {
+                        // Names must be declared before this declarator
+                        const root = SyntaxAnalyzer.parseExpression(tokens, value).node;
+                        if (!this.fits(dataType, this.evaluate(root, variables))) return false;
+                    }
+                }
+                variables.set(identifier, dataType);
+                if (tokens[i++].getType() === '<delimiter>') break;
             }
-            i++; // skip ;
-
-            // Check for duplicate identifiers
-            if (variables.has(identifier)) return false;
-
-            // Check type-value compatibility
-            if (value !== null) {
-                if (dataType === 'int' && !/^[0-9]+$/.test(value)) return false;
-                if (dataType === 'double' && !/^[0-9]+\.[0-9]+$/.test(value)) return false;
-                if (dataType === 'String' && !(value.startsWith('"') && value.endsWith('"'))) return false;
-                if (dataType === 'char' && !(value.startsWith("'") && value.endsWith("'"))) return false;
-                // Add more checks as needed for other types
+        }
+        return true;
+    }
+
+    // The rule for an initializer that is one literal: the type's format, and for a number the type's range
+    static isCompatible(dataType, value) {
+        if (dataType in MAX_VALUE) return /^[0-9]+$/.test(value) && BigInt(value) <= MAX_VALUE[dataType];
+        if (dataType === 'double' || dataType === 'float') {
+            if (!/^[0-9]+\.[0-9]+$/.test(value)) return false;
+            return !this.isLost(dataType === 'float' ? Math.fround(Number(value)) : Number(value), value);
+        }
+        if (dataType === 'String' && !(value.startsWith('"') && value.endsWith('"'))) return false;
+        if (dataType === 'char' && !(value.startsWith("'") && value.endsWith("'"))) return false;
+        if (dataType === 'boolean' && !(value === 'true' || value === 'false')) return false;
+        // Add more checks as needed for other types
+        return true;
+    }
+
+    // A decimal literal that rounds to infinity, or to zero without being zero
+    static isLost(number, lexeme) {
+        return Math.abs(number) === Infinity || (number === 0 && /[1-9]/.test(lexeme));
+    }
+
+    // { type, value } of an expression, with type INVALID if it has none.
+    // value is left undefined unless it is known: a BigInt for integral
+    // types and char, a number for float and double, or a boolean
+    static evaluate(node, variables) {
+        if (node.token !== undefined) {
+            const lexeme = node.token.getLexeme();
+            if (node.token.getType() === '<identifier>') return { type: variables.has(lexeme) ? variables.get(lexeme) : INVALID };
+            if (/^[0-9]+$/.test(lexeme)) {
+                // No suffix makes a literal long; one too large for an int is
+                const value = BigInt(lexeme);
+                if (value > MAX_VALUE.long) return { type: INVALID };
+                return { type: value > MAX_VALUE.int ? 'long' : 'int', value };
+            }
+            if (/^[0-9]+\.[0-9]+$/.test(lexeme)) {
+                const value = Number(lexeme);
+                return this.isLost(value, lexeme) ? { type: INVALID } : { type: 'double', value };
+            }
+            if (lexeme.startsWith('"') && lexeme.endsWith('"')) return { type: 'String' };
+            if (lexeme.startsWith("'") && lexeme.endsWith("'")) return { type: 'char', value: this.charValue(lexeme) };
+            if (lexeme === 'true' || lexeme === 'false') return { type: 'boolean', value: lexeme === 'true' };
+            return { type: INVALID };
+        }
+        const right = this.evaluate(node.right, variables);
+        if (node.left === null) {
+            if (right.type === INVALID) return right;
+            if (node.op === '!') {
+                if (right.type !== 'boolean') return { type: INVALID };
+                return { type: 'boolean', value: right.value === undefined ? undefined : !right.value };
             }
+            if (!this.isNumeric(right.type)) return { type: INVALID };
+            // The one int literal that is written larger than an int
+            if (node.right.token !== undefined && right.type === 'long' && right.value === 2147483648n) {
+                return { type: 'int', value: -2147483648n };
+            }
+            const type = this.promote(right.type, 'int');
+            if (right.value === undefined) return { type };
+            if (this.isFloating(type)) return { type, value: -Number(right.value) };
+            return { type, value: BigInt.asIntN(type === 'long' ? 64 : 32, -right.value) };
+        }
+        const left = this.evaluate(node.left, variables);
+        const type = this.binaryType(node.op, left.type, right.type);
+        if (type === INVALID || left.value === undefined || right.value === undefined) return { type };
+        return { type, value: this.fold(node.op, type, left, right) };
+    }
+
+    static binaryType(op, left, right) {
+        if (left === INVALID || right === INVALID) return INVALID;
+        const numeric = this.isNumeric(left) && this.isNumeric(right);
+        switch (op) {
+            case '||':
+            case '&&':
+                return left === 'boolean' && right === 'boolean' ? 'boolean' : INVALID;
+            case '==':
+            case '!=':
+                return numeric || (left === right && (left === 'boolean' || left === 'String')) ? 'boolean' : INVALID;
+            case '<':
+            case '<=':
+            case '>':
+            case '>=':
+                return numeric ? 'boolean' : INVALID;
+            case '+':
+                if (left === 'String' || right === 'String') return 'String';
+                return numeric ? this.promote(left, right) : INVALID;
+            default:
+                return numeric ? this.promote(left, right) : INVALID;
+        }
+    }
 
-            variables.set(identifier, dataType);
+    // Java's arithmetic on constants; undefined for integer division by zero
+    static fold(op, type, left, right) {
+        if (op === '||') return left.value || right.value;
+        if (op === '&&') return left.value && right.value;
+        if (type === 'boolean') {
+            if (left.type === 'boolean') return op === '==' ? left.value === right.value : left.value !== right.value;
+            const operands = this.promote(left.type, right.type);
+            return this.compare(op, this.convert(left.value, operands), this.convert(right.value, operands));
+        }
+        const a = this.convert(left.value, type);
+        const b = this.convert(right.value, type);
+        if (this.isFloating(type)) {
+            switch (op) {
+                case '+': return a + b;
+                case '-': return a - b;
+                case '*': return a * b;
+                case '/': return a / b;
+                default: return a % b;
+            }
+        }
+        let result;
+        switch (op) {
+            case '+': result = a + b; break;
+            case '-': result = a - b; break;
+            case '*': result = a * b; break;
+            default:
+                if (b === 0n) return undefined;
+                result = op === '/' ? a / b : a % b;
+                break;
+        }
+        // int arithmetic wraps at 32 bits, long at 64
+        return BigInt.asIntN(type === 'long' ? 64 : 32, result);
+    }
+
+    static compare(op, a, b) {
+        switch (op) {
+            case '==': return a === b;
+            case '!=': return a !== b;
+            case '<': return a < b;
+            case '<=': return a <= b;
+            case '>': return a > b;
+            default: return a >= b;
+        }
+    }
+
+    static convert(value, type) {
+        return this.isFloating(type) ? Number(value) : value;
+    }
+
+    static charValue(lexeme) {
+        if (lexeme.length === 3) return BigInt(lexeme.charCodeAt(1));
+        if (lexeme.length === 4 && lexeme[1] === '\\' && lexeme[2] in ESCAPES) return BigInt(ESCAPES[lexeme[2]]);
+        return undefined;
+    }
+
+    static isNumeric(type) {
+        return NUMERIC.includes(type);
+    }
+
+    static isFloating(type) {
+        return type === 'float' || type === 'double';
+    }
+
+    // Java's binary numeric promotion
+    static promote(left, right) {
+        for (const wider of ['double', 'float', 'long']) {
+            if (left === wider || right === wider) return wider;
+        }
+        return 'int';
+    }
+
+    // The rule for any other initializer: an assignable type, and a constant
+    // that narrows must be in range
+    static fits(dataType, result) {
+        const value = result.value;
+        if (!this.isAssignable(dataType, result.type, value !== undefined)) return false;
+        if (value === undefined) return true;
+        if ((dataType === 'short' || dataType === 'byte') && result.type === 'int') {
+            return -MAX_VALUE[dataType] - 1n <= value && value <= MAX_VALUE[dataType];
+        }
+        if (dataType === 'float' && result.type === 'double') {
+            // A constant that overflowed a double while folding is out of range too
+            return Math.abs(Math.fround(value)) !== Infinity;
         }
         return true;
     }
+
+    // Whether the type can be assigned; constant is whether the value is known
+    static isAssignable(dataType, type, constant) {
+        if (type === INVALID) return false;
+        switch (dataType) {
+            case 'double':
+            case 'float':
+                return this.isNumeric(type);
+            case 'long':
+                return this.isNumeric(type) && type !== 'float' && type !== 'double';
+            case 'int':
+                return ['byte', 'short', 'char', 'int'].includes(type);
+            case 'short':
+                return type === 'short' || type === 'byte' || (constant && type === 'int');
+            case 'byte':
+                return type === 'byte' || (constant && type === 'int');
+            default:
+                return type === dataType;
+        }
+    }
 }
 
 module.exports = SemanticAnalyzer;
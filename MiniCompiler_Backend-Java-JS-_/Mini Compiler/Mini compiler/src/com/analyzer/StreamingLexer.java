@@ -0,0 +1,96 @@
+package com.analyzer;
+
+import com.model.Token;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.CharBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+public class StreamingLexer implements Iterator<Token>, Closeable {
+    public static final int DEFAULT_BUFFER_SIZE = 8192;
+
+    private final Reader reader;
+    private final Lexer lexer = new Lexer();
+    private final ArrayDeque<Token> pending = new ArrayDeque<>();
+    private char[] buffer;
+    private CharBuffer view;
+    private int pos;
+    private int limit;
+    // Chars dropped from the front of the buffer so far
+    private long discarded;
+    private boolean eof;
+
+    public StreamingLexer(Reader reader) {
+        this(reader, DEFAULT_BUFFER_SIZE);
+    }
+
+    public StreamingLexer(Reader reader, int bufferSize) {
+        if (bufferSize < 1) throw new IllegalArgumentException("bufferSize must be positive");
+        this.reader = reader;
+        this.buffer = new char[bufferSize];
+        this.view = CharBuffer.wrap(buffer);
+    }
+
+    public static StreamingLexer open(ReadableByteChannel channel) {
+        return new StreamingLexer(Channels.newReader(channel, StandardCharsets.UTF_8));
+    }
+
+    @Override
+    public boolean hasNext() {
+        while (pending.isEmpty() && !(eof && pos == limit)) fill();
+        return !pending.isEmpty();
+    }
+
+    @Override
+    public Token next() {
+        if (!hasNext()) throw new NoSuchElementException();
+        return pending.poll();
+    }
+
+    private void fill() {
+        if (!eof) {
+            // Keep the unfinished token, if any, and read behind it
+            if (pos > 0) {
+                System.arraycopy(buffer, pos, buffer, 0, limit - pos);
+                discarded += pos;
+                limit -= pos;
+                pos = 0;
+            }
+            if (limit == buffer.length) {
+                // A single token longer than the buffer
+                char[] grown = new char[buffer.length * 2];
+                System.arraycopy(buffer, 0, grown, 0, limit);
+                buffer = grown;
+                view = CharBuffer.wrap(buffer);
+            }
+            try {
+                int n = reader.read(buffer, limit, buffer.length - limit);
+                if (n < 0) eof = true;
+                else limit += n;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        pos = lexer.scan(view, pos, limit, eof, this::materialize);
+    }
+
+    private void materialize(TokenKind kind, int start, int end) {
+        String lexeme;
+        if (kind == TokenKind.DELIMITER) lexeme = ";";
+        else if (kind == TokenKind.ASSIGNMENT_OPERATOR) lexeme = "=";
+        else lexeme = new String(buffer, start, end - start);
+        pending.add(new Token(lexeme, kind.label(), discarded + start));
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+}
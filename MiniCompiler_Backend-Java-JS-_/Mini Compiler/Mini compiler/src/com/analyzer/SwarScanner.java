@@ -0,0 +1,115 @@
+package com.analyzer;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+// Finds the lexer's delimiters in raw bytes eight at a time, as SWAR
+// (SIMD within a register) tests on longs. Longs are loaded little-endian,
+// so the first byte in memory is the lowest: the has-zero-byte test can
+// only flag bytes above a real match by mistake, never below it, so the
+// lowest flagged byte is always the first match. Each search takes either
+// a heap array or, for mapped text, a buffer; indexes are absolute.
+final class SwarScanner {
+    private static final VarHandle ARRAY_LONGS = MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.LITTLE_ENDIAN);
+    private static final VarHandle BUFFER_LONGS = MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.LITTLE_ENDIAN);
+    private static final long ONES = 0x0101010101010101L;
+    private static final long HIGHS = 0x8080808080808080L;
+    // Bytes below 0x30 are white space, control chars, quotes and most of
+    // the operator chars, but also '#', '$' and '.', which callers reject
+    private static final long DIGIT_ZEROS = 0x30 * ONES;
+    private static final long SEMICOLONS = ';' * ONES;
+    private static final long LESS_THANS = '<' * ONES;
+    private static final long EQUALS = '=' * ONES;
+    private static final long GREATER_THANS = '>' * ONES;
+    private static final long BARS = '|' * ONES;
+    private static final long NEWLINES = '\n' * ONES;
+
+    private SwarScanner() {}
+
+    // The first byte in [from, to) that may end a word: white space, ';',
+    // a quote or an operator char. Some bytes that do not end one come back
+    // too, so callers confirm with the scalar test. to if there is none
+    static int wordEndCandidate(byte[] bytes, int from, int to) {
+        int i = from;
+        for (; i + 8 <= to; i += 8) {
+            long found = wordEnds((long) ARRAY_LONGS.get(bytes, i));
+            if (found != 0) return i + (Long.numberOfTrailingZeros(found) >>> 3);
+        }
+        for (; i < to; i++) {
+            if (isWordEndCandidate(bytes[i])) return i;
+        }
+        return to;
+    }
+
+    static int wordEndCandidate(ByteBuffer bytes, int from, int to) {
+        int i = from;
+        for (; i + 8 <= to; i += 8) {
+            long found = wordEnds((long) BUFFER_LONGS.get(bytes, i));
+            if (found != 0) return i + (Long.numberOfTrailingZeros(found) >>> 3);
+        }
+        for (; i < to; i++) {
+            if (isWordEndCandidate(bytes.get(i))) return i;
+        }
+        return to;
+    }
+
+    // The first quote byte or '\n' in [from, to), or to
+    static int quoteOrNewline(byte[] bytes, int from, int to, byte quote) {
+        long quotes = (quote & 0xFF) * ONES;
+        int i = from;
+        for (; i + 8 <= to; i += 8) {
+            long word = (long) ARRAY_LONGS.get(bytes, i);
+            long found = zero(word ^ quotes) | zero(word ^ NEWLINES);
+            if (found != 0) return i + (Long.numberOfTrailingZeros(found) >>> 3);
+        }
+        for (; i < to; i++) {
+            if (bytes[i] == quote || bytes[i] == '\n') return i;
+        }
+        return to;
+    }
+
+    static int quoteOrNewline(ByteBuffer bytes, int from, int to, byte quote) {
+        long quotes = (quote & 0xFF) * ONES;
+        int i = from;
+        for (; i + 8 <= to; i += 8) {
+            long word = (long) BUFFER_LONGS.get(bytes, i);
+            long found = zero(word ^ quotes) | zero(word ^ NEWLINES);
+            if (found != 0) return i + (Long.numberOfTrailingZeros(found) >>> 3);
+        }
+        for (; i < to; i++) {
+            byte b = bytes.get(i);
+            if (b == quote || b == '\n') return i;
+        }
+        return to;
+    }
+
+    static boolean isAscii(ByteBuffer bytes, int from, int to) {
+        int i = from;
+        long bits = 0;
+        for (; i + 8 <= to; i += 8) bits |= (long) BUFFER_LONGS.get(bytes, i);
+        for (; i < to; i++) bits |= bytes.get(i);
+        return (bits & HIGHS) == 0;
+    }
+
+    private static long wordEnds(long word) {
+        return below(word, DIGIT_ZEROS) | zero(word ^ SEMICOLONS) | zero(word ^ LESS_THANS)
+                | zero(word ^ EQUALS) | zero(word ^ GREATER_THANS) | zero(word ^ BARS);
+    }
+
+    private static boolean isWordEndCandidate(byte b) {
+        return (b & 0xFF) < 0x30 || b == ';' || b == '<' || b == '=' || b == '>' || b == '|';
+    }
+
+    // High bit set in each byte that is zero (exact for the lowest one)
+    private static long zero(long word) {
+        return (word - ONES) & ~word & HIGHS;
+    }
+
+    // High bit set in each byte below the one repeated in limits, which must
+    // be at most 0x80 (exact for the lowest one)
+    private static long below(long word, long limits) {
+        return (word - limits) & ~word & HIGHS;
+    }
+}
@@ -0,0 +1,239 @@
+package com.analyzer;
+
+import java.nio.CharBuffer;
+import java.util.Arrays;
+
+// Identifier -> data type code, as an open-addressing table (linear probing)
+// over parallel primitive arrays: about 13 bytes per slot and no objects per
+// symbol. Keys are either offsets into one source text, which is never
+// copied, or copied into the table's own char arena (interning) when they
+// come from text that does not outlive the table: token objects, reused
+// lexer buffers, mapped regions.
+//
+// Tables are also how chunks and files find duplicates between each other:
+// mergeFrom moves one table's symbols into another, reusing stored hashes.
+public final class SymbolTable {
+    public static final int NO_TYPE = -1;
+    private static final int INITIAL_CAPACITY = 64;
+
+    private CharSequence source;
+    private char[] arena;
+    private int arenaSize;
+    // A zero hash marks an empty slot
+    private int[] hashes;
+    private int[] starts;
+    private int[] lengths;
+    private byte[] types;
+    private int size;
+
+    // Keys are spans of source
+    public SymbolTable(CharSequence source) {
+        this.source = source;
+        allocate(INITIAL_CAPACITY);
+    }
+
+    // Keys are copied into an arena, so any text may be passed
+    public SymbolTable() {
+        this.source = null;
+        this.arena = new char[1024];
+        allocate(INITIAL_CAPACITY);
+    }
+
+    private void allocate(int capacity) {
+        hashes = new int[capacity];
+        starts = new int[capacity];
+        lengths = new int[capacity];
+        types = new byte[capacity];
+    }
+
+    // typeCode is a DataType code. Returns false, leaving the table unchanged,
+    // if the identifier is already declared
+    public boolean declare(CharSequence text, int start, int end, int typeCode) {
+        checkText(text);
+        return insert(hash(text, start, end), text, start, end, typeCode);
+    }
+
+    public boolean contains(CharSequence text, int start, int end) {
+        return find(text, start, end) >= 0;
+    }
+
+    // The declared type code, or NO_TYPE if the identifier is not declared
+    public int typeOf(CharSequence text, int start, int end) {
+        int slot = find(text, start, end);
+        return slot < 0 ? NO_TYPE : types[slot];
+    }
+
+    // Slot of a declared identifier, or -1. Slots stay put until the next
+    // declare or merge, which may move every symbol
+    int slotOf(CharSequence text, int start, int end) {
+        return find(text, start, end);
+    }
+
+    int typeAt(int slot) {
+        return types[slot];
+    }
+
+    // Where the identifier in the slot was declared, for a table keyed by source spans
+    int startAt(int slot) {
+        return starts[slot];
+    }
+
+    // Interning tables only: the key's offset in the arena, interning it
+    // (with NO_TYPE) if new. Offsets stay fixed until clear, so a caller can
+    // keep its own per-name data in arrays indexed by them
+    int keyOf(CharSequence text, int start, int end) {
+        if (source != null) throw new IllegalStateException("Only interning tables have stable keys");
+        int slot = find(text, start, end);
+        if (slot >= 0) return starts[slot];
+        int at = arenaSize;
+        insert(hash(text, start, end), text, start, end, NO_TYPE);
+        return at;
+    }
+
+    // Interning tables only: one past the largest key offset
+    int arenaSize() {
+        return arenaSize;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    // Adds every symbol of other; returns false at the first one already
+    // declared here (the symbols before it stay added)
+    public boolean mergeFrom(SymbolTable other) {
+        if (source != null && other.source != source) {
+            throw new IllegalArgumentException("Tables over different sources need an interning target");
+        }
+        CharSequence keys = other.keys();
+        for (int slot = 0; slot < other.hashes.length; slot++) {
+            int hash = other.hashes[slot];
+            if (hash == 0) continue;
+            int start = other.starts[slot];
+            if (!insert(hash, keys, start, start + other.lengths[slot], other.types[slot])) return false;
+        }
+        return true;
+    }
+
+    public void clear() {
+        size = 0;
+        arenaSize = 0;
+        if (arena != null) arena = new char[1024];
+        allocate(INITIAL_CAPACITY);
+    }
+
+    // Empties a table keyed by source spans and points it at another source.
+    // The arrays are kept, so refilling to the same size allocates nothing,
+    // unless they are far larger than the last fill needed
+    void reset(CharSequence source) {
+        if (this.source == null) throw new IllegalStateException("Only tables keyed by source spans are reset");
+        this.source = source;
+        if (size == 0) return;
+        if (hashes.length > INITIAL_CAPACITY && size * 8L < hashes.length) allocate(INITIAL_CAPACITY);
+        else Arrays.fill(hashes, 0);
+        size = 0;
+    }
+
+    // Heap held by the table's arrays (headers excluded); the source text is not counted
+    public long memoryBytes() {
+        long slots = hashes.length;
+        return slots * (4 + 4 + 4 + 1) + (arena == null ? 0 : 2L * arena.length);
+    }
+
+    public double bytesPerSymbol() {
+        return size == 0 ? 0 : (double) memoryBytes() / size;
+    }
+
+    private CharSequence keys() {
+        return source != null ? source : CharBuffer.wrap(arena, 0, arenaSize);
+    }
+
+    private void checkText(CharSequence text) {
+        if (source != null && text != source) {
+            throw new IllegalArgumentException("Keys must be spans of the table's source");
+        }
+    }
+
+    private int find(CharSequence text, int start, int end) {
+        checkText(text);
+        int hash = hash(text, start, end);
+        int mask = hashes.length - 1;
+        for (int slot = hash & mask; hashes[slot] != 0; slot = (slot + 1) & mask) {
+            if (hashes[slot] == hash && keyEquals(slot, text, start, end)) return slot;
+        }
+        return -1;
+    }
+
+    private boolean insert(int hash, CharSequence text, int start, int end, int typeCode) {
+        int mask = hashes.length - 1;
+        int slot = hash & mask;
+        for (; hashes[slot] != 0; slot = (slot + 1) & mask) {
+            if (hashes[slot] == hash && keyEquals(slot, text, start, end)) return false;
+        }
+        hashes[slot] = hash;
+        starts[slot] = source != null ? start : intern(text, start, end);
+        lengths[slot] = end - start;
+        types[slot] = (byte) typeCode;
+        // Keep the load factor at or under 2/3 so probe runs stay short
+        if (++size * 3 > hashes.length * 2) grow();
+        return true;
+    }
+
+    private int intern(CharSequence text, int start, int end) {
+        int length = end - start;
+        if (arenaSize + length > arena.length) {
+            arena = Arrays.copyOf(arena, Math.max(arena.length * 2, arenaSize + length));
+        }
+        int at = arenaSize;
+        for (int i = 0; i < length; i++) arena[at + i] = text.charAt(start + i);
+        arenaSize += length;
+        return at;
+    }
+
+    private boolean keyEquals(int slot, CharSequence text, int start, int end) {
+        int length = lengths[slot];
+        if (length != end - start) return false;
+        int at = starts[slot];
+        if (source != null) {
+            for (int i = 0; i < length; i++) {
+                if (source.charAt(at + i) != text.charAt(start + i)) return false;
+            }
+        } else {
+            for (int i = 0; i < length; i++) {
+                if (arena[at + i] != text.charAt(start + i)) return false;
+            }
+        }
+        return true;
+    }
+
+    private void grow() {
+        int[] oldHashes = hashes;
+        int[] oldStarts = starts;
+        int[] oldLengths = lengths;
+        byte[] oldTypes = types;
+        allocate(oldHashes.length * 2);
+        int mask = hashes.length - 1;
+        // Keys are unique, so only an empty slot has to be found
+        for (int i = 0; i < oldHashes.length; i++) {
+            if (oldHashes[i] == 0) continue;
+            int slot = oldHashes[i] & mask;
+            while (hashes[slot] != 0) slot = (slot + 1) & mask;
+            hashes[slot] = oldHashes[i];
+            starts[slot] = oldStarts[i];
+            lengths[slot] = oldLengths[i];
+            types[slot] = oldTypes[i];
+        }
+    }
+
+    private static int hash(CharSequence text, int start, int end) {
+        int h = 0;
+        for (int i = start; i < end; i++) h = 31 * h + text.charAt(i);
+        // Spread the bits (murmur3 finalizer); linear probing is sensitive to clustering
+        h ^= h >>> 16;
+        h *= 0x85EBCA6B;
+        h ^= h >>> 13;
+        h *= 0xC2B2AE35;
+        h ^= h >>> 16;
+        return h == 0 ? 1 : h;
+    }
+}
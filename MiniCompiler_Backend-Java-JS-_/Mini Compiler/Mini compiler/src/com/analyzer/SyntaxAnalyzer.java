@@ -5,21 +5,76 @@ import java.util.ArrayList;
 
 public class SyntaxAnalyzer {
     public static boolean analyze(ArrayList<Token> tokens) {
-        int i = 0;
-        while (i < tokens.size()) {
-            // Expect: <data_type> <identifier> [ = <value> ] ;
-            if (!tokens.get(i).getType().equals("<data_type>")) return false;
-            i++;
-            if (i >= tokens.size() || !tokens.get(i).getType().equals("<identifier>")) return false;
+        return analyze(TokenBuffer.of(tokens));
+    }
+
+    public static boolean analyze(TokenBuffer tokens) {
+        return analyze(tokens, 0, tokens.size());
+    }
+
+    // Checks tokens [from, to) on their own; from and to must be statement
+    // boundaries (0, size, or just past a ';')
+    public static boolean analyze(TokenBuffer tokens, int from, int to) {
+        return analyze(tokens, from, to, null);
+    }
+
+    // parser is reused for the initializers that need one; if null, one is
+    // made the first time
+    static boolean analyze(TokenBuffer tokens, int from, int to, ExpressionParser parser) {
+        CharSequence text = tokens.source();
+        int i = from;
+        int size = to;
+        while (i < size) {
+            // Expect: <data_type> <declarator> { , <declarator> } ;
+            // where <declarator> is <identifier> [ = <expression> ]
+            if (tokens.kind(i) != TokenKind.DATA_TYPE) return false;
             i++;
-            if (i < tokens.size() && tokens.get(i).getType().equals("<assignment_operator>")) {
-                i++;
-                if (i >= tokens.size() || !tokens.get(i).getType().equals("<value>")) return false;
+            while (true) {
+                if (i >= size || tokens.kind(i) != TokenKind.IDENTIFIER) return false;
                 i++;
+                if (i < size && tokens.kind(i) == TokenKind.ASSIGNMENT_OPERATOR) {
+                    i++;
+                    // Most initializers are a single value, which needs no parser. A
+                    // value can be followed by no separator but ',', as in an expression
+                    if (i + 1 < size && tokens.kind(i) == TokenKind.VALUE && isDelimiterOrSeparator(tokens.kind(i + 1))) {
+                        i++;
+                    } else {
+                        if (parser == null) parser = new ExpressionParser();
+                        i = parseExpression(tokens, i, size, parser);
+                        if (i < 0) return false;
+                    }
+                }
+                if (i >= size) return false;
+                TokenKind kind = tokens.kind(i++);
+                if (kind == TokenKind.DELIMITER) break;
+                if (kind != TokenKind.SEPARATOR || text.charAt(tokens.start(i - 1)) != ',') return false;
             }
-            if (i >= tokens.size() || !tokens.get(i).getType().equals("<delimiter>")) return false;
-            i++;
         }
         return true;
     }
-}
\ No newline at end of file
+
+    private static boolean isDelimiterOrSeparator(TokenKind kind) {
+        return kind == TokenKind.DELIMITER || kind == TokenKind.SEPARATOR;
+    }
+
+    // Feeds the parser from tokens[from] up to the first token that cannot
+    // continue the expression; returns its index, or -1 if the expression
+    // is not complete there
+    static int parseExpression(TokenBuffer tokens, int from, int to, ExpressionParser parser) {
+        CharSequence text = tokens.source();
+        parser.reset();
+        int i = from;
+        while (i < to) {
+            int start = tokens.start(i);
+            if (!parser.push(tokens.kind(i), text, start, start + tokens.length(i), ExpressionParser.UNTYPED)) break;
+            i++;
+        }
+        return parser.finish() < 0 ? -1 : i;
+    }
+
+    // ';' or ','
+    static boolean endsDeclarator(TokenBuffer tokens, int i) {
+        TokenKind kind = tokens.kind(i);
+        return kind == TokenKind.DELIMITER || kind == TokenKind.SEPARATOR && tokens.source().charAt(tokens.start(i)) == ',';
+    }
+}
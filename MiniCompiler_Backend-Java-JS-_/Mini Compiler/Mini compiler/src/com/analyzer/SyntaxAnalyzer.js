@@ -1,22 +1,73 @@
+// Binding power of each binary operator; all of them are left-associative
+const PRECEDENCE = {
+    '||': 1, '&&': 2, '==': 3, '!=': 3,
+    '<': 4, '<=': 4, '>': 4, '>=': 4,
+    '+': 5, '-': 5, '*': 6, '/': 6, '%': 6
+};
+
 class SyntaxAnalyzer {
     static analyze(tokens) {
         let i = 0;
         while (i < tokens.length) {
-            // Expect: <data_type> <identifier> [ = <value> ] ;
+            // Expect: <data_type> <declarator> { , <declarator> } ;
+            // where <declarator> is <identifier> [ = <expression> ]
             if (tokens[i].getType() !== '<data_type>') return false;
             i++;
-            if (i >= tokens.length || tokens[i].getType() !== '<identifier>') return false;
-            i++;
-            if (i < tokens.length && tokens[i].getType() === '<assignment_operator>') {
-                i++;
-                if (i >= tokens.length || tokens[i].getType() !== '<value>') return false;
+            while (true) {
+                if (i >= tokens.length || tokens[i].getType() !== '<identifier>') return false;
                 i++;
+                if (i < tokens.length && tokens[i].getType() === '<assignment_operator>') {
+                    i++;
+                    const parsed = this.parseExpression(tokens, i);
+                    if (parsed === null) return false;
+                    i = parsed.next;
+                }
+                if (i >= tokens.length || !this.endsDeclarator(tokens[i])) return false;
+                if (tokens[i++].getType() === '<delimiter>') break;
             }
-            if (i >= tokens.length || tokens[i].getType() !== '<delimiter>') return false;
-            i++;
         }
         return true;
     }
+
+    static endsDeclarator(token) {
+        return token.getType() === '<delimiter>' || (token.getType() === '<separator>' && token.getLexeme() === ',');
+    }
+
+    // Pratt parser: returns { node, next } for the expression starting at
+    // tokens[i], or null if there is none. A node is a leaf { token } or
+    // { op, left, right } with left null for the prefix '-' and '!'
+    static parseExpression(tokens, i, minPrecedence = 1) {
+        let parsed = this.parseOperand(tokens, i);
+        while (parsed !== null && parsed.next < tokens.length) {
+            const token = tokens[parsed.next];
+            const precedence = token.getType() === '<operator>' ? PRECEDENCE[token.getLexeme()] : undefined;
+            if (precedence === undefined || precedence < minPrecedence) break;
+            const right = this.parseExpression(tokens, parsed.next + 1, precedence + 1);
+            if (right === null) return null;
+            parsed = { node: { op: token.getLexeme(), left: parsed.node, right: right.node }, next: right.next };
+        }
+        return parsed;
+    }
+
+    static parseOperand(tokens, i) {
+        if (i >= tokens.length) return null;
+        const token = tokens[i];
+        const type = token.getType();
+        if (type === '<value>' || type === '<identifier>') return { node: { token }, next: i + 1 };
+        if (type === '<operator>' && (token.getLexeme() === '-' || token.getLexeme() === '!')) {
+            const operand = this.parseOperand(tokens, i + 1);
+            if (operand === null) return null;
+            return { node: { op: token.getLexeme(), left: null, right: operand.node }, next: operand.next };
+        }
+        if (type === '<separator>' && token.getLexeme() === '(') {
+            const inner = this.parseExpression(tokens, i + 1);
+            if (inner === null || inner.next >= tokens.length) return null;
+            const close = tokens[inner.next];
+            if (close.getType() !== '<separator>' || close.getLexeme() !== ')') return null;
+            return { node: inner.node, next: inner.next + 1 };
+        }
+        return null;
+    }
 }
 
 module.exports = SyntaxAnalyzer;
@@ -0,0 +1,30 @@
+package com.analyzer;
+
+import java.lang.management.ManagementFactory;
+
+// Bytes allocated so far by the current thread, from the HotSpot thread
+// MXBean. Only loaded once tracing is on, so untraced runs never start the
+// management classes.
+final class ThreadAllocation {
+    private static final com.sun.management.ThreadMXBean BEAN = lookup();
+
+    private ThreadAllocation() {}
+
+    // -1 when the JVM does not count allocations
+    static long current() {
+        return BEAN == null ? -1 : BEAN.getCurrentThreadAllocatedBytes();
+    }
+
+    private static com.sun.management.ThreadMXBean lookup() {
+        try {
+            java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+            if (!(bean instanceof com.sun.management.ThreadMXBean)) return null;
+            com.sun.management.ThreadMXBean hotspot = (com.sun.management.ThreadMXBean) bean;
+            if (!hotspot.isThreadAllocatedMemorySupported()) return null;
+            hotspot.setThreadAllocatedMemoryEnabled(true);
+            return hotspot;
+        } catch (LinkageError | UnsupportedOperationException e) {
+            return null;
+        }
+    }
+}
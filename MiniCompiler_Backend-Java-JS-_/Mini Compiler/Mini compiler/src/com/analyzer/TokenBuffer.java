@@ -0,0 +1,102 @@
+package com.analyzer;
+
+import com.model.Token;
+import java.nio.CharBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Objects;
+
+// Compact token store: one kind code plus start/length offsets per token,
+// kept in parallel primitive arrays over the source text. Lexemes are only
+// copied out when a caller asks for a materialized Token.
+public class TokenBuffer implements TokenSink {
+    private static final int INITIAL_CAPACITY = 64;
+
+    private CharSequence source;
+    private byte[] kinds;
+    private int[] starts;
+    private int[] lengths;
+    private int size;
+
+    public TokenBuffer(CharSequence source) {
+        this(source, INITIAL_CAPACITY);
+    }
+
+    // For callers that know the token count up front
+    TokenBuffer(CharSequence source, int capacity) {
+        this.source = source;
+        capacity = Math.max(1, capacity);
+        kinds = new byte[capacity];
+        starts = new int[capacity];
+        lengths = new int[capacity];
+    }
+
+    // Packs already materialized tokens, for callers still holding a token list
+    public static TokenBuffer of(ArrayList<Token> tokens) {
+        StringBuilder text = new StringBuilder();
+        TokenBuffer buffer = new TokenBuffer(text);
+        for (Token t : tokens) {
+            int start = text.length();
+            text.append(t.getLexeme());
+            buffer.token(TokenKind.ofLabel(t.getType()), start, text.length());
+        }
+        return buffer;
+    }
+
+    @Override
+    public void token(TokenKind kind, int start, int end) {
+        if (size == kinds.length) {
+            int capacity = size * 2;
+            kinds = Arrays.copyOf(kinds, capacity);
+            starts = Arrays.copyOf(starts, capacity);
+            lengths = Arrays.copyOf(lengths, capacity);
+        }
+        kinds[size] = kind.code();
+        starts[size] = start;
+        lengths[size] = end - start;
+        size++;
+    }
+
+    // Forgets the tokens but keeps the arrays, for callers that refill a buffer per statement
+    void clear() {
+        size = 0;
+    }
+
+    // Forgets the tokens and starts over on another source, keeping the arrays (see CompilationContext)
+    void reset(CharSequence source) {
+        this.source = source;
+        size = 0;
+    }
+
+    public int size() { return size; }
+    public CharSequence source() { return source; }
+    public TokenKind kind(int i) { return TokenKind.ofCode(kinds[i]); }
+    public int start(int i) { return starts[i]; }
+    public int length(int i) { return lengths[i]; }
+
+    // A view over the source; no characters are copied
+    public CharSequence lexeme(int i) {
+        Objects.checkIndex(i, size);
+        return CharBuffer.wrap(source, starts[i], starts[i] + lengths[i]);
+    }
+
+    public boolean lexemeEquals(int i, String s) {
+        int len = lengths[i];
+        if (len != s.length()) return false;
+        int start = starts[i];
+        for (int k = 0; k < len; k++) {
+            if (source.charAt(start + k) != s.charAt(k)) return false;
+        }
+        return true;
+    }
+
+    public Token token(int i) {
+        return new Token(lexeme(i).toString(), kind(i).label(), starts[i]);
+    }
+
+    public ArrayList<Token> toTokens() {
+        ArrayList<Token> tokens = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) tokens.add(token(i));
+        return tokens;
+    }
+}
@@ -0,0 +1,36 @@
+package com.analyzer;
+
+public enum TokenKind {
+    DATA_TYPE("<data_type>"),
+    IDENTIFIER("<identifier>"),
+    ASSIGNMENT_OPERATOR("<assignment_operator>"),
+    VALUE("<value>"),
+    DELIMITER("<delimiter>"),
+    UNKNOWN("<unknown>"),
+    // Added after UNKNOWN so the older codes keep their values
+    OPERATOR("<operator>"),
+    // ',' between declarators and the parentheses of an expression
+    SEPARATOR("<separator>");
+
+    private static final TokenKind[] VALUES = values();
+
+    private final String label;
+
+    TokenKind(String label) {
+        this.label = label;
+    }
+
+    // The type string carried by com.model.Token
+    public String label() { return label; }
+
+    public byte code() { return (byte) ordinal(); }
+
+    public static TokenKind ofCode(int code) { return VALUES[code]; }
+
+    public static TokenKind ofLabel(String label) {
+        for (TokenKind kind : VALUES) {
+            if (kind.label.equals(label)) return kind;
+        }
+        return UNKNOWN;
+    }
+}
@@ -0,0 +1,6 @@
+package com.analyzer;
+
+// Receives tokens as [start, end) offsets into the text being scanned
+public interface TokenSink {
+    void token(TokenKind kind, int start, int end);
+}
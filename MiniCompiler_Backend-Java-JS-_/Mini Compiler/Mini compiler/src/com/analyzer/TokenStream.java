@@ -0,0 +1,154 @@
+package com.analyzer;
+
+import com.model.CompilationResult;
+import com.model.Token;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+
+// Tokens read back from the binary token-stream format, so lexing and
+// checking can run as separate jobs without re-lexing. Version 2 layout
+// (varints are unsigned LEB128); version 1 had the same layout but was
+// written before the lexer knew operators, so its tokens are not read:
+//
+//   "MCTK" | version byte | varint source length | varint token count
+//   varint lexeme count | varint lexeme table bytes
+//   lexeme count x varint UTF-8 length, then the lexemes' UTF-8 bytes back to back
+//   token count x (token byte | [varint offset delta] | [varint lexeme id])
+//
+// The token byte packs the kind code (bits 0-2), a new-lexeme flag (bit 3)
+// and the offset delta from the previous token's start (bits 4-7); a delta
+// of 15 or more is written as 15 followed by the varint. Lexemes are stored
+// once and numbered by first use: ids 0 and 1 are always ";" and "=", whose
+// tokens carry no id, and a token whose lexeme is used for the first time
+// sets the flag instead of writing the next id. Only repeats write an id.
+//
+// Reading does not decode or copy the lexemes: the token buffer's source is
+// a ByteCharSequence over the table bytes, which the analyzers check just
+// like the original text (every char they test is ASCII), so a mapped
+// stream is analyzed in place.
+public final class TokenStream {
+    static final int MAGIC = 0x4D43544B;
+    public static final int VERSION = 2;
+    static final int DELIMITER_ID = 0;
+    static final int ASSIGNMENT_ID = 1;
+    static final int FIRST_LEXEME_ID = 2;
+    static final int KIND_MASK = 0x07;
+    static final int NEW_LEXEME = 0x08;
+    static final int DELTA_SHIFT = 4;
+    static final int DELTA_ESCAPE = 15;
+    private static final TokenKind[] KINDS = TokenKind.values();
+
+    private final TokenBuffer tokens;
+    private final int[] offsets;
+    private final int sourceLength;
+    private final int lexemeCount;
+
+    private TokenStream(TokenBuffer tokens, int[] offsets, int sourceLength, int lexemeCount) {
+        this.tokens = tokens;
+        this.offsets = offsets;
+        this.sourceLength = sourceLength;
+        this.lexemeCount = lexemeCount;
+    }
+
+    // Reads the stream between the buffer's position and limit; the buffer itself is not moved
+    public static TokenStream read(ByteBuffer buffer) throws IOException {
+        ByteBuffer in = buffer.slice();
+        try {
+            if (in.remaining() < 5 || in.getInt() != MAGIC) throw new IOException("Not a token stream");
+            int version = in.get() & 0xFF;
+            if (version != VERSION) throw new IOException("Unsupported token stream version " + version);
+            int sourceLength = getInt(in);
+            int size = getInt(in);
+            int lexemeCount = getInt(in);
+            int tableBytes = getInt(in);
+            if (lexemeCount < 2) throw new IOException("Corrupt token stream: lexeme table misses ';' and '='");
+            // Every lexeme and every token takes at least one byte, so larger counts are corrupt
+            if (lexemeCount > in.remaining() || size > in.remaining()) throw new IOException("Corrupt token stream: bad counts");
+
+            int[] lexemeStarts = new int[lexemeCount];
+            int[] lexemeEnds = new int[lexemeCount];
+            int at = 0;
+            for (int id = 0; id < lexemeCount; id++) {
+                lexemeStarts[id] = at;
+                at += getInt(in);
+                lexemeEnds[id] = at;
+            }
+            if (at != tableBytes || tableBytes > in.remaining()) throw new IOException("Corrupt token stream: bad lexeme table");
+            ByteCharSequence table = new ByteCharSequence(in, in.position(), tableBytes);
+            in.position(in.position() + tableBytes);
+
+            TokenBuffer tokens = new TokenBuffer(table, size);
+            int[] offsets = new int[size];
+            int offset = 0;
+            int nextNew = FIRST_LEXEME_ID;
+            for (int i = 0; i < size; i++) {
+                int code = in.get() & 0xFF;
+                int kindCode = code & KIND_MASK;
+                if (kindCode >= KINDS.length) throw new IOException("Corrupt token stream: kind " + kindCode + " at token " + i);
+                TokenKind kind = KINDS[kindCode];
+                int delta = code >>> DELTA_SHIFT;
+                offset += delta == DELTA_ESCAPE ? getInt(in) : delta;
+                offsets[i] = offset;
+                int id;
+                if (kind == TokenKind.DELIMITER) id = DELIMITER_ID;
+                else if (kind == TokenKind.ASSIGNMENT_OPERATOR) id = ASSIGNMENT_ID;
+                else if ((code & NEW_LEXEME) != 0) id = nextNew++;
+                else id = getInt(in);
+                if (id >= lexemeCount) throw new IOException("Corrupt token stream: lexeme " + id + " at token " + i);
+                tokens.token(kind, lexemeStarts[id], lexemeEnds[id]);
+            }
+            return new TokenStream(tokens, offsets, sourceLength, lexemeCount);
+        } catch (BufferUnderflowException e) {
+            throw new IOException("Truncated token stream");
+        }
+    }
+
+    // Maps the file and reads it in place; streams are limited to 2 GB
+    public static TokenStream map(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            return read(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    private static int getInt(ByteBuffer in) throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 35; shift += 7) {
+            byte b = in.get();
+            value |= (long) (b & 0x7F) << shift;
+            if (b >= 0) {
+                if (value > Integer.MAX_VALUE) break;
+                return (int) value;
+            }
+        }
+        throw new IOException("Corrupt token stream: varint out of range");
+    }
+
+    // Spans are into the lexeme table, not the source; see sourceOffset
+    public TokenBuffer tokens() { return tokens; }
+    public int size() { return tokens.size(); }
+    public int sourceOffset(int i) { return offsets[i]; }
+    public int sourceLength() { return sourceLength; }
+    public int lexemeCount() { return lexemeCount; }
+
+    // The staged checks, straight from the stream; the same result as compiling the source
+    public CompilationResult compile() {
+        return CompilerPipeline.compileTokens(tokens);
+    }
+
+    // Materializes the token list the source was lexed into, with source offsets
+    public ArrayList<Token> toTokens() {
+        ByteCharSequence table = (ByteCharSequence) tokens.source();
+        ArrayList<Token> list = new ArrayList<>(tokens.size());
+        for (int i = 0; i < tokens.size(); i++) {
+            // Decoded as UTF-8, unlike the char-per-byte view the analyzers see
+            String lexeme = table.subSequence(tokens.start(i), tokens.start(i) + tokens.length(i)).toString();
+            list.add(new Token(lexeme, tokens.kind(i).label(), offsets[i]));
+        }
+        return list;
+    }
+}
@@ -0,0 +1,210 @@
+package com.analyzer;
+
+import com.model.Token;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+
+// Serializes tokens in the TokenStream format. The first pass interns every
+// lexeme into a deduplicated table (an open-addressing map over spans of
+// one char builder, so repeated lexemes cost nothing); the second writes
+// the header, the table and the token records through one reused buffer.
+public final class TokenStreamWriter {
+    private static final int CHUNK = 64 << 10;
+
+    // The lexeme table; entry i is table[lexemeStarts[i], + lexemeLengths[i])
+    private final StringBuilder table = new StringBuilder();
+    private int[] lexemeStarts = new int[64];
+    private int[] lexemeLengths = new int[64];
+    private int lexemeCount;
+    // Lexeme id + 1 per slot, 0 for an empty slot
+    private int[] slots = new int[128];
+
+    private TokenStreamWriter() {
+        intern(";", 0, 1);
+        intern("=", 0, 1);
+    }
+
+    public static void write(TokenBuffer tokens, WritableByteChannel out) throws IOException {
+        int size = tokens.size();
+        int[] starts = new int[size];
+        for (int i = 0; i < size; i++) starts[i] = tokens.start(i);
+        new TokenStreamWriter().write(tokens, starts, tokens.source().length(), out);
+    }
+
+    // Tokens without an offset are placed one char after the previous lexeme
+    public static void write(List<Token> tokens, WritableByteChannel out) throws IOException {
+        StringBuilder text = new StringBuilder();
+        TokenBuffer buffer = new TokenBuffer(text);
+        int[] starts = new int[tokens.size()];
+        int end = 0;
+        for (int i = 0; i < starts.length; i++) {
+            Token t = tokens.get(i);
+            int at = text.length();
+            text.append(t.getLexeme());
+            buffer.token(TokenKind.ofLabel(t.getType()), at, text.length());
+            starts[i] = t.getOffset() >= 0 ? (int) t.getOffset() : (i == 0 ? 0 : end + 1);
+            end = starts[i] + t.getLexeme().length();
+        }
+        new TokenStreamWriter().write(buffer, starts, end, out);
+    }
+
+    // The whole stream in one heap buffer, flipped for reading
+    public static ByteBuffer encode(TokenBuffer tokens) throws IOException {
+        ByteBufferChannel channel = new ByteBufferChannel();
+        write(tokens, channel);
+        return channel.buffer.flip();
+    }
+
+    private void write(TokenBuffer tokens, int[] starts, int sourceLength, WritableByteChannel out) throws IOException {
+        int size = tokens.size();
+        CharSequence source = tokens.source();
+        int[] ids = new int[size];
+        for (int i = 0; i < size; i++) {
+            TokenKind kind = tokens.kind(i);
+            if (kind == TokenKind.DELIMITER) ids[i] = TokenStream.DELIMITER_ID;
+            else if (kind == TokenKind.ASSIGNMENT_OPERATOR) ids[i] = TokenStream.ASSIGNMENT_ID;
+            else ids[i] = intern(source, tokens.start(i), tokens.start(i) + tokens.length(i));
+        }
+
+        byte[][] encoded = new byte[lexemeCount][];
+        long tableBytes = 0;
+        for (int id = 0; id < lexemeCount; id++) {
+            encoded[id] = table.substring(lexemeStarts[id], lexemeStarts[id] + lexemeLengths[id])
+                    .getBytes(StandardCharsets.UTF_8);
+            tableBytes += encoded[id].length;
+        }
+
+        ByteBuffer buffer = ByteBuffer.allocate(CHUNK);
+        buffer.putInt(TokenStream.MAGIC).put((byte) TokenStream.VERSION);
+        putVarint(buffer, sourceLength);
+        putVarint(buffer, size);
+        putVarint(buffer, lexemeCount);
+        putVarint(buffer, tableBytes);
+        for (int id = 0; id < lexemeCount; id++) {
+            buffer = room(buffer, 5, out);
+            putVarint(buffer, encoded[id].length);
+        }
+        for (int id = 0; id < lexemeCount; id++) {
+            byte[] bytes = encoded[id];
+            for (int at = 0; at < bytes.length; ) {
+                buffer = room(buffer, 1, out);
+                int n = Math.min(buffer.remaining(), bytes.length - at);
+                buffer.put(bytes, at, n);
+                at += n;
+            }
+        }
+        int previous = 0;
+        int nextNew = TokenStream.FIRST_LEXEME_ID;
+        for (int i = 0; i < size; i++) {
+            if (starts[i] < previous) throw new IllegalArgumentException("Token offsets must not decrease: token " + i);
+            buffer = room(buffer, 11, out);
+            int delta = starts[i] - previous;
+            previous = starts[i];
+            TokenKind kind = tokens.kind(i);
+            int code = kind.code();
+            // Ids follow first use, so a lexeme seen for the first time is always the next id
+            boolean fresh = ids[i] == nextNew;
+            if (fresh) {
+                code |= TokenStream.NEW_LEXEME;
+                nextNew++;
+            }
+            buffer.put((byte) (code | Math.min(delta, TokenStream.DELTA_ESCAPE) << TokenStream.DELTA_SHIFT));
+            if (delta >= TokenStream.DELTA_ESCAPE) putVarint(buffer, delta);
+            if (!fresh && kind != TokenKind.DELIMITER && kind != TokenKind.ASSIGNMENT_OPERATOR) putVarint(buffer, ids[i]);
+        }
+        drain(buffer, out);
+    }
+
+    private int intern(CharSequence text, int start, int end) {
+        int hash = hash(text, start, end);
+        int mask = slots.length - 1;
+        int slot = hash & mask;
+        for (; slots[slot] != 0; slot = (slot + 1) & mask) {
+            int id = slots[slot] - 1;
+            if (equals(id, text, start, end)) return id;
+        }
+        if (lexemeCount == lexemeStarts.length) {
+            lexemeStarts = Arrays.copyOf(lexemeStarts, lexemeCount * 2);
+            lexemeLengths = Arrays.copyOf(lexemeLengths, lexemeCount * 2);
+        }
+        int id = lexemeCount++;
+        lexemeStarts[id] = table.length();
+        lexemeLengths[id] = end - start;
+        table.append(text, start, end);
+        slots[slot] = id + 1;
+        if (lexemeCount * 3 > slots.length * 2) rehash();
+        return id;
+    }
+
+    private boolean equals(int id, CharSequence text, int start, int end) {
+        int length = lexemeLengths[id];
+        if (length != end - start) return false;
+        int at = lexemeStarts[id];
+        for (int i = 0; i < length; i++) {
+            if (table.charAt(at + i) != text.charAt(start + i)) return false;
+        }
+        return true;
+    }
+
+    private void rehash() {
+        slots = new int[slots.length * 2];
+        int mask = slots.length - 1;
+        for (int id = 0; id < lexemeCount; id++) {
+            int slot = hash(table, lexemeStarts[id], lexemeStarts[id] + lexemeLengths[id]) & mask;
+            while (slots[slot] != 0) slot = (slot + 1) & mask;
+            slots[slot] = id + 1;
+        }
+    }
+
+    private static int hash(CharSequence text, int start, int end) {
+        int h = 0;
+        for (int i = start; i < end; i++) h = 31 * h + text.charAt(i);
+        return h ^ (h >>> 16);
+    }
+
+    // Unsigned LEB128: seven bits per byte, high bit set on all but the last
+    static void putVarint(ByteBuffer buffer, long value) {
+        while ((value & ~0x7FL) != 0) {
+            buffer.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        buffer.put((byte) value);
+    }
+
+    private static ByteBuffer room(ByteBuffer buffer, int bytes, WritableByteChannel out) throws IOException {
+        if (buffer.remaining() >= bytes) return buffer;
+        drain(buffer, out);
+        return buffer.clear();
+    }
+
+    private static void drain(ByteBuffer buffer, WritableByteChannel out) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) out.write(buffer);
+    }
+
+    // Collects everything written into one growing heap buffer
+    private static final class ByteBufferChannel implements WritableByteChannel {
+        ByteBuffer buffer = ByteBuffer.allocate(CHUNK);
+
+        @Override
+        public int write(ByteBuffer src) {
+            int n = src.remaining();
+            if (buffer.remaining() < n) {
+                ByteBuffer grown = ByteBuffer.allocate(Math.max(buffer.capacity() * 2, buffer.position() + n));
+                buffer = grown.put(buffer.flip());
+            }
+            buffer.put(src);
+            return n;
+        }
+
+        @Override
+        public boolean isOpen() { return true; }
+
+        @Override
+        public void close() {}
+    }
+}
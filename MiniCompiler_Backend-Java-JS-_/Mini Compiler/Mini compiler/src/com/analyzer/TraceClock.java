@@ -0,0 +1,44 @@
+package com.analyzer;
+
+import com.model.CompilationResult;
+import com.model.CompilationResult.Phase;
+import com.model.Diagnostic.Code;
+
+// Measures one traced compilation: wall time and allocation since it was
+// created, optionally split at phase boundaries
+final class TraceClock {
+    // Read first, so that loading ThreadAllocation is not timed
+    private final long startBytes = ThreadAllocation.current();
+    private final long startNanos = System.nanoTime();
+    private long lastNanos = startNanos;
+    private long lastBytes = startBytes;
+    private long[] phaseNanos;
+    private long[] phaseBytes;
+
+    // Charges everything since the previous mark to the phase
+    void endPhase(Phase phase) {
+        if (phaseNanos == null) {
+            phaseNanos = new long[Phase.values().length];
+            phaseBytes = new long[Phase.values().length];
+        }
+        long nanos = System.nanoTime();
+        long bytes = ThreadAllocation.current();
+        phaseNanos[phase.ordinal()] = nanos - lastNanos;
+        phaseBytes[phase.ordinal()] = bytes < 0 ? -1 : bytes - lastBytes;
+        lastNanos = nanos;
+        lastBytes = bytes;
+    }
+
+    CompilationTrace trace(String mode, CompilationResult result, long size, int[] kindCounts, int symbolCount,
+                           Code failure) {
+        // Totals end at the last phase so that bookkeeping after it is not charged
+        long nanos = (phaseNanos == null ? System.nanoTime() : lastNanos) - startNanos;
+        long bytes = phaseNanos == null ? ThreadAllocation.current() : lastBytes;
+        return new CompilationTrace(mode, result, size, nanos, bytes < 0 ? -1 : bytes - startBytes,
+                phaseNanos, phaseBytes, kindCounts, symbolCount, failure);
+    }
+
+    CompilationTrace trace(String mode, CompilationResult result, long size) {
+        return trace(mode, result, size, null, -1, null);
+    }
+}
@@ -0,0 +1,40 @@
+package com.model;
+
+public class CompilationResult {
+    public enum Phase { LEXICAL, SYNTAX, SEMANTIC }
+
+    private final Phase failedPhase;
+    private final int tokenCount;
+
+    public CompilationResult(Phase failedPhase, int tokenCount) {
+        this.failedPhase = failedPhase;
+        this.tokenCount = tokenCount;
+    }
+
+    // null when every phase passed
+    public Phase getFailedPhase() { return failedPhase; }
+    public int getTokenCount() { return tokenCount; }
+
+    public boolean isSuccessful() { return failedPhase == null; }
+
+    public boolean passed(Phase phase) {
+        return failedPhase == null || phase.ordinal() < failedPhase.ordinal();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (!(o instanceof CompilationResult)) return false;
+        CompilationResult other = (CompilationResult) o;
+        return failedPhase == other.failedPhase && tokenCount == other.tokenCount;
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * (failedPhase == null ? 0 : failedPhase.hashCode()) + tokenCount;
+    }
+
+    @Override
+    public String toString() {
+        return (failedPhase == null ? "PASSED" : failedPhase + " FAILED") + " (" + tokenCount + " tokens)";
+    }
+}
@@ -0,0 +1,65 @@
+package com.model;
+
+import com.model.CompilationResult.Phase;
+
+// One problem found by the error-recovering analysis, with its position.
+// Lines and columns count from 1; columns are in chars.
+public class Diagnostic {
+    public enum Code {
+        UNKNOWN_TOKEN(Phase.LEXICAL, "L001", "unrecognized token"),
+        EXPECTED_DATA_TYPE(Phase.SYNTAX, "S001", "expected a data type"),
+        EXPECTED_IDENTIFIER(Phase.SYNTAX, "S002", "expected an identifier"),
+        EXPECTED_ASSIGNMENT_OR_DELIMITER(Phase.SYNTAX, "S003", "expected '=', ',' or ';'"),
+        EXPECTED_VALUE(Phase.SYNTAX, "S004", "expected a value"),
+        EXPECTED_DELIMITER(Phase.SYNTAX, "S005", "expected an operator, ',' or ';'"),
+        UNTERMINATED_DECLARATION(Phase.SYNTAX, "S006", "declaration not terminated by ';'"),
+        EXPECTED_CLOSING_PARENTHESIS(Phase.SYNTAX, "S007", "expected ')'"),
+        DUPLICATE_IDENTIFIER(Phase.SEMANTIC, "M001", "identifier already declared"),
+        TYPE_MISMATCH(Phase.SEMANTIC, "M002", "value does not match the declared type"),
+        UNDECLARED_IDENTIFIER(Phase.SEMANTIC, "M003", "identifier not declared"),
+        BAD_OPERANDS(Phase.SEMANTIC, "M004", "operator cannot be applied to these operand types"),
+        OUT_OF_RANGE(Phase.SEMANTIC, "M005", "number out of range for its type");
+
+        private final Phase phase;
+        private final String id;
+        private final String message;
+
+        Code(Phase phase, String id, String message) {
+            this.phase = phase;
+            this.id = id;
+            this.message = message;
+        }
+
+        public Phase phase() { return phase; }
+        public String id() { return id; }
+        public String message() { return message; }
+    }
+
+    private final Code code;
+    private final int offset;
+    private final int line;
+    private final int column;
+    private final String lexeme;
+
+    public Diagnostic(Code code, int offset, int line, int column, String lexeme) {
+        this.code = code;
+        this.offset = offset;
+        this.line = line;
+        this.column = column;
+        this.lexeme = lexeme;
+    }
+
+    public Code getCode() { return code; }
+    public Phase getPhase() { return code.phase(); }
+    public int getOffset() { return offset; }
+    public int getLine() { return line; }
+    public int getColumn() { return column; }
+    // The offending token, shortened if long; empty at the end of the input
+    public String getLexeme() { return lexeme; }
+
+    @Override
+    public String toString() {
+        String found = lexeme.isEmpty() ? "end of input" : "'" + lexeme + "'";
+        return line + ":" + column + ": " + code.id() + " " + code.message() + " (at " + found + ")";
+    }
+}
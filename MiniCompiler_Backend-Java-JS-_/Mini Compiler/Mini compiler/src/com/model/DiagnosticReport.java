@@ -0,0 +1,23 @@
+package com.model;
+
+import java.util.List;
+
+// Outcome of an error-recovering analysis: the same result the staged
+// pipeline gives, plus the diagnostics kept under the error cap
+public class DiagnosticReport {
+    private final CompilationResult result;
+    private final List<Diagnostic> diagnostics;
+    private final int errorCount;
+
+    public DiagnosticReport(CompilationResult result, List<Diagnostic> diagnostics, int errorCount) {
+        this.result = result;
+        this.diagnostics = diagnostics;
+        this.errorCount = errorCount;
+    }
+
+    public CompilationResult getResult() { return result; }
+    public List<Diagnostic> getDiagnostics() { return diagnostics; }
+    // Every error found, including those past the cap
+    public int getErrorCount() { return errorCount; }
+    public boolean isTruncated() { return errorCount > diagnostics.size(); }
+}
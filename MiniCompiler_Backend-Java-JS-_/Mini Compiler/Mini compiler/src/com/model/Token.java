@@ -3,12 +3,20 @@ package com.model;
 public class Token {
     private String lexeme;
     private String type;
+    private long offset = -1;
 
     public Token(String lexeme, String type) {
         this.lexeme = lexeme;
         this.type = type;
     }
 
+    public Token(String lexeme, String type, long offset) {
+        this(lexeme, type);
+        this.offset = offset;
+    }
+
     public String getLexeme() { return lexeme; }
     public String getType() { return type; }
-}
\ No newline at end of file
+    // Char offset of the lexeme in the source, or -1 when not known
+    public long getOffset() { return offset; }
+}
\ No newline at end of file
@@ -0,0 +1,74 @@
+package com;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.analyzer.CompilationCache;
+import com.analyzer.CompileMode;
+import com.analyzer.RecoveringAnalyzer;
+import java.nio.file.Paths;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class BatchCompilerTest {
+    @Test
+    void defaults() {
+        BatchCompiler.Options o = BatchCompiler.Options.parse(new String[] {"decls/"});
+        assertEquals(CompileMode.STAGED, o.mode);
+        assertEquals(Runtime.getRuntime().availableProcessors(), o.threads);
+        assertEquals(o.threads * 2, o.maxBuffers);
+        assertFalse(o.mapped);
+        assertNull(o.cacheDir);
+        assertEquals(CompilationCache.DEFAULT_MAX_BYTES, o.cacheSize);
+        assertEquals(0, o.maxErrors);
+        assertNull(o.metricsFormat);
+        assertNull(o.out);
+        assertEquals(List.of("decls/"), o.inputs);
+    }
+
+    @Test
+    void everyFlag() {
+        BatchCompiler.Options o = BatchCompiler.Options.parse(new String[] {
+                "--parallel", "--mapped", "--threads=3", "--max-buffers=5", "--cache=/tmp/c", "--cache-size=4096",
+                "--diagnostics=7", "--metrics=json", "--metrics-interval=2", "--out=r.jsonl", "a.txt", "@list", "x/**/*.txt"});
+        assertEquals(CompileMode.PARALLEL, o.mode);
+        assertTrue(o.mapped);
+        assertEquals(3, o.threads);
+        assertEquals(5, o.maxBuffers);
+        assertEquals(Paths.get("/tmp/c"), o.cacheDir);
+        assertEquals(4096, o.cacheSize);
+        assertEquals(7, o.maxErrors);
+        assertEquals("json", o.metricsFormat);
+        assertEquals(2, o.metricsInterval);
+        assertEquals(Paths.get("r.jsonl"), o.out);
+        assertEquals(List.of("a.txt", "@list", "x/**/*.txt"), o.inputs);
+    }
+
+    @Test
+    void bareFlagsTakeTheirDefaults() {
+        BatchCompiler.Options o = BatchCompiler.Options.parse(new String[] {"--cache", "--diagnostics", "--metrics", "--threads=2", "f"});
+        assertEquals(Paths.get(MiniCompiler.DEFAULT_CACHE_DIR), o.cacheDir);
+        assertEquals(RecoveringAnalyzer.DEFAULT_MAX_ERRORS, o.maxErrors);
+        assertEquals("text", o.metricsFormat);
+        assertEquals(4, o.maxBuffers);
+    }
+
+    @Test
+    void laterModeWins() {
+        assertEquals(CompileMode.FUSED, BatchCompiler.Options.parse(new String[] {"--parallel", "--fused", "f"}).mode);
+        assertEquals(CompileMode.STAGED, BatchCompiler.Options.parse(new String[] {"--fused", "--staged", "f"}).mode);
+    }
+
+    @Test
+    void rejectsBadArguments() {
+        assertThrows(IllegalArgumentException.class, () -> BatchCompiler.Options.parse(new String[] {}));
+        assertThrows(IllegalArgumentException.class, () -> BatchCompiler.Options.parse(new String[] {"--mapped"}));
+        assertThrows(IllegalArgumentException.class, () -> BatchCompiler.Options.parse(new String[] {"--cahce", "f"}));
+        assertThrows(IllegalArgumentException.class, () -> BatchCompiler.Options.parse(new String[] {"--threads=x", "f"}));
+        assertThrows(IllegalArgumentException.class, () -> BatchCompiler.Options.parse(new String[] {"--cache-size=", "f"}));
+        assertThrows(IllegalArgumentException.class, () -> BatchCompiler.Options.parse(new String[] {"--metrics=xml", "f"}));
+    }
+}
@@ -0,0 +1,115 @@
+package com.analyzer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import com.model.CompilationResult;
+import com.model.CompilationResult.Phase;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class CompilationCacheTest {
+    private static final int STAGED = CompilationCache.pathOf(CompileMode.STAGED, false, false);
+
+    @TempDir
+    Path dir;
+
+    // Counts the compiles the cache could not spare
+    private int compiles;
+
+    private final CompilationCache.Compiler compiler = file -> {
+        compiles++;
+        return CompilerPipeline.compileStaged(new String(Files.readAllBytes(file), StandardCharsets.UTF_8));
+    };
+
+    @Test
+    void unchangedFileIsCompiledOnce() throws IOException {
+        Path file = write("a.txt", "int a = 1;\n");
+        try (CompilationCache cache = open(CompilationCache.DEFAULT_MAX_BYTES)) {
+            CompilationResult first = cache.compile(file, STAGED, compiler);
+            CompilationResult second = cache.compile(file, STAGED, compiler);
+            assertEquals(first, second);
+            assertEquals(1, compiles);
+            assertEquals(1, cache.getHits());
+            assertEquals(1, cache.getMisses());
+            assertEquals(Files.size(file), cache.getBytesSaved());
+        }
+    }
+
+    @Test
+    void resultsSurviveReopening() throws IOException {
+        Path file = write("a.txt", "int a = 1;\nint a = 2;\n");
+        try (CompilationCache cache = open(CompilationCache.DEFAULT_MAX_BYTES)) {
+            cache.compile(file, STAGED, compiler);
+        }
+        try (CompilationCache cache = open(CompilationCache.DEFAULT_MAX_BYTES)) {
+            assertEquals(Phase.SEMANTIC, cache.compile(file, STAGED, compiler).getFailedPhase());
+            assertEquals(1, compiles);
+            assertEquals(1, cache.getHits());
+        }
+    }
+
+    @Test
+    void changedContentIsCompiledAgain() throws IOException {
+        Path file = write("a.txt", "int a = 1;\n");
+        try (CompilationCache cache = open(CompilationCache.DEFAULT_MAX_BYTES)) {
+            assertNull(cache.compile(file, STAGED, compiler).getFailedPhase());
+            write("a.txt", "int a = 1;\nint a = 2;\n");
+            assertEquals(Phase.SEMANTIC, cache.compile(file, STAGED, compiler).getFailedPhase());
+            // Same length, different bytes
+            write("a.txt", "int b = 1;\nint a = 2;\n");
+            assertNull(cache.compile(file, STAGED, compiler).getFailedPhase());
+            assertEquals(3, compiles);
+            assertEquals(0, cache.getHits());
+        }
+    }
+
+    @Test
+    void eachCompilePathHasItsOwnResult() throws IOException {
+        Path file = write("a.txt", "int a = 1;\n");
+        int mapped = CompilationCache.pathOf(CompileMode.STAGED, true, false);
+        int diagnostics = CompilationCache.pathOf(CompileMode.STAGED, false, true);
+        try (CompilationCache cache = open(CompilationCache.DEFAULT_MAX_BYTES)) {
+            for (CompileMode mode : CompileMode.values()) cache.compile(file, CompilationCache.pathOf(mode, false, false), compiler);
+            cache.compile(file, mapped, compiler);
+            cache.compile(file, diagnostics, compiler);
+            assertEquals(CompileMode.values().length + 2, compiles);
+            cache.compile(file, mapped, compiler);
+            assertEquals(CompileMode.values().length + 2, compiles);
+        }
+    }
+
+    @Test
+    void leastRecentlyUsedEntryIsEvicted() throws IOException {
+        Path a = write("a.txt", "int a = 1;\n");
+        Path b = write("b.txt", "int b = 2;\n");
+        Path c = write("c.txt", "int c = 3;\n");
+        // The 8-byte header and room for two entries
+        try (CompilationCache cache = open(8 + 4 * CompilationCache.RECORD_SIZE)) {
+            cache.compile(a, STAGED, compiler);
+            cache.compile(b, STAGED, compiler);
+            cache.compile(a, STAGED, compiler);
+            cache.compile(c, STAGED, compiler);
+            assertEquals(2, cache.size());
+            assertEquals(1, cache.getEvictions());
+            assertEquals(3, compiles);
+
+            cache.compile(a, STAGED, compiler);
+            assertEquals(3, compiles);
+            cache.compile(b, STAGED, compiler);
+            assertEquals(4, compiles);
+        }
+    }
+
+    private CompilationCache open(long maxBytes) throws IOException {
+        return CompilationCache.open(dir.resolve("cache"), maxBytes);
+    }
+
+    private Path write(String name, String content) throws IOException {
+        return Files.write(dir.resolve(name), content.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,84 @@
+package com.analyzer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import com.model.CompilationResult;
+import com.model.CompilationResult.Phase;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+// Every compile path must give the staged result, token count included.
+// StressHarness checks the same on generated corpora; these are the cases
+// a path has got wrong before, such as non-ASCII literals on byte-backed text
+class CompileModesTest {
+    @TempDir
+    Path dir;
+
+    @Test
+    void validDeclarations() throws IOException {
+        assertAgree("int a = 1, b = 2;\nlong total = a + 3 * (b - 1);\nboolean small = total < 100 && !(a == b);\n", null);
+    }
+
+    @Test
+    void nonAsciiCharLiteral() throws IOException {
+        assertAgree("char c = '\u00e9';\n", null);
+        assertAgree("char c = '\u00fc';\nString s = \"h\u00e9llo \" + c;\n", null);
+        // Constants only if every path decodes the literal to the same char value
+        assertAgree("short s = '\u00e9' + 1;\n", null);
+        assertAgree("short s = '\u03bb' * 2;\n", null);
+        assertAgree("byte b = '\u00e9' + 1;\n", Phase.SEMANTIC);
+        // A longer quote passes too, whether its bytes decode to one char or not
+        assertAgree("char c = '\u00e9\u00e9';\n", null);
+    }
+
+    @Test
+    void lexicalError() throws IOException {
+        assertAgree("int a = 1 # 2;\n", Phase.LEXICAL);
+    }
+
+    @Test
+    void syntaxError() throws IOException {
+        assertAgree("int = 5;\n", Phase.SYNTAX);
+        assertAgree("String s = \"unterminated;\nint a = 1;\n", Phase.SYNTAX);
+    }
+
+    @Test
+    void semanticErrors() throws IOException {
+        assertAgree("int a = 1;\nint a = 2;\n", Phase.SEMANTIC);
+        assertAgree("byte b = 100 + 28;\n", Phase.SEMANTIC);
+        assertAgree("float f = 1" + "0".repeat(300) + ".0 * 1" + "0".repeat(300) + ".0;\n", Phase.SEMANTIC);
+    }
+
+    @Test
+    void errorFarFromTheStartOfAParallelFile() throws IOException {
+        // Long enough to be split, with the duplicate in a different piece from its first declaration
+        StringBuilder source = new StringBuilder();
+        for (int i = 0; i < 5_000; i++) source.append("int v").append(i).append(" = ").append(i).append(";\n");
+        assertAgree(source.toString(), null);
+        source.append("long v17 = 1;\n");
+        assertAgree(source.toString(), Phase.SEMANTIC);
+    }
+
+    // failed is the phase every path must fail in, or null if they must pass
+    private void assertAgree(String source, Phase failed) throws IOException {
+        CompilationResult staged = CompilerPipeline.compileStaged(source);
+        assertEquals(failed, staged.getFailedPhase(), "staged");
+
+        byte[] bytes = source.getBytes(StandardCharsets.UTF_8);
+        Path file = Files.write(dir.resolve("decls.txt"), bytes);
+        assertEquals(staged, CompilerPipeline.compile(source, CompileMode.FUSED), "fused");
+        assertEquals(staged, CompilerPipeline.compileFused(new StringReader(source)), "fused from a reader");
+        assertEquals(staged, CompilerPipeline.compileParallel(source, 4), "parallel");
+        assertEquals(staged, MappedCompiler.compile(file), "mapped");
+        assertEquals(staged, new CompilationContext().compile(Channels.newChannel(new ByteArrayInputStream(bytes)), bytes.length),
+                "context");
+        assertEquals(staged, TokenStream.read(TokenStreamWriter.encode(LexicalAnalyzer.scan(source))).compile(), "token stream");
+    }
+}
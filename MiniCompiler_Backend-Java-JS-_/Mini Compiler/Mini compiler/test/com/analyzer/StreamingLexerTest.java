@@ -0,0 +1,89 @@
+package com.analyzer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import com.model.Token;
+import java.io.FilterReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+// The streaming lexer refills its buffer wherever the reader stops, so every
+// token kind has to come out the same when a window ends inside it
+class StreamingLexerTest {
+    private static final String SOURCE = "int a = 1, b = -2;\n"
+            + "  String s = \"a; b = 'c'\" + \"\";\n"
+            + "char c = ';';\r\n"
+            + "String open = \"runs to the end   \n"
+            + "boolean longIdentifierNameThatSpansChunks = a <= b && !(a != b);\n"
+            + "\tdouble d = 12.5 # 3;\n"
+            + "   \n"
+            + "int last = 7;";
+
+    @Test
+    void everyBufferSizeGivesTheInMemoryTokens() {
+        List<String> expected = describe(LexicalAnalyzer.tokenize(SOURCE));
+        for (int size = 1; size <= SOURCE.length(); size++) {
+            List<String> actual = new ArrayList<>();
+            new StreamingLexer(new StringReader(SOURCE), size).forEachRemaining(t -> actual.add(describe(t)));
+            assertEquals(expected, actual, "buffer of " + size + " chars");
+        }
+    }
+
+    @Test
+    void readsOfOneCharGiveTheInMemoryTokens() {
+        Reader trickle = new FilterReader(new StringReader(SOURCE)) {
+            @Override
+            public int read(char[] buffer, int offset, int length) throws IOException {
+                return super.read(buffer, offset, Math.min(length, 1));
+            }
+        };
+        List<String> actual = new ArrayList<>();
+        LexicalAnalyzer.tokenize(trickle, t -> actual.add(describe(t)));
+        assertEquals(describe(LexicalAnalyzer.tokenize(SOURCE)), actual);
+    }
+
+    @Test
+    void tokenAtTheEndOfAWindowIsLeftForTheNext() {
+        List<String> seen = new ArrayList<>();
+        String literal = "String s = \"abc";
+        int stop = new Lexer().scan(literal, 0, literal.length(), false, (kind, start, end) -> seen.add(literal.substring(start, end)));
+        assertEquals(literal.indexOf('"'), stop);
+        assertEquals(List.of("String", "s", "="), seen);
+
+        seen.clear();
+        String word = "int total";
+        stop = new Lexer().scan(word, 0, word.length(), false, (kind, start, end) -> seen.add(word.substring(start, end)));
+        assertEquals(word.indexOf("total"), stop);
+        assertEquals(List.of("int"), seen);
+    }
+
+    @Test
+    void lineStartCarriesOverToTheNextWindow() {
+        // Leading blanks of a line are dropped even when the newline ended the last window
+        String text = "int a = 1;\n   int b = 2;";
+        int split = text.indexOf('\n') + 1;
+        List<String> seen = new ArrayList<>();
+        TokenSink sink = (kind, start, end) -> seen.add(start + ":" + text.substring(start, end));
+        Lexer lexer = new Lexer();
+        assertEquals(split, lexer.scan(text, 0, split, false, sink));
+        lexer.scan(text, split, text.length(), true, sink);
+
+        List<String> whole = new ArrayList<>();
+        new Lexer().scan(text, 0, text.length(), true, (kind, start, end) -> whole.add(start + ":" + text.substring(start, end)));
+        assertEquals(whole, seen);
+    }
+
+    private static List<String> describe(List<Token> tokens) {
+        List<String> described = new ArrayList<>();
+        for (Token t : tokens) described.add(describe(t));
+        return described;
+    }
+
+    private static String describe(Token t) {
+        return t.getOffset() + ":" + t.getType() + ":" + t.getLexeme();
+    }
+}
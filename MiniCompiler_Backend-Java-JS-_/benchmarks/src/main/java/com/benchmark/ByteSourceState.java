@@ -0,0 +1,22 @@
+package com.benchmark;
+
+import com.analyzer.ByteCharSequence;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+// The PipelineState file's bytes as they are, which the lexer scans with
+// SWAR. Kept apart so only the scanBytes benchmarks hold a second copy
+@State(Scope.Benchmark)
+public class ByteSourceState {
+    public ByteCharSequence bytes;
+
+    @Setup(Level.Trial)
+    public void load(PipelineState pipeline) throws IOException {
+        bytes = new ByteCharSequence(ByteBuffer.wrap(Files.readAllBytes(pipeline.file)));
+    }
+}
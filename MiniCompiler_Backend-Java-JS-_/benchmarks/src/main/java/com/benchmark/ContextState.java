@@ -0,0 +1,13 @@
+package com.benchmark;
+
+import com.analyzer.CompilationContext;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+// One reusable context per benchmark thread. It keeps its arrays whatever
+// the input size, so the large params show the steady state too; a
+// BatchCompiler worker drops them past DEFAULT_RETAINED_CHARS
+@State(Scope.Thread)
+public class ContextState {
+    public final CompilationContext context = new CompilationContext(Integer.MAX_VALUE);
+}
@@ -0,0 +1,339 @@
+package com.benchmark;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+// Randomized declaration files for differential testing. A valid case is a
+// well-formed program laid out with mixed white space, line endings and
+// literal contents, some statements declaring several names and some
+// initializers being expressions over earlier declarations; an invalid
+// case is a valid one with one to three mutations (dropped, swapped or
+// stray tokens, unknown characters, unterminated or split literals,
+// duplicates, mismatched or out-of-range values, broken expressions). Each
+// mutation aims at one phase, but the recorded outcome is whatever the
+// analyzers say. Cases are deterministic per seed, so a corpus is never
+// stored: only its expected results are (see StressHarness).
+public class CorpusGenerator {
+    private static final String[] TYPES = {"int", "double", "float", "String", "char", "boolean", "long", "short", "byte"};
+    private static final String[] WORDS = {"a", "b", "x", "_y", "count", "total_2", "Value", "name", "tmp_", "flag"};
+    // Between tokens. The last ones are white space to Java's trim() or
+    // Character.isWhitespace, but not to every other definition of it
+    private static final String[] GAPS = {" ", " ", " ", "  ", "\t", "\n", "\r\n", " \n  ", "\n\n",
+            "\u000B", "\f", "\u001C", "\u2003", "\u3000"};
+    // Never a valid token, and not white space to Character.isWhitespace;
+    // control chars still vanish at the end of a line, where trim() drops them
+    private static final String[] JUNK = {"$", "@", "#x", "a-b", "x.y", "1abc", "-1", "1.", ".5", "0x1F", "\u00E9",
+            "caf\u00E9", "\u00A0", "\uFEFF", "1e5", "+", "()", "\u0001", "\u0007"};
+    // Chars for the inside of literals: never the line break or either quote
+    private static final String LITERAL_CHARS = "abcxyz 019;=_-.,!?$\t\u00E9\u03BB";
+    private static final int LARGE_CASE_ODDS = 500;
+    private static final String[] ARITHMETIC = {"+", "-", "*", "/", "%"};
+    private static final String[] COMPARISONS = {"<", "<=", ">", ">=", "==", "!="};
+    private static final String[] INT_OPERANDS = {"int", "short", "byte", "char"};
+    private static final String[] LONG_OPERANDS = {"int", "short", "byte", "char", "long"};
+    private static final String[] NUMBER_OPERANDS = {"int", "short", "byte", "char", "long", "float", "double"};
+    // Each just past the range of a type, or of every type; the last is a
+    // product of two finite doubles that folds to infinity
+    private static final String[] OUT_OF_RANGE = {"128", "32768", "2147483648", "9223372036854775808",
+            "99999999999999999999", "1" + "0".repeat(39) + ".0", "0." + "0".repeat(50) + "1",
+            "1" + "0".repeat(300) + ".0 * 1" + "0".repeat(300) + ".0"};
+
+    private final Random random;
+    // Names declared so far in the case, by type
+    private final Map<String, List<String>> declared = new HashMap<>();
+
+    public CorpusGenerator(long seed) {
+        this.random = new Random(seed);
+    }
+
+    public static List<String> generate(long seed, int cases, boolean valid) {
+        CorpusGenerator generator = new CorpusGenerator(seed);
+        List<String> corpus = new ArrayList<>(cases);
+        for (int i = 0; i < cases; i++) corpus.add(valid ? generator.validCase() : generator.invalidCase());
+        return corpus;
+    }
+
+    public String validCase() {
+        return layout(declarations());
+    }
+
+    public String invalidCase() {
+        List<String> tokens = declarations();
+        int mutations = 1 + random.nextInt(3);
+        for (int i = 0; i < mutations; i++) mutate(tokens);
+        return layout(tokens);
+    }
+
+    // Tokens of a valid program; a rare large one crosses the parallel compiler's chunk size
+    private List<String> declarations() {
+        int count = random.nextInt(LARGE_CASE_ODDS) == 0 ? 2000 + random.nextInt(6000) : 1 + random.nextInt(40);
+        List<String> tokens = new ArrayList<>(count * 5);
+        declared.clear();
+        for (int i = 0; i < count; i++) {
+            String type = TYPES[random.nextInt(TYPES.length)];
+            tokens.add(type);
+            int declarators = random.nextInt(4) == 0 ? 2 + random.nextInt(3) : 1;
+            for (int d = 0; d < declarators; d++) {
+                if (d > 0) tokens.add(",");
+                String name = WORDS[random.nextInt(WORDS.length)] + i + (d > 0 ? "_" + d : "");
+                tokens.add(name);
+                if (random.nextInt(4) != 0) {
+                    tokens.add("=");
+                    initializer(type, tokens);
+                }
+                declared.computeIfAbsent(type, t -> new ArrayList<>()).add(name);
+            }
+            tokens.add(";");
+        }
+        return tokens;
+    }
+
+    // Mostly a single value; otherwise an expression of the type over
+    // literals and earlier declarations
+    private void initializer(String type, List<String> tokens) {
+        if (random.nextInt(3) != 0) {
+            tokens.add(value(type));
+            return;
+        }
+        switch (type) {
+            case "int":
+                arithmetic(tokens, type, INT_OPERANDS, 0);
+                break;
+            case "long":
+                arithmetic(tokens, type, LONG_OPERANDS, 0);
+                break;
+            case "double":
+            case "float":
+                arithmetic(tokens, type, NUMBER_OPERANDS, 0);
+                break;
+            case "short":
+            case "byte":
+                // Only constants narrow, and they must fit: two operands of
+                // one digit stay within a byte, and never divide by zero. A
+                // short may start from a non-ASCII char, whose value the
+                // byte-backed paths must decode to agree with the others
+                for (int k = 0; k < 2; k++) {
+                    if (k > 0) tokens.add(ARITHMETIC[random.nextInt(ARITHMETIC.length)]);
+                    if (random.nextInt(6) == 0) tokens.add("-");
+                    if (k == 0 && type.equals("short") && random.nextInt(4) == 0) {
+                        tokens.add(random.nextBoolean() ? "'\u00E9'" : "'\u03BB'");
+                    } else {
+                        tokens.add(Integer.toString(1 + random.nextInt(9)));
+                    }
+                }
+                break;
+            case "boolean":
+                condition(tokens, 0);
+                break;
+            case "String":
+                String first = variable("String");
+                tokens.add(first != null ? first : value("String"));
+                for (int k = random.nextInt(3); k >= 0; k--) {
+                    tokens.add("+");
+                    String operand = variable(TYPES[random.nextInt(TYPES.length)]);
+                    tokens.add(operand != null ? operand : random.nextBoolean() ? digits() : value("String"));
+                }
+                break;
+            default:
+                String name = variable(type);
+                tokens.add(name != null ? name : value(type));
+                break;
+        }
+    }
+
+    private void arithmetic(List<String> tokens, String type, String[] types, int depth) {
+        int operands = 1 + random.nextInt(3);
+        for (int k = 0; k < operands; k++) {
+            if (k > 0) tokens.add(ARITHMETIC[random.nextInt(ARITHMETIC.length)]);
+            if (depth < 2 && random.nextInt(5) == 0) {
+                tokens.add("(");
+                arithmetic(tokens, type, types, depth + 1);
+                tokens.add(")");
+                continue;
+            }
+            if (random.nextInt(6) == 0) tokens.add("-");
+            String name = random.nextBoolean() ? variable(types[random.nextInt(types.length)]) : null;
+            tokens.add(name != null ? name : operand(type));
+        }
+    }
+
+    private String operand(String type) {
+        switch (type) {
+            case "double":
+            case "float":
+                // A lone integer literal would be checked as a value, which double
+                // and float reject; a small integer part keeps a folded float
+                // finite, and a nonzero last digit keeps it from dividing by zero
+                return random.nextInt(10) + "." + digits() + (1 + random.nextInt(9));
+            case "long":
+                return random.nextInt(8) == 0 ? Long.toString(random.nextLong() >>> 1) : digits();
+            default:
+                return digits();
+        }
+    }
+
+    private void condition(List<String> tokens, int depth) {
+        int terms = 1 + random.nextInt(2);
+        for (int k = 0; k < terms; k++) {
+            if (k > 0) tokens.add(random.nextBoolean() ? "&&" : "||");
+            switch (random.nextInt(4)) {
+                case 0:
+                    tokens.add("!");
+                    // fall through
+                case 1:
+                    String flag = variable("boolean");
+                    tokens.add(flag != null ? flag : value("boolean"));
+                    break;
+                case 2:
+                    arithmetic(tokens, "double", NUMBER_OPERANDS, 1);
+                    tokens.add(COMPARISONS[random.nextInt(COMPARISONS.length)]);
+                    arithmetic(tokens, "double", NUMBER_OPERANDS, 1);
+                    break;
+                default:
+                    if (depth < 2) {
+                        tokens.add("(");
+                        condition(tokens, depth + 1);
+                        tokens.add(")");
+                    } else {
+                        tokens.add(value("boolean"));
+                    }
+                    break;
+            }
+        }
+    }
+
+    // An earlier declaration of the type, or null if there is none
+    private String variable(String type) {
+        List<String> names = declared.get(type);
+        return names == null ? null : names.get(random.nextInt(names.size()));
+    }
+
+    private String value(String type) {
+        switch (type) {
+            case "double":
+            case "float":
+                return digits() + "." + digits();
+            case "String":
+                return "\"" + literal() + "\"";
+            case "char":
+                return "'" + (random.nextInt(8) == 0 ? literal() : String.valueOf(LITERAL_CHARS.charAt(random.nextInt(6)))) + "'";
+            case "boolean":
+                return random.nextBoolean() ? "true" : "false";
+            case "long":
+                return random.nextInt(4) == 0 ? Long.toString(random.nextLong() >>> 1) : digits();
+            case "short":
+                return Integer.toString(random.nextInt(Short.MAX_VALUE + 1));
+            case "byte":
+                return Integer.toString(random.nextInt(Byte.MAX_VALUE + 1));
+            default:
+                return random.nextInt(16) == 0 ? Integer.toString(Integer.MAX_VALUE - random.nextInt(10)) : digits();
+        }
+    }
+
+    private String digits() {
+        return Integer.toString(random.nextInt(random.nextBoolean() ? 10 : 100000));
+    }
+
+    private String literal() {
+        int length = random.nextInt(12);
+        StringBuilder text = new StringBuilder(length);
+        for (int i = 0; i < length; i++) text.append(LITERAL_CHARS.charAt(random.nextInt(LITERAL_CHARS.length())));
+        return text.toString();
+    }
+
+    private void mutate(List<String> tokens) {
+        int at = random.nextInt(tokens.size());
+        String token = tokens.get(at);
+        switch (random.nextInt(12)) {
+            case 0: // a missing type, name, '=', value or ';'
+                if (tokens.size() > 1) tokens.remove(at);
+                break;
+            case 1: // a token where another kind belongs
+                tokens.add(at, random.nextBoolean() ? ";" : random.nextBoolean() ? "=" : value(TYPES[random.nextInt(TYPES.length)]));
+                break;
+            case 2:
+                tokens.add(at, JUNK[random.nextInt(JUNK.length)]);
+                break;
+            case 3: // glued onto a neighbour
+                tokens.set(at, token + JUNK[random.nextInt(JUNK.length)]);
+                break;
+            case 4: // unterminated literal, which runs to the end of the line
+                if (token.length() > 1 && (token.charAt(0) == '"' || token.charAt(0) == '\'')) {
+                    tokens.set(at, token.substring(0, token.length() - 1));
+                } else {
+                    tokens.add(at, random.nextBoolean() ? "\"open" : "'o");
+                }
+                break;
+            case 5: // a line break inside a literal
+                if (token.length() > 2 && (token.charAt(0) == '"' || token.charAt(0) == '\'')) {
+                    int cut = 1 + random.nextInt(token.length() - 2);
+                    tokens.set(at, token.substring(0, cut) + "\n" + token.substring(cut));
+                }
+                break;
+            case 6: // a value of the wrong type
+                if (token.equals("=") && at + 1 < tokens.size()) {
+                    tokens.set(at + 1, value(TYPES[random.nextInt(TYPES.length)]));
+                } else {
+                    tokens.add(at, random.nextBoolean() ? "1.5" : "\"s\"");
+                }
+                break;
+            case 7: // the name of an earlier declaration again
+                if (at > 0 && isDataType(tokens.get(at - 1))) {
+                    for (int i = 1; i + 1 < at; i++) {
+                        if (isDataType(tokens.get(i - 1))) {
+                            tokens.set(at, tokens.get(i));
+                            break;
+                        }
+                    }
+                }
+                break;
+            case 8: // a type keyword that is not one
+                tokens.add(at, random.nextBoolean() ? "Int" : random.nextBoolean() ? "string" : "integer");
+                break;
+            case 9: // a broken expression: an unknown name, a stray operator or parenthesis, a wrong operand
+                String[] broken = {"undeclared", "+", "*", "!", "(", ")", ",", "&&", "true", "\"s\""};
+                tokens.add(at, broken[random.nextInt(broken.length)]);
+                break;
+            case 10: // a number its type cannot hold
+                String number = OUT_OF_RANGE[random.nextInt(OUT_OF_RANGE.length)];
+                if (token.equals("=") && at + 1 < tokens.size()) tokens.set(at + 1, number);
+                else tokens.add(at, number);
+                break;
+            default: // keywords and literals in odd places
+                tokens.add(at, random.nextBoolean() ? TYPES[random.nextInt(TYPES.length)] : random.nextBoolean() ? "true" : "1");
+                break;
+        }
+    }
+
+    private static boolean isDataType(String token) {
+        for (String type : TYPES) {
+            if (type.equals(token)) return true;
+        }
+        return false;
+    }
+
+    // Joins tokens with random gaps; some pairs are written with no gap
+    // where the lexer still splits them ('=', ',' and ';')
+    private String layout(List<String> tokens) {
+        StringBuilder text = new StringBuilder(tokens.size() * 6);
+        if (random.nextInt(4) == 0) text.append(GAPS[random.nextInt(GAPS.length)]);
+        for (int i = 0; i < tokens.size(); i++) {
+            String token = tokens.get(i);
+            if (i > 0) {
+                boolean glue = token.equals(";") || token.equals(",") || token.equals("=") || tokens.get(i - 1).equals("=");
+                if (!glue || random.nextBoolean()) text.append(gap());
+            }
+            text.append(token);
+        }
+        if (random.nextBoolean()) text.append(random.nextBoolean() ? "\n" : "\r\n");
+        return text.toString();
+    }
+
+    private String gap() {
+        // Mostly plain spaces, so the unusual gaps stay a few per case
+        return random.nextInt(8) != 0 ? " " : GAPS[random.nextInt(GAPS.length)];
+    }
+}
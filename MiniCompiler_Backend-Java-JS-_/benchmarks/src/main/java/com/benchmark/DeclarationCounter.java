@@ -0,0 +1,20 @@
+package com.benchmark;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+// JMH reports public fields of an OPERATIONS counter as rates, which turns
+// the per-invocation declaration count into declarations per second
+@State(Scope.Thread)
+@AuxCounters(AuxCounters.Type.OPERATIONS)
+public class DeclarationCounter {
+    public long declarations;
+
+    @Setup(Level.Iteration)
+    public void reset() {
+        declarations = 0;
+    }
+}
@@ -0,0 +1,71 @@
+package com.benchmark;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Random;
+
+// Writes valid declaration files with a realistic mix of types, literals
+// and uninitialized declarations. Output is deterministic per size, so
+// generated files are cached and reused across benchmark runs.
+public class DeclarationGenerator {
+    private static final String[] WORDS = {"alpha", "beta", "config", "value", "name", "path", "retry"};
+
+    public static Path declarations(int count) throws IOException {
+        Path dir = Paths.get(System.getProperty("bench.inputs", "target/bench-inputs"));
+        Path file = dir.resolve("declarations-" + count + ".txt");
+        if (Files.exists(file)) return file;
+
+        Files.createDirectories(dir);
+        Path tmp = Files.createTempFile(dir, "declarations-", ".tmp");
+        try (BufferedWriter out = Files.newBufferedWriter(tmp, StandardCharsets.UTF_8)) {
+            write(out, count, new Random(count));
+        }
+        return Files.move(tmp, file);
+    }
+
+    static void write(Appendable out, int count, Random random) throws IOException {
+        for (int i = 0; i < count; i++) {
+            int pick = random.nextInt(100);
+            String type;
+            String value;
+            if (pick < 30) {
+                type = "int";
+                value = Integer.toString(random.nextInt(100000));
+            } else if (pick < 45) {
+                type = "String";
+                value = "\"" + WORDS[random.nextInt(WORDS.length)] + " " + random.nextInt(1000) + "\"";
+            } else if (pick < 55) {
+                type = "double";
+                value = random.nextInt(1000) + "." + random.nextInt(100);
+            } else if (pick < 62) {
+                type = "float";
+                value = random.nextInt(100) + "." + random.nextInt(10);
+            } else if (pick < 72) {
+                type = "boolean";
+                value = random.nextBoolean() ? "true" : "false";
+            } else if (pick < 78) {
+                type = "char";
+                value = "'" + (char) ('a' + random.nextInt(26)) + "'";
+            } else if (pick < 86) {
+                type = "long";
+                value = Long.toString(random.nextInt(Integer.MAX_VALUE) * 10L);
+            } else if (pick < 90) {
+                type = "short";
+                value = Integer.toString(random.nextInt(Short.MAX_VALUE));
+            } else if (pick < 93) {
+                type = "byte";
+                value = Integer.toString(random.nextInt(Byte.MAX_VALUE));
+            } else {
+                type = random.nextBoolean() ? "int" : "String";
+                value = null;
+            }
+            out.append(type).append(' ').append(WORDS[i % WORDS.length]).append('_').append(Integer.toString(i));
+            if (value != null) out.append(" = ").append(value);
+            out.append(";\n");
+        }
+    }
+}
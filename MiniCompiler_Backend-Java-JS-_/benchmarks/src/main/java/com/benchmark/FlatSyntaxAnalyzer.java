@@ -0,0 +1,31 @@
+package com.benchmark;
+
+import com.analyzer.TokenBuffer;
+import com.analyzer.TokenKind;
+
+// The syntax check as it was before declarators and expressions: one
+// identifier per statement and at most one VALUE after '='. Kept only as
+// the baseline for ParseBenchmark
+final class FlatSyntaxAnalyzer {
+    private FlatSyntaxAnalyzer() {}
+
+    static boolean analyze(TokenBuffer tokens) {
+        int i = 0;
+        int size = tokens.size();
+        while (i < size) {
+            // Expect: <data_type> <identifier> [ = <value> ] ;
+            if (tokens.kind(i) != TokenKind.DATA_TYPE) return false;
+            i++;
+            if (i >= size || tokens.kind(i) != TokenKind.IDENTIFIER) return false;
+            i++;
+            if (i < size && tokens.kind(i) == TokenKind.ASSIGNMENT_OPERATOR) {
+                i++;
+                if (i >= size || tokens.kind(i) != TokenKind.VALUE) return false;
+                i++;
+            }
+            if (i >= size || tokens.kind(i) != TokenKind.DELIMITER) return false;
+            i++;
+        }
+        return true;
+    }
+}
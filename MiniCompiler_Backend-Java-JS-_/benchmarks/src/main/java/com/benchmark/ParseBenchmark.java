@@ -0,0 +1,154 @@
+package com.benchmark;
+
+import com.analyzer.ConstantPool;
+import com.analyzer.LexicalAnalyzer;
+import com.analyzer.SemanticAnalyzer;
+import com.analyzer.SymbolTable;
+import com.analyzer.SyntaxAnalyzer;
+import com.analyzer.TokenBuffer;
+import java.io.IOException;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+// The syntax and semantic checks on 100K statements of each shape, counted
+// in declarators: "flat" is the generated declaration file, one literal
+// per statement, which syntaxFlatBaseline checks with the parser as it was
+// before expressions; "declarators" puts four of those in each statement;
+// "expressions" initializes each from earlier names with three operators
+// and a parenthesis, so every initializer goes through ExpressionParser;
+// "constants" has literal operands only, so every initializer is folded
+// and range-checked. semanticPool also collects the constant values
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+public class ParseBenchmark {
+    private static final int STATEMENTS = 100_000;
+    private static final String[] TYPES = {"byte", "short", "long", "double"};
+
+    @State(Scope.Benchmark)
+    public static class Input {
+        @Param({"flat", "declarators", "expressions", "constants"})
+        public String shape;
+
+        public TokenBuffer tokens;
+        public int declarators;
+
+        @Setup(Level.Trial)
+        public void generate() throws IOException {
+            StringBuilder text = new StringBuilder();
+            Random random = new Random(STATEMENTS);
+            switch (shape) {
+                case "flat":
+                    DeclarationGenerator.write(text, STATEMENTS, random);
+                    declarators = STATEMENTS;
+                    break;
+                case "declarators":
+                    for (int i = 0; i < STATEMENTS; i++) {
+                        text.append("int ");
+                        for (int d = 0; d < 4; d++) {
+                            if (d > 0) text.append(", ");
+                            text.append("value_").append(i).append('_').append(d).append(" = ").append(random.nextInt(100000));
+                        }
+                        text.append(";\n");
+                    }
+                    declarators = 4 * STATEMENTS;
+                    break;
+                case "constants":
+                    for (int i = 0; i < STATEMENTS; i++) {
+                        text.append(TYPES[i % TYPES.length]).append(" value_").append(i).append(" = ");
+                        switch (i % TYPES.length) {
+                            case 0: // at most 120
+                                text.append(random.nextInt(10)).append(" * ").append(random.nextInt(10))
+                                        .append(" + ").append(random.nextInt(40));
+                                break;
+                            case 1: // at most 28971 either way
+                                text.append('(').append(random.nextInt(1000)).append(" - ").append(random.nextInt(1000))
+                                        .append(") * ").append(random.nextInt(30));
+                                break;
+                            case 2:
+                                text.append(random.nextLong() >>> 1).append(" / ").append(1 + random.nextInt(1000))
+                                        .append(" + ").append(random.nextInt(100000));
+                                break;
+                            default:
+                                text.append(random.nextInt(100)).append('.').append(random.nextInt(100)).append(" * -")
+                                        .append(random.nextInt(100)).append('.').append(random.nextInt(100));
+                                break;
+                        }
+                        text.append(";\n");
+                    }
+                    declarators = STATEMENTS;
+                    break;
+                default:
+                    text.append("int value_0 = 1;\n");
+                    for (int i = 1; i < STATEMENTS; i++) {
+                        text.append("long value_").append(i).append(" = value_").append(random.nextInt(i))
+                                .append(" + 3 * (value_").append(random.nextInt(i)).append(" - ")
+                                .append(random.nextInt(1000)).append(") % 7;\n");
+                    }
+                    declarators = STATEMENTS;
+                    break;
+            }
+            tokens = LexicalAnalyzer.scan(text.toString());
+            if (!SyntaxAnalyzer.analyze(tokens) || !SemanticAnalyzer.analyze(tokens)) {
+                throw new IllegalStateException("Generated " + shape + " input does not compile");
+            }
+        }
+    }
+
+    @Benchmark
+    public boolean syntax(Input input, DeclarationCounter counter) {
+        counter.declarations += input.declarators;
+        return SyntaxAnalyzer.analyze(input.tokens);
+    }
+
+    @Benchmark
+    public boolean semantic(Input input, DeclarationCounter counter) {
+        counter.declarations += input.declarators;
+        return SemanticAnalyzer.analyze(input.tokens);
+    }
+
+    @State(Scope.Thread)
+    public static class Pool {
+        public final ConstantPool constants = new ConstantPool();
+    }
+
+    @Benchmark
+    public boolean semanticPool(Input input, Pool pool, DeclarationCounter counter) {
+        counter.declarations += input.declarators;
+        pool.constants.clear();
+        return SemanticAnalyzer.analyze(input.tokens, new SymbolTable(input.tokens.source()), pool.constants);
+    }
+
+    // The flat shape again, the only one the old grammar parses
+    @State(Scope.Benchmark)
+    public static class Flat {
+        public TokenBuffer tokens;
+
+        @Setup(Level.Trial)
+        public void generate() throws IOException {
+            StringBuilder text = new StringBuilder();
+            DeclarationGenerator.write(text, STATEMENTS, new Random(STATEMENTS));
+            tokens = LexicalAnalyzer.scan(text.toString());
+        }
+    }
+
+    @Benchmark
+    public boolean syntaxFlatBaseline(Flat flat, DeclarationCounter counter) {
+        counter.declarations += STATEMENTS;
+        return FlatSyntaxAnalyzer.analyze(flat.tokens);
+    }
+}
@@ -0,0 +1,120 @@
+package com.benchmark;
+
+import com.analyzer.CompileMode;
+import com.analyzer.CompilerPipeline;
+import com.analyzer.LexicalAnalyzer;
+import com.analyzer.MappedCompiler;
+import com.analyzer.SemanticAnalyzer;
+import com.analyzer.SyntaxAnalyzer;
+import com.analyzer.TokenBuffer;
+import com.model.CompilationResult;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+public class PipelineBenchmark {
+
+    // The Token list takes about 420 bytes a declaration, over 4 GB at 10M,
+    // so this one gets a larger heap and hands back only the list's size
+    @Benchmark
+    @Fork(value = 1, jvmArgsAppend = {"-Xms8g", "-Xmx8g"})
+    public int tokenize(PipelineState state, DeclarationCounter counter) {
+        counter.declarations += state.declarations;
+        return LexicalAnalyzer.tokenize(state.source).size();
+    }
+
+    @Benchmark
+    public TokenBuffer scan(PipelineState state, DeclarationCounter counter) {
+        counter.declarations += state.declarations;
+        return LexicalAnalyzer.scan(state.source);
+    }
+
+    // scan over the file's bytes, which takes the SWAR path, and the same with it turned off
+    @Benchmark
+    public TokenBuffer scanBytes(PipelineState state, ByteSourceState source, DeclarationCounter counter) {
+        counter.declarations += state.declarations;
+        return LexicalAnalyzer.scan(source.bytes);
+    }
+
+    @Benchmark
+    @Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g", "-Dminicompiler.lexer=scalar"})
+    public TokenBuffer scanBytesScalar(PipelineState state, ByteSourceState source, DeclarationCounter counter) {
+        counter.declarations += state.declarations;
+        return LexicalAnalyzer.scan(source.bytes);
+    }
+
+    @Benchmark
+    public boolean isValidLexically(PipelineState state, DeclarationCounter counter) {
+        counter.declarations += state.declarations;
+        return LexicalAnalyzer.isValidLexically(state.tokenBuffer);
+    }
+
+    @Benchmark
+    public boolean syntax(PipelineState state, DeclarationCounter counter) {
+        counter.declarations += state.declarations;
+        return SyntaxAnalyzer.analyze(state.tokenBuffer);
+    }
+
+    @Benchmark
+    public boolean semantic(PipelineState state, DeclarationCounter counter) {
+        counter.declarations += state.declarations;
+        return SemanticAnalyzer.analyze(state.tokenBuffer);
+    }
+
+    @Benchmark
+    public CompilationResult pipelineStaged(PipelineState state, DeclarationCounter counter) {
+        counter.declarations += state.declarations;
+        return CompilerPipeline.compile(state.source, CompileMode.STAGED);
+    }
+
+    // pipelineStaged on reused buffers and tables; gc.alloc.rate.norm should
+    // come down to the CompilationResult once they have grown
+    @Benchmark
+    public CompilationResult pipelineStagedContext(PipelineState state, ContextState context, DeclarationCounter counter) {
+        counter.declarations += state.declarations;
+        return context.context.compile(state.source);
+    }
+
+    // pipelineStaged with a CompilerMetrics listener recording every phase
+    @Benchmark
+    public CompilationResult pipelineStagedTraced(PipelineState state, TracingState tracing, DeclarationCounter counter) {
+        counter.declarations += state.declarations;
+        return CompilerPipeline.compile(state.source, CompileMode.STAGED);
+    }
+
+    @Benchmark
+    public CompilationResult pipelineFused(PipelineState state, DeclarationCounter counter) {
+        counter.declarations += state.declarations;
+        return CompilerPipeline.compile(state.source, CompileMode.FUSED);
+    }
+
+    @Benchmark
+    public CompilationResult pipelineParallel(PipelineState state, DeclarationCounter counter) {
+        counter.declarations += state.declarations;
+        return CompilerPipeline.compile(state.source, CompileMode.PARALLEL);
+    }
+
+    @Benchmark
+    public CompilationResult pipelineMapped(PipelineState state, DeclarationCounter counter) throws IOException {
+        counter.declarations += state.declarations;
+        return MappedCompiler.compile(state.file);
+    }
+
+    @Benchmark
+    @Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g", "-Dminicompiler.lexer=scalar"})
+    public CompilationResult pipelineMappedScalar(PipelineState state, DeclarationCounter counter) throws IOException {
+        counter.declarations += state.declarations;
+        return MappedCompiler.compile(state.file);
+    }
+}
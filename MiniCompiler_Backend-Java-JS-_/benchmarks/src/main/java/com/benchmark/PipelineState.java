@@ -0,0 +1,29 @@
+package com.benchmark;
+
+import com.analyzer.LexicalAnalyzer;
+import com.analyzer.TokenBuffer;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+@State(Scope.Benchmark)
+public class PipelineState {
+    @Param({"1000", "100000", "10000000"})
+    public int declarations;
+
+    public Path file;
+    public String source;
+    public TokenBuffer tokenBuffer;
+
+    @Setup(Level.Trial)
+    public void load() throws IOException {
+        file = DeclarationGenerator.declarations(declarations);
+        source = Files.readString(file);
+        tokenBuffer = LexicalAnalyzer.scan(source);
+    }
+}
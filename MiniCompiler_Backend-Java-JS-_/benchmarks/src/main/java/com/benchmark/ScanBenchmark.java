@@ -0,0 +1,76 @@
+package com.benchmark;
+
+import com.analyzer.ByteCharSequence;
+import com.analyzer.LexicalAnalyzer;
+import com.analyzer.TokenBuffer;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+// The lexer's SWAR search against its char-by-char loops, on 100K String
+// declarations whose names and literals are tokenLength chars long. The
+// generated declaration files (PipelineBenchmark.scanBytes) have tokens of
+// five chars or so, under the length where the lexer switches to SWAR
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+public class ScanBenchmark {
+    private static final int DECLARATIONS = 100_000;
+
+    @State(Scope.Benchmark)
+    public static class Input {
+        @Param({"8", "32", "128"})
+        public int tokenLength;
+
+        public String source;
+        public ByteCharSequence bytes;
+
+        @Setup(Level.Trial)
+        public void generate() {
+            StringBuilder text = new StringBuilder();
+            for (int i = 0; i < DECLARATIONS; i++) {
+                String name = "name_" + i;
+                text.append("String ").append(name);
+                for (int k = name.length(); k < tokenLength; k++) text.append('x');
+                text.append(" = \"");
+                for (int k = 0; k < tokenLength; k++) text.append((char) ('a' + (i + k) % 26));
+                text.append("\";\n");
+            }
+            source = text.toString();
+            bytes = new ByteCharSequence(ByteBuffer.wrap(source.getBytes(StandardCharsets.US_ASCII)));
+        }
+    }
+
+    @Benchmark
+    public TokenBuffer scanString(Input input, DeclarationCounter counter) {
+        counter.declarations += DECLARATIONS;
+        return LexicalAnalyzer.scan(input.source);
+    }
+
+    @Benchmark
+    public TokenBuffer scanBytes(Input input, DeclarationCounter counter) {
+        counter.declarations += DECLARATIONS;
+        return LexicalAnalyzer.scan(input.bytes);
+    }
+
+    @Benchmark
+    @Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g", "-Dminicompiler.lexer=scalar"})
+    public TokenBuffer scanBytesScalar(Input input, DeclarationCounter counter) {
+        counter.declarations += DECLARATIONS;
+        return LexicalAnalyzer.scan(input.bytes);
+    }
+}
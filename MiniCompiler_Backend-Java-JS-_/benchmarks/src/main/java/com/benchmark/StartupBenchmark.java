@@ -0,0 +1,66 @@
+package com.benchmark;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+// Wall time of one complete `java -jar minicompiler.jar --file=...` run on a
+// small file, with and without the CDS archive the build writes next to the
+// jar. Startup dominates such runs, so this is the number to watch for
+// startup regressions. Run from the project root or point -Dbench.jar at
+// the compiler jar; the archive is looked up beside it.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class StartupBenchmark {
+    @Param({"default", "app-cds"})
+    public String archive;
+
+    private List<String> command;
+
+    @Setup(Level.Trial)
+    public void locate() throws IOException {
+        Path jar = Paths.get(System.getProperty("bench.jar", "Mini Compiler/Mini compiler/target/minicompiler-1.0-SNAPSHOT.jar"));
+        if (!Files.exists(jar)) throw new IOException("Compiler jar not found: " + jar.toAbsolutePath() + " (set -Dbench.jar)");
+        command = new ArrayList<>();
+        command.add(Paths.get(System.getProperty("java.home"), "bin", "java").toString());
+        if (archive.equals("app-cds")) {
+            Path jsa = jar.resolveSibling("minicompiler.jsa");
+            if (!Files.exists(jsa)) throw new IOException("CDS archive not found: " + jsa.toAbsolutePath() + " (run mvn package)");
+            command.add("-XX:SharedArchiveFile=" + jsa);
+        }
+        command.add("-jar");
+        command.add(jar.toString());
+        command.add("--file=" + DeclarationGenerator.declarations(1000));
+    }
+
+    @Benchmark
+    public int compileOneFile() throws IOException, InterruptedException {
+        Process process = new ProcessBuilder(command)
+                .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+                .redirectErrorStream(true)
+                .start();
+        int status = process.waitFor();
+        if (status != 0) throw new IllegalStateException("Compiler exited with " + status);
+        return status;
+    }
+}
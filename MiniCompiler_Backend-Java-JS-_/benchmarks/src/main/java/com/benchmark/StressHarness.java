@@ -0,0 +1,350 @@
+package com.benchmark;
+
+import com.analyzer.CompilationContext;
+import com.analyzer.CompileMode;
+import com.analyzer.CompilerPipeline;
+import com.analyzer.LexicalAnalyzer;
+import com.analyzer.MappedCompiler;
+import com.analyzer.TokenStream;
+import com.analyzer.TokenStreamWriter;
+import com.model.CompilationResult;
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.zip.CRC32;
+
+// Differential stress test of every Java compile path against outcomes
+// recorded from the JavaScript analyzers. Corpora come from
+// CorpusGenerator, valid and invalid, in three sizes; the golden file of
+// each holds the checksum of the corpus it was captured from, a digest and
+// histogram of the outcomes, and for the small size every outcome in order.
+// check needs nothing but the golden files, so it runs offline and in the
+// build; capture needs Node and rewrites them.
+//
+// From the benchmarks directory:
+//   java -cp target/benchmarks.jar com.benchmark.StressHarness check [--sizes=small,medium,large] [--rounds=N]
+//   java -cp target/benchmarks.jar com.benchmark.StressHarness capture [--node=PATH] [--js=DIR] [--out=DIR]
+//
+// check prints the throughput of each path per corpus and exits 1 on any
+// difference, so a faster path can be shown not to change behavior.
+public class StressHarness {
+    private static final String[] OUTCOMES = {"PASSED", "LEXICAL", "SYNTAX", "SEMANTIC"};
+    private static final Map<String, Integer> SIZES = new LinkedHashMap<>();
+    private static final Map<String, Function<String, CompilationResult>> PATHS = new LinkedHashMap<>();
+    // Sizes whose golden files list every outcome, not just the digest
+    private static final String LISTED_SIZE = "small";
+    private static final int MAX_REPORTED = 5;
+    private static Path mappedInput;
+
+    static {
+        SIZES.put("small", 1_000);
+        SIZES.put("medium", 10_000);
+        SIZES.put("large", 100_000);
+
+        PATHS.put("staged", CompilerPipeline::compileStaged);
+        PATHS.put("fused", source -> CompilerPipeline.compile(source, CompileMode.FUSED));
+        PATHS.put("parallel", source -> CompilerPipeline.compile(source, CompileMode.PARALLEL));
+        PATHS.put("diagnostics", source -> CompilerPipeline.diagnose(source, 1).getResult());
+        // One context for the whole corpus, fed UTF-8 bytes as from a file
+        PATHS.put("context", source -> {
+            byte[] bytes = source.getBytes(StandardCharsets.UTF_8);
+            try {
+                return CompilationContext.forThread().compile(Channels.newChannel(new ByteArrayInputStream(bytes)), bytes.length);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        // Every case written to one file in turn, then mapped and lexed as bytes
+        PATHS.put("mapped", source -> {
+            try {
+                Files.write(mappedInput(), source.getBytes(StandardCharsets.UTF_8));
+                return MappedCompiler.compile(mappedInput());
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        PATHS.put("token-stream", source -> {
+            try {
+                return TokenStream.read(TokenStreamWriter.encode(LexicalAnalyzer.scan(source))).compile();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        String command = args.length > 0 && !args[0].startsWith("--") ? args[0] : "check";
+        List<String> sizes = new ArrayList<>(SIZES.keySet());
+        String golden = null;
+        String node = "node";
+        String js = "../Mini Compiler/Mini compiler/src/com/analyzer";
+        String out = "src/main/resources/golden";
+        int rounds = 3;
+        for (String arg : args) {
+            if (arg.startsWith("--sizes=")) sizes = List.of(arg.substring("--sizes=".length()).split(","));
+            else if (arg.startsWith("--golden=")) golden = arg.substring("--golden=".length());
+            else if (arg.startsWith("--node=")) node = arg.substring("--node=".length());
+            else if (arg.startsWith("--js=")) js = arg.substring("--js=".length());
+            else if (arg.startsWith("--out=")) out = arg.substring("--out=".length());
+            else if (arg.startsWith("--rounds=")) rounds = Integer.parseInt(arg.substring("--rounds=".length()));
+        }
+        for (String size : sizes) {
+            if (!SIZES.containsKey(size)) {
+                System.err.println("Unknown size " + size + "; expected one of " + SIZES.keySet());
+                System.exit(2);
+            }
+        }
+
+        if (command.equals("capture")) {
+            for (String size : sizes) {
+                for (boolean valid : new boolean[] {true, false}) capture(new Corpus(valid, size), node, Paths.get(js), Paths.get(out));
+            }
+            return;
+        }
+        if (!command.equals("check")) {
+            System.err.println("Usage: StressHarness check|capture [options]");
+            System.exit(2);
+        }
+
+        System.out.printf("%-16s %8s %10s  %-13s %-8s %10s %12s%n", "corpus", "cases", "chars", "path", "result", "Mchars/s", "cases/s");
+        boolean ok = true;
+        for (String size : sizes) {
+            for (boolean valid : new boolean[] {true, false}) {
+                ok &= check(new Corpus(valid, size), golden == null ? null : Paths.get(golden), rounds);
+            }
+        }
+        if (!ok) System.exit(1);
+    }
+
+    private static boolean check(Corpus corpus, Path goldenDir, int rounds) throws IOException {
+        Golden golden = Golden.load(corpus.name, goldenDir);
+        if (golden == null) {
+            System.out.println(corpus.name + ": no golden file; run capture");
+            return false;
+        }
+        if (golden.corpusChecksum != corpus.checksum || golden.cases != corpus.cases.size()) {
+            System.out.println(corpus.name + ": corpus differs from the one the golden file was captured from; run capture");
+            return false;
+        }
+
+        boolean ok = true;
+        for (Map.Entry<String, Function<String, CompilationResult>> path : PATHS.entrySet()) {
+            String[] outcomes = new String[corpus.cases.size()];
+            long best = Long.MAX_VALUE;
+            for (int round = 0; round < rounds; round++) {
+                long start = System.nanoTime();
+                for (int i = 0; i < outcomes.length; i++) {
+                    CompilationResult result = path.getValue().apply(corpus.cases.get(i));
+                    if (round == 0) outcomes[i] = outcome(result);
+                }
+                best = Math.min(best, System.nanoTime() - start);
+            }
+            List<String> differences = golden.compare(outcomes, corpus);
+            ok &= differences.isEmpty();
+            double seconds = best / 1e9;
+            System.out.printf("%-16s %8d %10d  %-13s %-8s %10.1f %12.0f%n", corpus.name, outcomes.length, corpus.chars,
+                    path.getKey(), differences.isEmpty() ? "ok" : "DIFFERS", corpus.chars / seconds / 1e6, outcomes.length / seconds);
+            for (String difference : differences) System.out.println("    " + difference);
+        }
+        return ok;
+    }
+
+    private static void capture(Corpus corpus, String node, Path js, Path out) throws IOException, InterruptedException {
+        Path script = Paths.get("src/main/js/golden.js");
+        Path input = Files.createTempFile("corpus-", ".jsonl");
+        try {
+            try (BufferedWriter writer = Files.newBufferedWriter(input, StandardCharsets.UTF_8)) {
+                for (String source : corpus.cases) {
+                    writeJson(writer, source);
+                    writer.write('\n');
+                }
+            }
+            Process process = new ProcessBuilder(node, script.toString(), js.toString())
+                    .redirectInput(input.toFile())
+                    .redirectError(ProcessBuilder.Redirect.INHERIT)
+                    .start();
+            List<String> outcomes = new ArrayList<>(corpus.cases.size());
+            try (BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8))) {
+                for (String line = reader.readLine(); line != null; line = reader.readLine()) outcomes.add(line);
+            }
+            if (process.waitFor() != 0 || outcomes.size() != corpus.cases.size()) {
+                throw new IOException(node + " failed on " + corpus.name + " after " + outcomes.size() + " cases");
+            }
+            Files.createDirectories(out);
+            Golden.write(out.resolve(corpus.name + ".txt"), corpus, outcomes.toArray(new String[0]));
+            System.out.println(corpus.name + ": " + outcomes.size() + " outcomes captured");
+        } finally {
+            Files.delete(input);
+        }
+    }
+
+    private static Path mappedInput() throws IOException {
+        if (mappedInput == null) {
+            mappedInput = Files.createTempFile("stress-", ".txt");
+            mappedInput.toFile().deleteOnExit();
+        }
+        return mappedInput;
+    }
+
+    static String outcome(CompilationResult result) {
+        String phase = result.isSuccessful() ? "PASSED" : result.getFailedPhase().name();
+        return phase + " " + result.getTokenCount();
+    }
+
+    // A JSON string with everything outside printable ASCII escaped, so
+    // each case stays on one line whatever it contains
+    private static void writeJson(Writer out, String text) throws IOException {
+        out.write('"');
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '"' || c == '\\') {
+                out.write('\\');
+                out.write(c);
+            } else if (c < 0x20 || c >= 0x7F) {
+                out.write(String.format("\\u%04x", (int) c));
+            } else {
+                out.write(c);
+            }
+        }
+        out.write('"');
+    }
+
+    // Escaped and shortened, for reporting a case
+    private static String preview(String text) {
+        StringBuilder out = new StringBuilder();
+        for (int i = 0; i < text.length() && out.length() < 120; i++) {
+            char c = text.charAt(i);
+            if (c == '\n') out.append("\\n");
+            else if (c < 0x20 || c >= 0x7F) out.append(String.format("\\u%04x", (int) c));
+            else out.append(c);
+        }
+        return text.length() > 120 ? out + "..." : out.toString();
+    }
+
+    static final class Corpus {
+        final String name;
+        final List<String> cases;
+        final long checksum;
+        final long chars;
+
+        Corpus(boolean valid, String size) {
+            this.name = (valid ? "valid-" : "invalid-") + size;
+            this.cases = CorpusGenerator.generate(name.hashCode(), SIZES.get(size), valid);
+            CRC32 crc = new CRC32();
+            long total = 0;
+            for (String source : cases) {
+                crc.update(source.getBytes(StandardCharsets.UTF_8));
+                crc.update(0);
+                total += source.length();
+            }
+            this.checksum = crc.getValue();
+            this.chars = total;
+        }
+    }
+
+    // The expected outcomes of one corpus:
+    //   corpus <checksum>       CRC-32 of the cases, each followed by a zero byte
+    //   cases <n>
+    //   outcomes PASSED=<n> LEXICAL=<n> SYNTAX=<n> SEMANTIC=<n>
+    //   digest <checksum>       CRC-32 of the outcome lines
+    //   <outcome> <tokens>      one per case, in order, for the listed size only
+    static final class Golden {
+        long corpusChecksum;
+        int cases;
+        String histogram;
+        long digest;
+        final List<String> listed = new ArrayList<>();
+
+        static Golden load(String name, Path dir) throws IOException {
+            InputStream in = dir == null
+                    ? StressHarness.class.getResourceAsStream("/golden/" + name + ".txt")
+                    : Files.exists(dir.resolve(name + ".txt")) ? Files.newInputStream(dir.resolve(name + ".txt")) : null;
+            if (in == null) return null;
+            Golden golden = new Golden();
+            try (BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8))) {
+                for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+                    if (line.isEmpty() || line.startsWith("#")) continue;
+                    int space = line.indexOf(' ');
+                    String key = line.substring(0, space);
+                    String value = line.substring(space + 1);
+                    switch (key) {
+                        case "corpus": golden.corpusChecksum = Long.parseLong(value, 16); break;
+                        case "cases": golden.cases = Integer.parseInt(value); break;
+                        case "outcomes": golden.histogram = value; break;
+                        case "digest": golden.digest = Long.parseLong(value, 16); break;
+                        default: golden.listed.add(line);
+                    }
+                }
+            }
+            return golden;
+        }
+
+        static void write(Path file, Corpus corpus, String[] outcomes) throws IOException {
+            try (BufferedWriter out = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+                out.write("# " + corpus.name + ": outcomes of the JavaScript analyzers; rewrite with StressHarness capture\n");
+                out.write("corpus " + Long.toHexString(corpus.checksum) + "\n");
+                out.write("cases " + outcomes.length + "\n");
+                out.write("outcomes " + histogram(outcomes) + "\n");
+                out.write("digest " + Long.toHexString(digest(outcomes)) + "\n");
+                if (corpus.name.endsWith("-" + LISTED_SIZE)) {
+                    for (String outcome : outcomes) out.write(outcome + "\n");
+                }
+            }
+        }
+
+        // Empty when the outcomes match
+        List<String> compare(String[] outcomes, Corpus corpus) {
+            List<String> differences = new ArrayList<>();
+            if (!listed.isEmpty()) {
+                for (int i = 0; i < outcomes.length && differences.size() < MAX_REPORTED; i++) {
+                    if (outcomes[i].equals(listed.get(i))) continue;
+                    differences.add("case " + i + ": expected " + listed.get(i) + ", got " + outcomes[i]
+                            + ": \"" + preview(corpus.cases.get(i)) + "\"");
+                }
+            }
+            if (differences.isEmpty() && digest(outcomes) != digest) {
+                differences.add("expected outcomes " + histogram + ", got " + histogram(outcomes));
+            }
+            return differences;
+        }
+
+        static String histogram(String[] outcomes) {
+            int[] counts = new int[OUTCOMES.length];
+            for (String outcome : outcomes) {
+                for (int k = 0; k < OUTCOMES.length; k++) {
+                    if (outcome.startsWith(OUTCOMES[k] + " ")) counts[k]++;
+                }
+            }
+            StringBuilder text = new StringBuilder();
+            for (int k = 0; k < OUTCOMES.length; k++) {
+                if (k > 0) text.append(' ');
+                text.append(OUTCOMES[k]).append('=').append(counts[k]);
+            }
+            return text.toString();
+        }
+
+        static long digest(String[] outcomes) {
+            CRC32 crc = new CRC32();
+            for (String outcome : outcomes) {
+                crc.update(outcome.getBytes(StandardCharsets.US_ASCII));
+                crc.update('\n');
+            }
+            return crc.getValue();
+        }
+    }
+}
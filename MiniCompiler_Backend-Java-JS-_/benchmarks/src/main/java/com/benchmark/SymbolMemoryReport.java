@@ -0,0 +1,69 @@
+package com.benchmark;
+
+import com.analyzer.DataType;
+import com.analyzer.LexicalAnalyzer;
+import com.analyzer.SymbolTable;
+import com.analyzer.TokenBuffer;
+import com.analyzer.TokenKind;
+import java.io.IOException;
+import java.lang.ref.Reference;
+import java.nio.file.Files;
+import java.util.HashSet;
+import java.util.function.Supplier;
+
+// Prints the heap each symbol structure retains per declared identifier,
+// measured as the difference in used heap after full GCs, next to the
+// table's own accounting (SymbolTable.memoryBytes). The serial collector
+// keeps the used-heap figure exact.
+//
+//   java -XX:+UseSerialGC -cp benchmarks/target/benchmarks.jar com.benchmark.SymbolMemoryReport [declarations]
+public class SymbolMemoryReport {
+    public static void main(String[] args) throws IOException {
+        int declarations = args.length > 0 ? Integer.parseInt(args[0]) : 1000000;
+        String source = Files.readString(DeclarationGenerator.declarations(declarations));
+        TokenBuffer tokens = LexicalAnalyzer.scan(source);
+
+        SymbolTable offsets = fill(new SymbolTable(source), tokens);
+        SymbolTable interned = fill(new SymbolTable(), tokens);
+        int symbols = offsets.size();
+        System.out.printf("%d symbols%n", symbols);
+        System.out.printf("SymbolTable (offsets)     %6.1f bytes/symbol retained, %6.1f by its own count%n",
+                retained(() -> fill(new SymbolTable(source), tokens)) / (double) symbols, offsets.bytesPerSymbol());
+        System.out.printf("SymbolTable (interned)    %6.1f bytes/symbol retained, %6.1f by its own count%n",
+                retained(() -> fill(new SymbolTable(), tokens)) / (double) symbols, interned.bytesPerSymbol());
+        System.out.printf("HashSet<CharSequence>     %6.1f bytes/symbol retained%n",
+                retained(() -> {
+                    HashSet<CharSequence> set = new HashSet<>();
+                    for (int i = 0; i < tokens.size(); i++) {
+                        if (tokens.kind(i) == TokenKind.IDENTIFIER) set.add(tokens.lexeme(i));
+                    }
+                    return set;
+                }) / (double) symbols);
+    }
+
+    static SymbolTable fill(SymbolTable table, TokenBuffer tokens) {
+        CharSequence text = tokens.source();
+        for (int i = 1; i < tokens.size(); i++) {
+            if (tokens.kind(i) != TokenKind.IDENTIFIER) continue;
+            int typeStart = tokens.start(i - 1);
+            DataType type = DataType.lookup(text, typeStart, typeStart + tokens.length(i - 1));
+            int start = tokens.start(i);
+            table.declare(text, start, start + tokens.length(i), type == null ? SymbolTable.NO_TYPE : type.code());
+        }
+        return table;
+    }
+
+    private static long retained(Supplier<Object> build) {
+        long before = usedAfterGc();
+        Object structure = build.get();
+        long after = usedAfterGc();
+        Reference.reachabilityFence(structure);
+        return after - before;
+    }
+
+    private static long usedAfterGc() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) System.gc();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
@@ -0,0 +1,50 @@
+package com.benchmark;
+
+import com.analyzer.SymbolTable;
+import com.analyzer.TokenBuffer;
+import com.analyzer.TokenKind;
+import java.util.HashSet;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+// Declares every identifier of a generated file, once in a SymbolTable keyed
+// by source offsets, once in an interning SymbolTable, and once in the
+// HashSet of lexeme views the semantic check used before. Run with the GC
+// profiler (the default) to compare bytes allocated per declaration; see
+// SymbolMemoryReport for the memory each structure retains.
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+public class SymbolTableBenchmark {
+
+    @Benchmark
+    public SymbolTable symbolTable(PipelineState state, DeclarationCounter counter) {
+        counter.declarations += state.declarations;
+        return SymbolMemoryReport.fill(new SymbolTable(state.source), state.tokenBuffer);
+    }
+
+    @Benchmark
+    public SymbolTable symbolTableInterned(PipelineState state, DeclarationCounter counter) {
+        counter.declarations += state.declarations;
+        return SymbolMemoryReport.fill(new SymbolTable(), state.tokenBuffer);
+    }
+
+    @Benchmark
+    public HashSet<CharSequence> hashSet(PipelineState state, DeclarationCounter counter) {
+        counter.declarations += state.declarations;
+        TokenBuffer tokens = state.tokenBuffer;
+        HashSet<CharSequence> variables = new HashSet<>();
+        for (int i = 0; i < tokens.size(); i++) {
+            if (tokens.kind(i) == TokenKind.IDENTIFIER) variables.add(tokens.lexeme(i));
+        }
+        return variables;
+    }
+}
@@ -0,0 +1,67 @@
+package com.benchmark;
+
+import com.analyzer.CompilerPipeline;
+import com.analyzer.LexicalAnalyzer;
+import com.analyzer.TokenBuffer;
+import com.analyzer.TokenStream;
+import com.analyzer.TokenStreamWriter;
+import com.model.CompilationResult;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+// Getting tokens back from a serialized stream versus re-lexing the source,
+// alone and followed by the syntax and semantic checks. The stream size
+// next to the source size is printed when each trial starts.
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+public class TokenStreamBenchmark {
+
+    @Benchmark
+    public TokenBuffer relex(PipelineState state, DeclarationCounter counter) {
+        counter.declarations += state.declarations;
+        return LexicalAnalyzer.scan(state.source);
+    }
+
+    @Benchmark
+    public TokenStream read(PipelineState state, TokenStreamState stream, DeclarationCounter counter) throws IOException {
+        counter.declarations += state.declarations;
+        return TokenStream.read(stream.encoded);
+    }
+
+    @Benchmark
+    public ByteBuffer write(PipelineState state, DeclarationCounter counter) throws IOException {
+        counter.declarations += state.declarations;
+        return TokenStreamWriter.encode(state.tokenBuffer);
+    }
+
+    @Benchmark
+    public CompilationResult relexAndCheck(PipelineState state, DeclarationCounter counter) {
+        counter.declarations += state.declarations;
+        return CompilerPipeline.compileStaged(state.source);
+    }
+
+    @Benchmark
+    public CompilationResult readAndCheck(PipelineState state, TokenStreamState stream, DeclarationCounter counter)
+            throws IOException {
+        counter.declarations += state.declarations;
+        return TokenStream.read(stream.encoded).compile();
+    }
+
+    @Benchmark
+    public CompilationResult mapAndCheck(PipelineState state, TokenStreamState stream, DeclarationCounter counter)
+            throws IOException {
+        counter.declarations += state.declarations;
+        return TokenStream.map(stream.file).compile();
+    }
+}
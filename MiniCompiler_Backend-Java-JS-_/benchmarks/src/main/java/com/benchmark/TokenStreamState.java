@@ -0,0 +1,34 @@
+package com.benchmark;
+
+import com.analyzer.TokenStreamWriter;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+// The PipelineState file serialized as a token stream, on the heap and on
+// disk beside the source
+@State(Scope.Benchmark)
+public class TokenStreamState {
+    public ByteBuffer encoded;
+    public Path file;
+
+    @Setup(Level.Trial)
+    public void encode(PipelineState pipeline) throws IOException {
+        encoded = TokenStreamWriter.encode(pipeline.tokenBuffer);
+        file = pipeline.file.resolveSibling(pipeline.file.getFileName() + ".mctk");
+        try (FileChannel out = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            TokenStreamWriter.write(pipeline.tokenBuffer, out);
+        }
+        long sourceBytes = Files.size(pipeline.file);
+        System.out.printf("%nToken stream: %d bytes for %d bytes of source (%.1f%%)%n",
+                encoded.remaining(), sourceBytes, 100.0 * encoded.remaining() / sourceBytes);
+    }
+}
@@ -0,0 +1,27 @@
+package com.benchmark;
+
+import com.analyzer.CompilerMetrics;
+import com.analyzer.CompilerPipeline;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+// Installs a CompilerMetrics listener for the benchmarks that take it, so
+// their scores can be set against the untraced ones
+@State(Scope.Benchmark)
+public class TracingState {
+    public CompilerMetrics metrics;
+
+    @Setup(Level.Trial)
+    public void install() {
+        metrics = new CompilerMetrics();
+        CompilerPipeline.setListener(metrics);
+    }
+
+    @TearDown(Level.Trial)
+    public void uninstall() {
+        CompilerPipeline.setListener(null);
+    }
+}
@@ -0,0 +1,33 @@
+// Runs the JavaScript analyzers over a corpus and prints one outcome per
+// case, in the form StressHarness records in its golden files:
+//
+//   node golden.js <dir with LexicalAnalyzer.js> < corpus.jsonl > outcomes.txt
+//
+// Each input line is one case as a JSON string; each output line is
+// "<PASSED|LEXICAL|SYNTAX|SEMANTIC> <token count>".
+const path = require('path');
+const readline = require('readline');
+
+const dir = path.resolve(process.argv[2] || '.');
+const LexicalAnalyzer = require(path.join(dir, 'LexicalAnalyzer'));
+const SyntaxAnalyzer = require(path.join(dir, 'SyntaxAnalyzer'));
+const SemanticAnalyzer = require(path.join(dir, 'SemanticAnalyzer'));
+
+function outcome(source) {
+    const tokens = LexicalAnalyzer.tokenize(source);
+    let phase = 'PASSED';
+    if (!LexicalAnalyzer.isValidLexically(tokens)) phase = 'LEXICAL';
+    else if (!SyntaxAnalyzer.analyze(tokens)) phase = 'SYNTAX';
+    else if (!SemanticAnalyzer.analyze(tokens)) phase = 'SEMANTIC';
+    return phase + ' ' + tokens.length;
+}
+
+const out = [];
+readline.createInterface({ input: process.stdin, crlfDelay: Infinity })
+    .on('line', (line) => {
+        out.push(outcome(JSON.parse(line)));
+        if (out.length === 1000) process.stdout.write(out.splice(0).join('\n') + '\n');
+    })
+    .on('close', () => {
+        if (out.length > 0) process.stdout.write(out.join('\n') + '\n');
+    });